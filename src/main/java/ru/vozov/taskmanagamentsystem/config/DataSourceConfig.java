@@ -0,0 +1,94 @@
+package ru.vozov.taskmanagamentsystem.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import ru.vozov.taskmanagamentsystem.datasource.ReadYourWritesTracker;
+import ru.vozov.taskmanagamentsystem.datasource.ReplicaRoutingDataSource;
+import ru.vozov.taskmanagamentsystem.datasource.WorkloadRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+public class DataSourceConfig {
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("datasource.auth.hikari")
+    public HikariDataSource authDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("auth");
+        return dataSource;
+    }
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker(
+            @Value("${replica.read-your-writes-window:5s}") Duration window,
+            @Value("${replica.read-your-writes-maximum-size:100000}") long maximumSize
+    ) {
+        return new ReadYourWritesTracker(window, maximumSize);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            @Qualifier("primaryDataSource") HikariDataSource primaryDataSource,
+            @Qualifier("authDataSource") HikariDataSource authDataSource,
+            ReadYourWritesTracker readYourWritesTracker,
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${replica.urls:}") List<String> replicaUrls,
+            @Value("${replica.retry-after:30s}") Duration retryAfter
+    ) {
+        List<String> urls = replicaUrls.stream().filter(url -> !url.isBlank()).toList();
+        DataSource defaultDataSource = primaryDataSource;
+
+        if (!urls.isEmpty()) {
+            List<DataSource> replicas = new ArrayList<>();
+
+            for (int i = 0; i < urls.size(); i++) {
+                replicas.add(replica(primaryDataSource, urls.get(i), i, meterRegistry.getIfAvailable()));
+            }
+
+            ReplicaRoutingDataSource replicaRoutingDataSource = new ReplicaRoutingDataSource(primaryDataSource, replicas, readYourWritesTracker, retryAfter);
+            replicaRoutingDataSource.afterPropertiesSet();
+            defaultDataSource = replicaRoutingDataSource;
+        }
+
+        WorkloadRoutingDataSource workloadRoutingDataSource = new WorkloadRoutingDataSource(defaultDataSource, authDataSource);
+        workloadRoutingDataSource.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(workloadRoutingDataSource);
+    }
+
+    private HikariDataSource replica(HikariDataSource primaryDataSource, String url, int index, MeterRegistry meterRegistry) {
+        //Пул реплики повторяет настройки основного пула, метрики регистрируются вручную, так как он не является бином
+        HikariDataSource replica = new HikariDataSource();
+        primaryDataSource.copyStateTo(replica);
+        replica.setJdbcUrl(url);
+        replica.setPoolName("replica-" + index);
+        replica.setReadOnly(true);
+
+        if (meterRegistry != null) {
+            replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        }
+
+        return replica;
+    }
+}
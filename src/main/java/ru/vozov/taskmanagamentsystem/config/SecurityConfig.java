@@ -1,9 +1,12 @@
 package ru.vozov.taskmanagamentsystem.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -15,13 +18,20 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import ru.vozov.taskmanagamentsystem.security.BCryptCostPasswordEncoder;
 import ru.vozov.taskmanagamentsystem.security.JwtAuthenticationFilter;
+import ru.vozov.taskmanagamentsystem.security.RateLimitFilter;
+import ru.vozov.taskmanagamentsystem.security.TimedPasswordEncoder;
 import ru.vozov.taskmanagamentsystem.service.UserService;
 
+import java.util.HashMap;
+import java.util.Map;
+
 @Slf4j
 @Configuration
 @EnableWebSecurity
@@ -30,11 +40,35 @@ import ru.vozov.taskmanagamentsystem.service.UserService;
 public class SecurityConfig {
     UserService userService;
     JwtAuthenticationFilter jwtAuthenticationFilter;
+    RateLimitFilter rateLimitFilter;
+    MeterRegistry meterRegistry;
+    String passwordAlgorithm;
+    int bcryptStrength;
+    int argon2MemoryKb;
+    int argon2Iterations;
+    int argon2Parallelism;
 
     @Autowired
-    public SecurityConfig(UserService userService, JwtAuthenticationFilter jwtAuthenticationFilter) {
+    public SecurityConfig(
+            UserService userService,
+            JwtAuthenticationFilter jwtAuthenticationFilter,
+            RateLimitFilter rateLimitFilter,
+            MeterRegistry meterRegistry,
+            @Value("${password.algorithm:bcrypt}") String passwordAlgorithm,
+            @Value("${password.bcrypt.strength:10}") int bcryptStrength,
+            @Value("${password.argon2.memory-kb:19456}") int argon2MemoryKb,
+            @Value("${password.argon2.iterations:2}") int argon2Iterations,
+            @Value("${password.argon2.parallelism:1}") int argon2Parallelism
+    ) {
         this.userService = userService;
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
+        this.rateLimitFilter = rateLimitFilter;
+        this.meterRegistry = meterRegistry;
+        this.passwordAlgorithm = passwordAlgorithm;
+        this.bcryptStrength = bcryptStrength;
+        this.argon2MemoryKb = argon2MemoryKb;
+        this.argon2Iterations = argon2Iterations;
+        this.argon2Parallelism = argon2Parallelism;
     }
 
     @Bean
@@ -43,17 +77,24 @@ public class SecurityConfig {
                 .csrf(AbstractHttpConfigurer::disable)
                 .formLogin(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(auth -> auth
+                        //Повторная диспетчеризация асинхронных ответов (SSE) уже прошла проверку доступа
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                        .requestMatchers("/api/auth/logout").authenticated()
                         .requestMatchers("/api/auth/**").permitAll()
+                        .requestMatchers("/.well-known/jwks.json").permitAll()
                         .requestMatchers(
                                 "/swagger-ui/**",
                                 "/v3/api-docs/**",
                                 "/swagger-resources/**"
                         ).permitAll()
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 )
                 .sessionManagement(manager -> manager.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authenticationProvider(authenticationProvider())
-                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class);
 
         return http.build();
     }
@@ -63,12 +104,33 @@ public class SecurityConfig {
         DaoAuthenticationProvider authenticationProvider = new DaoAuthenticationProvider();
         authenticationProvider.setPasswordEncoder(passwordEncoder());
         authenticationProvider.setUserDetailsService(userService);
+        //После успешного входа хеш с другим алгоритмом или стоимостью переписывается текущими настройками
+        authenticationProvider.setUserDetailsPasswordService(userService);
         return authenticationProvider;
     }
 
+    //Хеши хранятся с префиксом алгоритма ({bcrypt}, {argon2}), новые пароли кодируются алгоритмом password.algorithm.
+    //Старые хеши без префикса - это bcrypt
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        PasswordEncoder bcrypt = new TimedPasswordEncoder("bcrypt", new BCryptCostPasswordEncoder(bcryptStrength), meterRegistry);
+        PasswordEncoder argon2 = new TimedPasswordEncoder(
+                "argon2",
+                new Argon2PasswordEncoder(16, 32, argon2Parallelism, argon2MemoryKb, argon2Iterations),
+                meterRegistry
+        );
+
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put("bcrypt", bcrypt);
+        encoders.put("argon2", argon2);
+
+        if (!encoders.containsKey(passwordAlgorithm)) {
+            throw new IllegalStateException(String.format("Unsupported password.algorithm %s, expected bcrypt or argon2", passwordAlgorithm));
+        }
+
+        DelegatingPasswordEncoder passwordEncoder = new DelegatingPasswordEncoder(passwordAlgorithm, encoders);
+        passwordEncoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return passwordEncoder;
     }
 
     @Bean
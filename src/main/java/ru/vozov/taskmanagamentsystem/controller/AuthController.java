@@ -5,10 +5,12 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -20,6 +22,8 @@ import ru.vozov.taskmanagamentsystem.service.AuthService;
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 @Tag(name = "Authentication", description = "API для аутентификации и регистрации")
 public class AuthController {
+    static String BEARER_PREFIX = "Bearer ";
+
     AuthService authService;
 
     @Autowired
@@ -60,12 +64,63 @@ public class AuthController {
                             responseCode = "401",
                             description = "Переданы некорректные данные для аутентификации",
                             content = @Content(schema = @Schema(implementation = ErrorDto.class))
+                    ),
+                    @ApiResponse(
+                            responseCode = "429",
+                            description = "Вход для email или адреса временно заблокирован после неудачных попыток",
+                            content = @Content(schema = @Schema(implementation = ErrorDto.class))
                     )
             }
     )
     @PostMapping("/sign-in")
-    public ResponseEntity<JwtDto> signIn(@RequestBody @Valid LoginUserDto loginUserDto) {
-        JwtDto response = authService.signIn(loginUserDto);
+    public ResponseEntity<JwtDto> signIn(@RequestBody @Valid LoginUserDto loginUserDto, HttpServletRequest request) {
+        JwtDto response = authService.signIn(loginUserDto, request.getRemoteAddr());
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    @Operation(
+            summary = "Обновление токена доступа",
+            description = "Обменивает refresh-токен на новый токен доступа и новый refresh-токен без проверки пароля. "
+                    + "Каждый refresh-токен принимается один раз, повторное использование отзывает все токены, выпущенные по цепочке от того же входа",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Успешный ответ"
+                    ),
+                    @ApiResponse(
+                            responseCode = "401",
+                            description = "Refresh-токен недействителен, истек или отозван",
+                            content = @Content(schema = @Schema(implementation = ErrorDto.class))
+                    )
+            }
+    )
+    @PostMapping("/refresh")
+    public ResponseEntity<JwtDto> refresh(@RequestBody @Valid RefreshTokenDto refreshTokenDto) {
+        JwtDto response = authService.refresh(refreshTokenDto);
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
+
+    @Operation(
+            summary = "Выход из системы",
+            description = "Отзывает текущий токен доступа до истечения его срока. "
+                    + "Если передан refresh-токен, отзываются он и все токены, выпущенные по цепочке от того же входа",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "204",
+                            description = "Успешный ответ"
+                    ),
+                    @ApiResponse(
+                            responseCode = "403",
+                            description = "Токен доступа отсутствует, недействителен или уже отозван"
+                    )
+            }
+    )
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(
+            @RequestHeader(HttpHeaders.AUTHORIZATION) String authorization,
+            @RequestBody(required = false) @Valid RefreshTokenDto refreshTokenDto
+    ) {
+        authService.logout(authorization.substring(BEARER_PREFIX.length()), refreshTokenDto);
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
 }
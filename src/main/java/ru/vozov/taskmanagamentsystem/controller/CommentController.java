@@ -9,16 +9,24 @@ import jakarta.validation.Valid;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.vozov.taskmanagamentsystem.dto.CommentCreationDto;
 import ru.vozov.taskmanagamentsystem.dto.CommentDto;
 import ru.vozov.taskmanagamentsystem.dto.CommentUpdateDto;
+import ru.vozov.taskmanagamentsystem.dto.ConflictDto;
 import ru.vozov.taskmanagamentsystem.dto.ErrorDto;
 import ru.vozov.taskmanagamentsystem.model.Comment;
 import ru.vozov.taskmanagamentsystem.service.CommentService;
+import ru.vozov.taskmanagamentsystem.service.ConflictRetryPolicy;
+import ru.vozov.taskmanagamentsystem.service.ETagService;
+import ru.vozov.taskmanagamentsystem.service.IdempotencyService;
+import ru.vozov.taskmanagamentsystem.service.SingleFlight;
 
+import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -27,20 +35,38 @@ import java.util.UUID;
 @Tag(name = "Comments", description = "API для работы с комментариями")
 public class CommentController {
     CommentService commentService;
+    ConflictRetryPolicy conflictRetryPolicy;
+    ETagService eTagService;
+    IdempotencyService idempotencyService;
+    SingleFlight singleFlight;
 
     @Autowired
-    public CommentController(CommentService commentService) {
+    public CommentController(
+            CommentService commentService,
+            ConflictRetryPolicy conflictRetryPolicy,
+            ETagService eTagService,
+            IdempotencyService idempotencyService,
+            SingleFlight singleFlight
+    ) {
         this.commentService = commentService;
+        this.conflictRetryPolicy = conflictRetryPolicy;
+        this.eTagService = eTagService;
+        this.idempotencyService = idempotencyService;
+        this.singleFlight = singleFlight;
     }
 
     @Operation(
             summary = "Получение комментария по id",
-            description = "Возвращает данные комментария по уникальному id",
+            description = "Возвращает данные комментария по уникальному id, поддерживает условный запрос с заголовком If-None-Match",
             responses = {
                     @ApiResponse(
                             responseCode = "200",
                             description = "Успешный ответ"
                     ),
+                    @ApiResponse(
+                            responseCode = "304",
+                            description = "Комментарий не изменился"
+                    ),
                     @ApiResponse(
                             responseCode = "404",
                             description = "Комментарий не найден",
@@ -49,14 +75,28 @@ public class CommentController {
             }
     )
     @GetMapping("/{id}")
-    public ResponseEntity<CommentDto> getComment(@PathVariable("id") UUID id) {
-        Comment comment = commentService.findById(id);
-        return new ResponseEntity<>(CommentDto.convert(comment), HttpStatus.OK);
+    public ResponseEntity<CommentDto> getComment(@PathVariable("id") UUID id, WebRequest request) {
+        String eTag = eTagService.commentETag(id);
+
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+
+        CommentDto commentDto = singleFlight.execute(
+                "CommentService.findById",
+                List.of(id, eTag),
+                () -> CommentDto.convert(commentService.findById(id))
+        );
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache())
+                .body(commentDto);
     }
 
     @Operation(
             summary = "Создание комментария",
-            description = "Создает комментарий для переданной задачи и возвращает данные по созданному комментарию",
+            description = "Создает комментарий для переданной задачи и возвращает данные по созданному комментарию. "
+                    + "Повтор запроса с тем же заголовком Idempotency-Key возвращает сохраненный ответ без создания нового комментария",
             responses = {
                     @ApiResponse(
                             responseCode = "201",
@@ -71,13 +111,31 @@ public class CommentController {
                             responseCode = "403",
                             description = "Нет прав на создание комментария",
                             content = @Content(schema = @Schema(implementation = ErrorDto.class))
+                    ),
+                    @ApiResponse(
+                            responseCode = "409",
+                            description = "Запрос с этим Idempotency-Key еще выполняется",
+                            content = @Content(schema = @Schema(implementation = ErrorDto.class))
+                    ),
+                    @ApiResponse(
+                            responseCode = "422",
+                            description = "Idempotency-Key уже использован с другим телом запроса",
+                            content = @Content(schema = @Schema(implementation = ErrorDto.class))
                     )
             }
     )
     @PostMapping
-    public ResponseEntity<CommentDto> createComment(@RequestBody @Valid CommentCreationDto commentCreationDto) {
-        Comment comment = commentService.save(commentCreationDto);
-        return new ResponseEntity<>(CommentDto.convert(comment), HttpStatus.CREATED);
+    public ResponseEntity<CommentDto> createComment(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @RequestBody @Valid CommentCreationDto commentCreationDto
+    ) {
+        return idempotencyService.execute(
+                "createComment",
+                idempotencyKey,
+                commentCreationDto,
+                CommentDto.class,
+                () -> new ResponseEntity<>(CommentDto.convert(commentService.save(commentCreationDto)), HttpStatus.CREATED)
+        );
     }
 
     @Operation(
@@ -129,11 +187,20 @@ public class CommentController {
                             description = "Комментарий не найден",
                             content = @Content(schema = @Schema(implementation = ErrorDto.class))
                     ),
+                    @ApiResponse(
+                            responseCode = "409",
+                            description = "Комментарий был изменен параллельно, возвращается его текущее состояние",
+                            content = @Content(schema = @Schema(implementation = ConflictDto.class))
+                    ),
             }
     )
     @PutMapping("/{id}")
     public ResponseEntity<CommentDto> updateComment(@PathVariable("id") UUID id, @RequestBody @Valid CommentUpdateDto commentUpdateDto) {
-        Comment comment = commentService.update(id, commentUpdateDto);
+        Comment comment = conflictRetryPolicy.execute(
+                () -> commentService.update(id, commentUpdateDto),
+                () -> CommentDto.convert(commentService.findById(id)),
+                false
+        );
         return new ResponseEntity<>(CommentDto.convert(comment), HttpStatus.OK);
     }
 }
@@ -0,0 +1,49 @@
+package ru.vozov.taskmanagamentsystem.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.vozov.taskmanagamentsystem.model.Task;
+import ru.vozov.taskmanagamentsystem.service.ChangeFeedService;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/events")
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Tag(name = "Events", description = "API для подписки на изменения задач и комментариев")
+public class EventController {
+    ChangeFeedService changeFeedService;
+
+    @Autowired
+    public EventController(ChangeFeedService changeFeedService) {
+        this.changeFeedService = changeFeedService;
+    }
+
+    @Operation(
+            summary = "Подписка на изменения",
+            description = "Открывает поток server-sent events с изменениями задач и комментариев, " +
+                    "отправленными после фиксации транзакции. Подписчик, не успевающий читать события, отключается",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Поток событий открыт")
+            }
+    )
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribe(
+            @RequestParam(value = "executorId", required = false) UUID executorId,
+            @RequestParam(value = "authorId", required = false) UUID authorId,
+            @RequestParam(value = "status", required = false) Task.Status status
+    ) {
+        return ResponseEntity.ok(changeFeedService.subscribe(executorId, authorId, status));
+    }
+}
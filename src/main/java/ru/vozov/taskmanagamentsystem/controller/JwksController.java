@@ -0,0 +1,44 @@
+package ru.vozov.taskmanagamentsystem.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.vozov.taskmanagamentsystem.service.JwtService;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@RestController
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Tag(name = "JWKS", description = "API открытых ключей для проверки токенов доступа")
+public class JwksController {
+    JwtService jwtService;
+
+    @Autowired
+    public JwksController(JwtService jwtService) {
+        this.jwtService = jwtService;
+    }
+
+    @Operation(
+            summary = "Открытые ключи подписи",
+            description = "Возвращает открытые ключи в формате JWK Set, которыми можно проверить подпись токенов доступа без обращения к сервису. " +
+                    "В режиме HS256 список пуст: общий секрет не публикуется",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Успешный ответ")
+            }
+    )
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, Object>> getJwks() {
+        //Шлюзы кешируют ключи; новый kid появляется в наборе раньше, чем им начинают подписывать токены
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(5, TimeUnit.MINUTES).cachePublic())
+                .body(Map.of("keys", jwtService.getPublicJwks()));
+    }
+}
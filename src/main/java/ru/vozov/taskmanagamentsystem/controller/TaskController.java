@@ -11,17 +11,37 @@ import lombok.experimental.FieldDefaults;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.vozov.taskmanagamentsystem.dto.ConflictDto;
 import ru.vozov.taskmanagamentsystem.dto.ErrorDto;
 import ru.vozov.taskmanagamentsystem.dto.TaskCreationDto;
 import ru.vozov.taskmanagamentsystem.dto.TaskDto;
+import ru.vozov.taskmanagamentsystem.dto.TaskStatsDto;
+import ru.vozov.taskmanagamentsystem.dto.TaskSyncDto;
 import ru.vozov.taskmanagamentsystem.dto.TaskUpdateDto;
 import ru.vozov.taskmanagamentsystem.model.Task;
+import ru.vozov.taskmanagamentsystem.service.ConflictRetryPolicy;
+import ru.vozov.taskmanagamentsystem.service.TaskArchiveService;
+import ru.vozov.taskmanagamentsystem.service.TaskCounterService;
+import ru.vozov.taskmanagamentsystem.service.ETagService;
+import ru.vozov.taskmanagamentsystem.service.IdempotencyService;
+import ru.vozov.taskmanagamentsystem.service.SingleFlight;
+import ru.vozov.taskmanagamentsystem.service.TaskDtoCache;
+import ru.vozov.taskmanagamentsystem.service.TaskExportService;
+import ru.vozov.taskmanagamentsystem.service.TaskFileFormat;
 import ru.vozov.taskmanagamentsystem.service.TaskService;
+import ru.vozov.taskmanagamentsystem.service.TaskSortField;
+import ru.vozov.taskmanagamentsystem.service.TaskSyncService;
 
+import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -30,20 +50,53 @@ import java.util.UUID;
 @Tag(name = "Tasks", description = "API для работы с задачами")
 public class TaskController {
     TaskService taskService;
+    ConflictRetryPolicy conflictRetryPolicy;
+    ETagService eTagService;
+    TaskDtoCache taskDtoCache;
+    TaskExportService taskExportService;
+    TaskCounterService taskCounterService;
+    TaskSyncService taskSyncService;
+    TaskArchiveService taskArchiveService;
+    IdempotencyService idempotencyService;
+    SingleFlight singleFlight;
 
     @Autowired
-    public TaskController(TaskService taskService) {
+    public TaskController(
+            TaskService taskService,
+            ConflictRetryPolicy conflictRetryPolicy,
+            ETagService eTagService,
+            TaskDtoCache taskDtoCache,
+            TaskExportService taskExportService,
+            TaskCounterService taskCounterService,
+            TaskSyncService taskSyncService,
+            TaskArchiveService taskArchiveService,
+            IdempotencyService idempotencyService,
+            SingleFlight singleFlight
+    ) {
         this.taskService = taskService;
+        this.conflictRetryPolicy = conflictRetryPolicy;
+        this.eTagService = eTagService;
+        this.taskDtoCache = taskDtoCache;
+        this.taskExportService = taskExportService;
+        this.taskCounterService = taskCounterService;
+        this.taskSyncService = taskSyncService;
+        this.taskArchiveService = taskArchiveService;
+        this.idempotencyService = idempotencyService;
+        this.singleFlight = singleFlight;
     }
 
     @Operation(
             summary = "Получение задачи по id",
-            description = "Возвращает данные задачи по уникальному id",
+            description = "Возвращает данные задачи по уникальному id, поддерживает условный запрос с заголовком If-None-Match",
             responses = {
                     @ApiResponse(
                             responseCode = "200",
                             description = "Успешный ответ"
                     ),
+                    @ApiResponse(
+                            responseCode = "304",
+                            description = "Задача не изменилась"
+                    ),
                     @ApiResponse(
                             responseCode = "404",
                             description = "Задача не найдена",
@@ -52,16 +105,37 @@ public class TaskController {
             }
     )
     @GetMapping("/{id}")
-    public ResponseEntity<TaskDto> getTask(@PathVariable UUID id) {
-        Task task = taskService.findById(id);
-        return new ResponseEntity<>(TaskDto.convert(task), HttpStatus.OK);
+    public ResponseEntity<TaskDto> getTask(@PathVariable UUID id, WebRequest request) {
+        //ETag вычисляется до загрузки задачи, чтобы параллельное изменение не закрепило за новым тегом старое тело ответа
+        String eTag = eTagService.taskETag(id);
+
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+
+        //ETag входит в ключ: к загрузке, начатой до изменения задачи, присоединяются только запросы со старым тегом
+        TaskDto taskDto = taskDtoCache.get(id, eTag, () -> singleFlight.execute(
+                "TaskService.findById",
+                List.of(id, eTag),
+                () -> TaskDto.convert(taskService.findById(id))
+        ));
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache())
+                .body(taskDto);
     }
 
     @Operation(
             summary = "Получение всех задач",
-            description = "Возвращает список задач с фильтрацией по параметрам и пагинацией",
+            description = "Возвращает список задач с фильтрацией по параметрам, пагинацией и сортировкой по priority, status, createdAt или updatedAt. "
+                    + "Архивные завершенные задачи возвращаются только с includeArchived=true, после активных",
             responses = {
-                    @ApiResponse(responseCode = "200", description = "Успешный ответ")
+                    @ApiResponse(responseCode = "200", description = "Успешный ответ"),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Неподдерживаемое поле или направление сортировки",
+                            content = @Content(schema = @Schema(implementation = ErrorDto.class))
+                    )
             }
     )
     @GetMapping
@@ -73,15 +147,132 @@ public class TaskController {
           @RequestParam(value = "authorId", required = false) UUID authorId,
           @RequestParam(value = "executorId", required = false) UUID executorId,
           @RequestParam(value = "page", defaultValue = "0") int page,
-          @RequestParam(value = "pageSize", defaultValue = "20") int pageSize
+          @RequestParam(value = "pageSize", defaultValue = "20") int pageSize,
+          @RequestParam(value = "sort", required = false) String sort,
+          @RequestParam(value = "direction", defaultValue = "asc") String direction,
+          @RequestParam(value = "includeArchived", defaultValue = "false") boolean includeArchived
     ) {
-        Page<Task> tasks = taskService.findTasksByFilter(title, description, priority, status, authorId, executorId, PageRequest.of(page, pageSize));
+        PageRequest pageRequest = sort == null
+                ? PageRequest.of(page, pageSize)
+                : PageRequest.of(page, pageSize, TaskSortField.of(sort).toSort(direction));
+        Page<Task> tasks = includeArchived
+                ? taskArchiveService.findTasksByFilter(title, description, priority, status, authorId, executorId, pageRequest)
+                : taskService.findTasksByFilter(title, description, priority, status, authorId, executorId, pageRequest);
         return new ResponseEntity<>(tasks.map(TaskDto::convert), HttpStatus.OK);
     }
 
+    @Operation(
+            summary = "Инкрементальная синхронизация задач",
+            description = "Возвращает задачи, измененные после водяного знака, и id задач, удаленных или перенесенных в архив. Без водяного знака синхронизация начинается с начала, "
+                    + "следующий запрос нужно выполнить с водяным знаком из ответа, пока hasMore равен true",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Успешный ответ"),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Некорректный водяной знак",
+                            content = @Content(schema = @Schema(implementation = ErrorDto.class))
+                    ),
+                    @ApiResponse(
+                            responseCode = "410",
+                            description = "Водяной знак устарел, нужна полная синхронизация",
+                            content = @Content(schema = @Schema(implementation = ErrorDto.class))
+                    )
+            }
+    )
+    @GetMapping("/sync")
+    public ResponseEntity<TaskSyncDto> syncTasks(
+            @RequestParam(value = "watermark", required = false) String watermark,
+            @RequestParam(value = "limit", defaultValue = "100") int limit
+    ) {
+        return new ResponseEntity<>(TaskSyncDto.convert(taskSyncService.findChanges(watermark, limit)), HttpStatus.OK);
+    }
+
+    @Operation(
+            summary = "Выгрузка задач",
+            description = "Потоково выгружает все задачи, подходящие под фильтр, в формате csv или ndjson без пагинации",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Успешный ответ"),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Неподдерживаемый формат выгрузки",
+                            content = @Content(schema = @Schema(implementation = ErrorDto.class))
+                    )
+            }
+    )
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTasks(
+            @RequestParam(value = "format", defaultValue = "csv") String format,
+            @RequestParam(value = "title", required = false) String title,
+            @RequestParam(value = "description", required = false) String description,
+            @RequestParam(value = "priority", required = false) String priority,
+            @RequestParam(value = "status", required = false) String status,
+            @RequestParam(value = "authorId", required = false) UUID authorId,
+            @RequestParam(value = "executorId", required = false) UUID executorId
+    ) {
+        TaskFileFormat exportFormat = TaskFileFormat.of(format);
+
+        StreamingResponseBody body = outputStream -> taskExportService.export(
+                exportFormat, title, description, priority, status, authorId, executorId, outputStream
+        );
+
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(
+                        HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename("tasks." + exportFormat.getExtension()).build().toString()
+                )
+                .body(body);
+    }
+
+    @Operation(
+            summary = "Статистика задач",
+            description = "Возвращает количество задач по статусам и приоритетам с фильтрацией по автору и исполнителю, доступно только администратору",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Успешный ответ"),
+                    @ApiResponse(responseCode = "403", description = "Нет прав на получение статистики")
+            }
+    )
+    @GetMapping("/stats")
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN')")
+    public ResponseEntity<TaskStatsDto> getTaskStats(
+            @RequestParam(value = "authorId", required = false) UUID authorId,
+            @RequestParam(value = "executorId", required = false) UUID executorId
+    ) {
+        return new ResponseEntity<>(taskCounterService.findStats(authorId, executorId), HttpStatus.OK);
+    }
+
+    @Operation(
+            summary = "Статистика задач по исполнителям",
+            description = "Возвращает количество задач по статусам и приоритетам для каждого исполнителя, доступно только администратору",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Успешный ответ"),
+                    @ApiResponse(responseCode = "403", description = "Нет прав на получение статистики")
+            }
+    )
+    @GetMapping("/stats/executors")
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN')")
+    public ResponseEntity<List<TaskStatsDto>> getTaskStatsByExecutor() {
+        return new ResponseEntity<>(taskCounterService.findStatsByExecutor(), HttpStatus.OK);
+    }
+
+    @Operation(
+            summary = "Статистика задач по авторам",
+            description = "Возвращает количество задач по статусам и приоритетам для каждого автора, доступно только администратору",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Успешный ответ"),
+                    @ApiResponse(responseCode = "403", description = "Нет прав на получение статистики")
+            }
+    )
+    @GetMapping("/stats/authors")
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN')")
+    public ResponseEntity<List<TaskStatsDto>> getTaskStatsByAuthor() {
+        return new ResponseEntity<>(taskCounterService.findStatsByAuthor(), HttpStatus.OK);
+    }
+
     @Operation(
             summary = "Создание задачи",
-            description = "Создает задачу и возвращает данные по созданной задаче, доступно только администратору",
+            description = "Создает задачу и возвращает данные по созданной задаче, доступно только администратору. "
+                    + "Повтор запроса с тем же заголовком Idempotency-Key возвращает сохраненный ответ без создания новой задачи",
             responses = {
                     @ApiResponse(
                             responseCode = "201",
@@ -95,14 +286,32 @@ public class TaskController {
                     @ApiResponse(
                             responseCode = "403",
                             description = "Нет прав на создание задачи"
+                    ),
+                    @ApiResponse(
+                            responseCode = "409",
+                            description = "Запрос с этим Idempotency-Key еще выполняется",
+                            content = @Content(schema = @Schema(implementation = ErrorDto.class))
+                    ),
+                    @ApiResponse(
+                            responseCode = "422",
+                            description = "Idempotency-Key уже использован с другим телом запроса",
+                            content = @Content(schema = @Schema(implementation = ErrorDto.class))
                     )
             }
     )
     @PostMapping
     @PreAuthorize("hasAnyRole('ROLE_ADMIN')")
-    public ResponseEntity<TaskDto> createTask(@RequestBody @Valid TaskCreationDto taskCreationDto) {
-        Task task = taskService.save(taskCreationDto);
-        return new ResponseEntity<>(TaskDto.convert(task), HttpStatus.CREATED);
+    public ResponseEntity<TaskDto> createTask(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @RequestBody @Valid TaskCreationDto taskCreationDto
+    ) {
+        return idempotencyService.execute(
+                "createTask",
+                idempotencyKey,
+                taskCreationDto,
+                TaskDto.class,
+                () -> new ResponseEntity<>(TaskDto.convert(taskService.save(taskCreationDto)), HttpStatus.CREATED)
+        );
     }
 
     @Operation(
@@ -128,11 +337,20 @@ public class TaskController {
                             description = "Задача не найдена",
                             content = @Content(schema = @Schema(implementation = ErrorDto.class))
                     ),
+                    @ApiResponse(
+                            responseCode = "409",
+                            description = "Задача была изменена параллельно, возвращается ее текущее состояние",
+                            content = @Content(schema = @Schema(implementation = ConflictDto.class))
+                    ),
             }
     )
     @PutMapping("/{id}")
     public ResponseEntity<TaskDto> updateTask(@PathVariable("id") UUID id, @RequestBody TaskUpdateDto taskUpdateDto) {
-        Task task = taskService.update(id, taskUpdateDto);
+        Task task = conflictRetryPolicy.execute(
+                () -> taskService.update(id, taskUpdateDto),
+                () -> TaskDto.convert(taskService.findById(id)),
+                taskUpdateDto.statusOnly()
+        );
         return new ResponseEntity<>(TaskDto.convert(task), HttpStatus.OK);
     }
 
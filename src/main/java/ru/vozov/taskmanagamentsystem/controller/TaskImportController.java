@@ -0,0 +1,127 @@
+package ru.vozov.taskmanagamentsystem.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import ru.vozov.taskmanagamentsystem.dto.ErrorDto;
+import ru.vozov.taskmanagamentsystem.dto.TaskImportDto;
+import ru.vozov.taskmanagamentsystem.model.TaskImport;
+import ru.vozov.taskmanagamentsystem.service.TaskFileFormat;
+import ru.vozov.taskmanagamentsystem.service.TaskImportService;
+
+import java.io.IOException;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/tasks/imports")
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Tag(name = "Task imports", description = "API для массового импорта задач")
+public class TaskImportController {
+    TaskImportService taskImportService;
+
+    @Autowired
+    public TaskImportController(TaskImportService taskImportService) {
+        this.taskImportService = taskImportService;
+    }
+
+    @Operation(
+            summary = "Импорт задач из файла",
+            description = "Создает задачи из файла csv (колонки title,description,priority,executorId) или ndjson, " +
+                    "строки проверяются по тем же правилам, что и при создании задачи, доступно только администратору",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "201",
+                            description = "Импорт выполнен, в ответе итоговый статус и ошибки строк"
+                    ),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Неподдерживаемый формат файла",
+                            content = @Content(schema = @Schema(implementation = ErrorDto.class))
+                    ),
+                    @ApiResponse(
+                            responseCode = "403",
+                            description = "Нет прав на импорт задач"
+                    )
+            }
+    )
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN')")
+    public ResponseEntity<TaskImportDto> importTasks(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "format", defaultValue = "csv") String format
+    ) throws IOException {
+        TaskImport taskImport = taskImportService.start(TaskFileFormat.of(format), file.getOriginalFilename(), file);
+        return new ResponseEntity<>(convert(taskImport), HttpStatus.CREATED);
+    }
+
+    @Operation(
+            summary = "Продолжение импорта",
+            description = "Продолжает прерванный импорт с первой незафиксированной строки, файл должен совпадать с исходным, доступно только администратору",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Импорт выполнен"
+                    ),
+                    @ApiResponse(
+                            responseCode = "403",
+                            description = "Нет прав на импорт задач"
+                    ),
+                    @ApiResponse(
+                            responseCode = "404",
+                            description = "Импорт не найден",
+                            content = @Content(schema = @Schema(implementation = ErrorDto.class))
+                    ),
+                    @ApiResponse(
+                            responseCode = "409",
+                            description = "Импорт уже выполняется или завершен, либо файл не совпадает с исходным",
+                            content = @Content(schema = @Schema(implementation = ErrorDto.class))
+                    )
+            }
+    )
+    @PostMapping(value = "/{id}", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN')")
+    public ResponseEntity<TaskImportDto> resumeImport(@PathVariable("id") UUID id, @RequestParam("file") MultipartFile file) throws IOException {
+        TaskImport taskImport = taskImportService.resume(id, file);
+        return new ResponseEntity<>(convert(taskImport), HttpStatus.OK);
+    }
+
+    @Operation(
+            summary = "Прогресс импорта",
+            description = "Возвращает количество обработанных, созданных и отклоненных строк, доступно только администратору",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Успешный ответ"
+                    ),
+                    @ApiResponse(
+                            responseCode = "403",
+                            description = "Нет прав на просмотр импорта"
+                    ),
+                    @ApiResponse(
+                            responseCode = "404",
+                            description = "Импорт не найден",
+                            content = @Content(schema = @Schema(implementation = ErrorDto.class))
+                    )
+            }
+    )
+    @GetMapping("/{id}")
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN')")
+    public ResponseEntity<TaskImportDto> getImport(@PathVariable("id") UUID id) {
+        return new ResponseEntity<>(convert(taskImportService.findById(id)), HttpStatus.OK);
+    }
+
+    private TaskImportDto convert(TaskImport taskImport) {
+        return TaskImportDto.convert(taskImport, taskImportService.findRowErrors(taskImport.getId()));
+    }
+}
@@ -9,14 +9,18 @@ import jakarta.validation.Valid;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.vozov.taskmanagamentsystem.dto.ErrorDto;
 import ru.vozov.taskmanagamentsystem.dto.UserDto;
 import ru.vozov.taskmanagamentsystem.dto.UserUpdateDto;
 import ru.vozov.taskmanagamentsystem.model.User;
+import ru.vozov.taskmanagamentsystem.service.ETagService;
+import ru.vozov.taskmanagamentsystem.service.SingleFlight;
 import ru.vozov.taskmanagamentsystem.service.UserService;
 
 import java.util.List;
@@ -28,20 +32,28 @@ import java.util.UUID;
 @Tag(name = "Users", description = "API для работы с пользователями")
 public class UserController {
     UserService userService;
+    ETagService eTagService;
+    SingleFlight singleFlight;
 
     @Autowired
-    public UserController(UserService userService) {
+    public UserController(UserService userService, ETagService eTagService, SingleFlight singleFlight) {
         this.userService = userService;
+        this.eTagService = eTagService;
+        this.singleFlight = singleFlight;
     }
 
     @Operation(
             summary = "Получение пользователя по id",
-            description = "Возвращает данные пользователя по уникальному id",
+            description = "Возвращает данные пользователя по уникальному id, поддерживает условный запрос с заголовком If-None-Match",
             responses = {
                     @ApiResponse(
                             responseCode = "200",
                             description = "Успешный ответ"
                     ),
+                    @ApiResponse(
+                            responseCode = "304",
+                            description = "Пользователь и его задачи не изменились"
+                    ),
                     @ApiResponse(
                             responseCode = "404",
                             description = "Пользователь не найден",
@@ -50,9 +62,22 @@ public class UserController {
             }
     )
     @GetMapping("/{id}")
-    public ResponseEntity<UserDto> getUser(@PathVariable("id") UUID id) {
-        User user = userService.findById(id);
-        return new ResponseEntity<>(UserDto.convert(user), HttpStatus.OK);
+    public ResponseEntity<UserDto> getUser(@PathVariable("id") UUID id, WebRequest request) {
+        String eTag = eTagService.userETag(id);
+
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+
+        UserDto userDto = singleFlight.execute(
+                "UserService.findById",
+                List.of(id, eTag),
+                () -> UserDto.convert(userService.findById(id))
+        );
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache())
+                .body(userDto);
     }
 
     @Operation(
@@ -0,0 +1,38 @@
+package ru.vozov.taskmanagamentsystem.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Вид нагрузки текущего потока, по которому выбирается пул соединений.
+ */
+public enum DataSourceWorkload {
+    DEFAULT,
+    AUTH;
+
+    private static final ThreadLocal<DataSourceWorkload> CURRENT = ThreadLocal.withInitial(() -> DEFAULT);
+
+    public static DataSourceWorkload current() {
+        return CURRENT.get();
+    }
+
+    public static <T> T callAs(DataSourceWorkload workload, Supplier<T> action) {
+        DataSourceWorkload previous = enter(workload);
+
+        try {
+            return action.get();
+        }
+        finally {
+            restore(previous);
+        }
+    }
+
+    public static DataSourceWorkload enter(DataSourceWorkload workload) {
+        DataSourceWorkload previous = CURRENT.get();
+        CURRENT.set(workload);
+        return previous;
+    }
+
+    public static void restore(DataSourceWorkload previous) {
+        CURRENT.set(previous);
+    }
+}
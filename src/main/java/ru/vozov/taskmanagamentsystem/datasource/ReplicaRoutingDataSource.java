@@ -0,0 +1,136 @@
+package ru.vozov.taskmanagamentsystem.datasource;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Направляет read-only транзакции на реплики по кругу, остальные на основную базу.
+ * Должен оборачиваться в {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy},
+ * чтобы соединение запрашивалось после того, как транзакция помечена как read-only.
+ */
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    static String PRIMARY = "primary";
+    static String REPLICA_PREFIX = "replica-";
+
+    DataSource primary;
+    List<DataSource> replicas;
+    ReadYourWritesTracker readYourWritesTracker;
+    long retryAfterNanos;
+    AtomicInteger next = new AtomicInteger();
+    AtomicLongArray unavailableUntil;
+
+    public ReplicaRoutingDataSource(
+            DataSource primary,
+            List<DataSource> replicas,
+            ReadYourWritesTracker readYourWritesTracker,
+            Duration retryAfter
+    ) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.readYourWritesTracker = readYourWritesTracker;
+        this.retryAfterNanos = retryAfter.toNanos();
+        this.unavailableUntil = new AtomicLongArray(replicas.size());
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+
+        for (int i = 0; i < replicas.size(); i++) {
+            targets.put(REPLICA_PREFIX + i, replicas.get(i));
+        }
+
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            rememberWrite();
+            return PRIMARY;
+        }
+
+        if (ReadYourWritesContext.writtenInCurrentRequest()
+                || readYourWritesTracker.recentlyWrote(ReadYourWritesContext.currentPrincipal())) {
+            return PRIMARY;
+        }
+
+        int replica = nextAvailableReplica();
+        return replica < 0 ? PRIMARY : REPLICA_PREFIX + replica;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Object key = determineCurrentLookupKey();
+
+        if (PRIMARY.equals(key)) {
+            return primary.getConnection();
+        }
+
+        int replica = Integer.parseInt(((String) key).substring(REPLICA_PREFIX.length()));
+
+        try {
+            return replicas.get(replica).getConnection();
+        }
+        catch (SQLException e) {
+            //Недоступная реплика исключается на время, чтения уходят на основную базу
+            log.warn("Replica {} is unavailable, falling back to primary", replica, e);
+            unavailableUntil.set(replica, System.nanoTime() + retryAfterNanos);
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        //Учетные данные реплик задаются в их пулах, поэтому явный вход выполняется только на основной базе
+        return primary.getConnection(username, password);
+    }
+
+    private int nextAvailableReplica() {
+        int size = replicas.size();
+        long now = System.nanoTime();
+
+        for (int attempt = 0; attempt < size; attempt++) {
+            int replica = Math.floorMod(next.getAndIncrement(), size);
+
+            long until = unavailableUntil.get(replica);
+
+            if (until == 0 || until - now <= 0) {
+                return replica;
+            }
+        }
+
+        return -1;
+    }
+
+    private void rememberWrite() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        String principal = ReadYourWritesContext.currentPrincipal();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                ReadYourWritesContext.markWritten();
+                readYourWritesTracker.recordWrite(principal);
+            }
+        });
+    }
+}
@@ -0,0 +1,25 @@
+package ru.vozov.taskmanagamentsystem.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Разделяет пулы соединений по виду нагрузки, чтобы долгие выборки задач не занимали соединения,
+ * нужные для аутентификации.
+ */
+public class WorkloadRoutingDataSource extends AbstractRoutingDataSource {
+    public WorkloadRoutingDataSource(DataSource defaultDataSource, DataSource authDataSource) {
+        setTargetDataSources(Map.of(
+                DataSourceWorkload.DEFAULT, defaultDataSource,
+                DataSourceWorkload.AUTH, authDataSource
+        ));
+        setDefaultTargetDataSource(defaultDataSource);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return DataSourceWorkload.current();
+    }
+}
@@ -11,7 +11,8 @@ public record CommentDto(
         String text,
         LocalDateTime createdAt,
         UUID taskId,
-        UUID commentatorId
+        UUID commentatorId,
+        Long version
 ) {
     public static CommentDto convert(Comment comment) {
         return new CommentDto(
@@ -19,7 +20,8 @@ public record CommentDto(
                 comment.getText(),
                 comment.getCreatedAt(),
                 comment.getTask().getId(),
-                comment.getCommentator() == null ? null : comment.getCommentator().getId()
+                comment.getCommentator() == null ? null : comment.getCommentator().getId(),
+                comment.getVersion()
         );
     }
 
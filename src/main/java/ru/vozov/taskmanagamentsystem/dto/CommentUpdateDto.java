@@ -4,6 +4,8 @@ import jakarta.validation.constraints.NotBlank;
 
 public record CommentUpdateDto(
         @NotBlank(message = "Text is required field")
-        String text
+        String text,
+
+        Long version
 ) {
 }
@@ -0,0 +1,12 @@
+package ru.vozov.taskmanagamentsystem.dto;
+
+import java.time.LocalDateTime;
+
+public record ConflictDto(
+        int status,
+        LocalDateTime dateTime,
+        String message,
+        Object current
+) {
+
+}
@@ -1,7 +1,8 @@
 package ru.vozov.taskmanagamentsystem.dto;
 
 public record JwtDto (
-    String token
+    String token,
+    String refreshToken
 ) {
 
 }
@@ -0,0 +1,9 @@
+package ru.vozov.taskmanagamentsystem.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+public record RefreshTokenDto(
+        @NotBlank(message = "refreshToken is required field")
+        String refreshToken
+) {
+}
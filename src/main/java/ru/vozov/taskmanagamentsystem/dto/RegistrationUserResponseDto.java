@@ -2,6 +2,7 @@ package ru.vozov.taskmanagamentsystem.dto;
 
 public record RegistrationUserResponseDto (
     UserDto user,
-    String token
+    String token,
+    String refreshToken
 ) {
 }
@@ -2,12 +2,14 @@ package ru.vozov.taskmanagamentsystem.dto;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import ru.vozov.taskmanagamentsystem.model.Task;
 
 import java.util.UUID;
 
 public record TaskCreationDto(
         @NotBlank(message = "title is required field")
+        @Size(max = 127, message = "title must be at most 127 characters")
         String title,
 
         @NotBlank(message = "description is required field")
@@ -2,6 +2,7 @@ package ru.vozov.taskmanagamentsystem.dto;
 
 import ru.vozov.taskmanagamentsystem.model.Task;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -15,6 +16,9 @@ public record TaskDto (
     Task.Status status,
     UUID authorId,
     UUID executorId,
+    LocalDateTime createdAt,
+    LocalDateTime updatedAt,
+    Long version,
     List<CommentDto> comments
 ) {
     public static TaskDto convert(Task task) {
@@ -26,6 +30,9 @@ public record TaskDto (
                 task.getStatus(),
                 task.getAuthor() == null ? null : task.getAuthor().getId(),
                 task.getExecutor() == null ? null : task.getExecutor().getId(),
+                task.getCreatedAt(),
+                task.getUpdatedAt(),
+                task.getVersion(),
                 CommentDto.convert(task.getComments())
         );
     }
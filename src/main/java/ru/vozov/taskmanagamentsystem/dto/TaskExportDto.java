@@ -0,0 +1,17 @@
+package ru.vozov.taskmanagamentsystem.dto;
+
+import ru.vozov.taskmanagamentsystem.model.Task;
+
+import java.util.UUID;
+
+public record TaskExportDto(
+        UUID id,
+        String title,
+        String description,
+        Task.Priority priority,
+        Task.Status status,
+        UUID authorId,
+        UUID executorId,
+        Long version
+) {
+}
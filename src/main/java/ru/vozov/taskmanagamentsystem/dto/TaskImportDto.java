@@ -0,0 +1,41 @@
+package ru.vozov.taskmanagamentsystem.dto;
+
+import ru.vozov.taskmanagamentsystem.model.TaskImport;
+import ru.vozov.taskmanagamentsystem.model.TaskImportError;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public record TaskImportDto(
+        UUID id,
+        String fileName,
+        String format,
+        TaskImport.Status status,
+        long processedRows,
+        long importedRows,
+        long rejectedRows,
+        String error,
+        List<RowError> rowErrors,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt
+) {
+    public static TaskImportDto convert(TaskImport taskImport, List<TaskImportError> rowErrors) {
+        return new TaskImportDto(
+                taskImport.getId(),
+                taskImport.getFileName(),
+                taskImport.getFormat(),
+                taskImport.getStatus(),
+                taskImport.getProcessedRows(),
+                taskImport.getImportedRows(),
+                taskImport.getRejectedRows(),
+                taskImport.getError(),
+                rowErrors.stream().map(error -> new RowError(error.getRecordNumber(), error.getMessage())).toList(),
+                taskImport.getCreatedAt(),
+                taskImport.getUpdatedAt()
+        );
+    }
+
+    public record RowError(long row, String message) {
+    }
+}
@@ -0,0 +1,15 @@
+package ru.vozov.taskmanagamentsystem.dto;
+
+import ru.vozov.taskmanagamentsystem.model.Task;
+
+import java.util.Map;
+import java.util.UUID;
+
+public record TaskStatsDto(
+        UUID authorId,
+        UUID executorId,
+        long total,
+        Map<Task.Status, Long> byStatus,
+        Map<Task.Priority, Long> byPriority
+) {
+}
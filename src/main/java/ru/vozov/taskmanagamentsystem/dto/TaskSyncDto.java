@@ -0,0 +1,22 @@
+package ru.vozov.taskmanagamentsystem.dto;
+
+import ru.vozov.taskmanagamentsystem.service.TaskSyncService;
+
+import java.util.List;
+import java.util.UUID;
+
+public record TaskSyncDto(
+        List<TaskDto> tasks,
+        List<UUID> deletedTaskIds,
+        String watermark,
+        boolean hasMore
+) {
+    public static TaskSyncDto convert(TaskSyncService.Changes changes) {
+        return new TaskSyncDto(
+                TaskDto.convert(changes.tasks()),
+                changes.deletedTaskIds(),
+                changes.watermark(),
+                changes.hasMore()
+        );
+    }
+}
@@ -9,6 +9,11 @@ public record TaskUpdateDto(
         String description,
         Task.Priority priority,
         Task.Status status,
-        UUID executorId
+        UUID executorId,
+        Long version
 ) {
+    public boolean statusOnly() {
+        //Смена статуса без ожидаемой версии коммутативна, ее можно безопасно повторить при конфликте
+        return status != null && title == null && description == null && priority == null && executorId == null && version == null;
+    }
 }
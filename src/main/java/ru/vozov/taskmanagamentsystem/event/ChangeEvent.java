@@ -0,0 +1,59 @@
+package ru.vozov.taskmanagamentsystem.event;
+
+import ru.vozov.taskmanagamentsystem.model.Comment;
+import ru.vozov.taskmanagamentsystem.model.Task;
+import ru.vozov.taskmanagamentsystem.model.User;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record ChangeEvent(
+        Type type,
+        UUID taskId,
+        UUID commentId,
+        UUID authorId,
+        UUID executorId,
+        Task.Status status,
+        LocalDateTime dateTime
+) {
+    public static ChangeEvent of(Type type, Task task) {
+        return new ChangeEvent(
+                type,
+                task.getId(),
+                null,
+                idOf(task.getAuthor()),
+                idOf(task.getExecutor()),
+                task.getStatus(),
+                LocalDateTime.now()
+        );
+    }
+
+    public static ChangeEvent of(Type type, Comment comment) {
+        //Событие комментария несет атрибуты задачи, чтобы подписчики фильтровали его так же, как задачи
+        Task task = comment.getTask();
+
+        return new ChangeEvent(
+                type,
+                task == null ? null : task.getId(),
+                comment.getId(),
+                task == null ? null : idOf(task.getAuthor()),
+                task == null ? null : idOf(task.getExecutor()),
+                task == null ? null : task.getStatus(),
+                LocalDateTime.now()
+        );
+    }
+
+    private static UUID idOf(User user) {
+        return user == null ? null : user.getId();
+    }
+
+    public enum Type {
+        TASK_CREATED,
+        TASK_UPDATED,
+        TASK_DELETED,
+        TASK_ARCHIVED,
+        COMMENT_CREATED,
+        COMMENT_UPDATED,
+        COMMENT_DELETED
+    }
+}
@@ -0,0 +1,7 @@
+package ru.vozov.taskmanagamentsystem.event;
+
+import java.util.List;
+
+//Изменения одной массовой операции публикуются одним событием, чтобы слушатели записывали их пачкой
+public record ChangeEventBatch(List<ChangeEvent> events) {
+}
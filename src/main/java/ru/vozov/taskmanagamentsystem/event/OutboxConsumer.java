@@ -0,0 +1,9 @@
+package ru.vozov.taskmanagamentsystem.event;
+
+/**
+ * Получатель событий из outbox. Доставка выполняется по схеме at-least-once,
+ * поэтому обработка одного и того же события повторно должна быть безопасной.
+ */
+public interface OutboxConsumer {
+    void accept(ChangeEvent event);
+}
@@ -0,0 +1,7 @@
+package ru.vozov.taskmanagamentsystem.exception;
+
+public class IdempotencyKeyMismatchException extends RuntimeException {
+    public IdempotencyKeyMismatchException(String message) {
+        super(message);
+    }
+}
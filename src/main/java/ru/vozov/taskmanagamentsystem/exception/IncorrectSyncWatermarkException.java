@@ -0,0 +1,7 @@
+package ru.vozov.taskmanagamentsystem.exception;
+
+public class IncorrectSyncWatermarkException extends RuntimeException {
+    public IncorrectSyncWatermarkException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package ru.vozov.taskmanagamentsystem.exception;
+
+public class InvalidRefreshTokenException extends RuntimeException {
+    public InvalidRefreshTokenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,14 @@
+package ru.vozov.taskmanagamentsystem.exception;
+
+public class SignInLockedException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public SignInLockedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
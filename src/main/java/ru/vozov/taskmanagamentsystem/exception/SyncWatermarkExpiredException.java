@@ -0,0 +1,7 @@
+package ru.vozov.taskmanagamentsystem.exception;
+
+public class SyncWatermarkExpiredException extends RuntimeException {
+    public SyncWatermarkExpiredException(String message) {
+        super(message);
+    }
+}
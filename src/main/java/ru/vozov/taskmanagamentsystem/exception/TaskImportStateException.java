@@ -0,0 +1,7 @@
+package ru.vozov.taskmanagamentsystem.exception;
+
+public class TaskImportStateException extends RuntimeException {
+    public TaskImportStateException(String message) {
+        super(message);
+    }
+}
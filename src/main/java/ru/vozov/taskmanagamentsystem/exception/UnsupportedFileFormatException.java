@@ -0,0 +1,7 @@
+package ru.vozov.taskmanagamentsystem.exception;
+
+public class UnsupportedFileFormatException extends RuntimeException {
+    public UnsupportedFileFormatException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package ru.vozov.taskmanagamentsystem.exception;
+
+public class UnsupportedSortFieldException extends RuntimeException {
+    public UnsupportedSortFieldException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,14 @@
+package ru.vozov.taskmanagamentsystem.exception;
+
+public class VersionConflictException extends RuntimeException {
+    private final Object current;
+
+    public VersionConflictException(String message, Object current) {
+        super(message);
+        this.current = current;
+    }
+
+    public Object getCurrent() {
+        return current;
+    }
+}
@@ -1,12 +1,16 @@
 package ru.vozov.taskmanagamentsystem.exception.handler;
 
 import io.jsonwebtoken.JwtException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import ru.vozov.taskmanagamentsystem.dto.ConflictDto;
 import ru.vozov.taskmanagamentsystem.dto.ErrorDto;
 import ru.vozov.taskmanagamentsystem.exception.*;
 
@@ -75,15 +79,82 @@ public class ControllerExceptionHandler {
         return new ErrorDto(401, LocalDateTime.now(), e.getMessage());
     }
 
+    @ExceptionHandler(InvalidRefreshTokenException.class)
+    @ResponseStatus(HttpStatus.UNAUTHORIZED)
+    public ErrorDto invalidRefreshTokenException(InvalidRefreshTokenException e) {
+        return new ErrorDto(401, LocalDateTime.now(), e.getMessage());
+    }
+
+    @ExceptionHandler(SignInLockedException.class)
+    public ResponseEntity<ErrorDto> signInLockedException(SignInLockedException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(new ErrorDto(429, LocalDateTime.now(), e.getMessage()));
+    }
+
+    @ExceptionHandler(TaskImportStateException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorDto taskImportStateException(TaskImportStateException e) {
+        return new ErrorDto(409, LocalDateTime.now(), e.getMessage());
+    }
+
     @ExceptionHandler(TaskNotFoundException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorDto taskNotFoundException(TaskNotFoundException e) {
         return new ErrorDto(400, LocalDateTime.now(), e.getMessage());
     }
 
+    @ExceptionHandler(UnsupportedFileFormatException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorDto unsupportedFileFormatException(UnsupportedFileFormatException e) {
+        return new ErrorDto(400, LocalDateTime.now(), e.getMessage());
+    }
+
+    @ExceptionHandler(IncorrectSyncWatermarkException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorDto incorrectSyncWatermarkException(IncorrectSyncWatermarkException e) {
+        return new ErrorDto(400, LocalDateTime.now(), e.getMessage());
+    }
+
+    @ExceptionHandler(SyncWatermarkExpiredException.class)
+    @ResponseStatus(HttpStatus.GONE)
+    public ErrorDto syncWatermarkExpiredException(SyncWatermarkExpiredException e) {
+        return new ErrorDto(410, LocalDateTime.now(), e.getMessage());
+    }
+
+    @ExceptionHandler(IdempotencyKeyMismatchException.class)
+    @ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+    public ErrorDto idempotencyKeyMismatchException(IdempotencyKeyMismatchException e) {
+        return new ErrorDto(422, LocalDateTime.now(), e.getMessage());
+    }
+
+    @ExceptionHandler(IdempotencyKeyInProgressException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorDto idempotencyKeyInProgressException(IdempotencyKeyInProgressException e) {
+        return new ErrorDto(409, LocalDateTime.now(), e.getMessage());
+    }
+
+    @ExceptionHandler(UnsupportedSortFieldException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorDto unsupportedSortFieldException(UnsupportedSortFieldException e) {
+        return new ErrorDto(400, LocalDateTime.now(), e.getMessage());
+    }
+
     @ExceptionHandler(UserNotFoundException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorDto userNotFoundException(UserNotFoundException e) {
         return new ErrorDto(400, LocalDateTime.now(), e.getMessage());
     }
-}
+
+    @ExceptionHandler(VersionConflictException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ConflictDto versionConflictException(VersionConflictException e) {
+        return new ConflictDto(409, LocalDateTime.now(), e.getMessage(), e.getCurrent());
+    }
+
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorDto optimisticLockingFailureException(ObjectOptimisticLockingFailureException e) {
+        return new ErrorDto(409, LocalDateTime.now(), "Resource was modified concurrently, reload it and try again");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,36 @@
+package ru.vozov.taskmanagamentsystem.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Immutable
+@Table(name = "comment_archive")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+public class ArchivedComment {
+    @Id
+    UUID id;
+
+    String text;
+
+    @Column(name = "created_at")
+    LocalDateTime createdAt;
+
+    @ManyToOne
+    @JoinColumn(name = "task_id", referencedColumnName = "id")
+    ArchivedTask task;
+
+    @ManyToOne
+    @JoinColumn(name = "commentator_id", referencedColumnName = "id")
+    User commentator;
+
+    Long version;
+}
@@ -0,0 +1,62 @@
+package ru.vozov.taskmanagamentsystem.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+//Задача, перенесенная архиватором в task_archive. Только для чтения, атрибуты совпадают с Task,
+//чтобы к архиву применялись те же фильтры и сортировки
+@Entity
+@Immutable
+@Table(name = "task_archive")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+public class ArchivedTask {
+    @Id
+    UUID id;
+
+    String title;
+
+    String description;
+
+    @Enumerated(EnumType.STRING)
+    Task.Priority priority;
+
+    @Enumerated(EnumType.STRING)
+    Task.Status status;
+
+    @ManyToOne
+    @JoinColumn(name = "author_id", referencedColumnName = "id")
+    User author;
+
+    @ManyToOne
+    @JoinColumn(name = "executor_id", referencedColumnName = "id")
+    User executor;
+
+    @OneToMany(mappedBy = "task")
+    List<ArchivedComment> comments;
+
+    Long version;
+
+    @Column(name = "created_at")
+    LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    LocalDateTime updatedAt;
+
+    @Column(name = "priority_rank", insertable = false, updatable = false)
+    Integer priorityRank;
+
+    @Column(name = "status_rank", insertable = false, updatable = false)
+    Integer statusRank;
+
+    @Column(name = "archived_at")
+    LocalDateTime archivedAt;
+}
@@ -16,8 +16,8 @@ import java.util.UUID;
 @Getter
 @Builder
 public class Comment {
+    //Id назначает CommentService: UUIDv7 со временем создания, см. CommentIds
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
     UUID id;
 
     String text;
@@ -32,4 +32,7 @@ public class Comment {
     @ManyToOne
     @JoinColumn(name = "commentator_id", referencedColumnName = "id")
     User commentator;
+
+    @Version
+    Long version;
 }
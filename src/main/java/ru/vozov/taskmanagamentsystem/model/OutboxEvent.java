@@ -0,0 +1,49 @@
+package ru.vozov.taskmanagamentsystem.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import ru.vozov.taskmanagamentsystem.event.ChangeEvent;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "outbox_event")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@AllArgsConstructor
+@NoArgsConstructor
+@Setter
+@Getter
+@Builder
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    UUID id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type")
+    ChangeEvent.Type eventType;
+
+    @Column(name = "aggregate_id")
+    UUID aggregateId;
+
+    String payload;
+
+    @Column(name = "created_at")
+    LocalDateTime createdAt;
+
+    @Column(name = "claim_token")
+    UUID claimToken;
+
+    @Column(name = "claimed_until")
+    LocalDateTime claimedUntil;
+
+    int attempts;
+
+    @Column(name = "last_error")
+    String lastError;
+
+    @Column(name = "processed_at")
+    LocalDateTime processedAt;
+}
@@ -0,0 +1,44 @@
+package ru.vozov.taskmanagamentsystem.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+//Хранится только SHA-256 токена. Токены одной цепочки ротаций образуют семейство: повторное использование
+//уже обмененного токена отзывает все семейство
+@Entity
+@Table(name = "refresh_token")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Setter
+@Getter
+public class RefreshToken {
+    @Id
+    UUID id;
+
+    @Column(name = "token_hash")
+    String tokenHash;
+
+    @Column(name = "family_id")
+    UUID familyId;
+
+    @Column(name = "user_id")
+    UUID userId;
+
+    @Column(name = "created_at")
+    LocalDateTime createdAt;
+
+    @Column(name = "expires_at")
+    LocalDateTime expiresAt;
+
+    @Column(name = "used_at")
+    LocalDateTime usedAt;
+
+    @Column(name = "revoked_at")
+    LocalDateTime revokedAt;
+}
@@ -0,0 +1,27 @@
+package ru.vozov.taskmanagamentsystem.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+//Отозванный токен доступа хранится до истечения его срока, после этого он отклоняется и без записи
+@Entity
+@Table(name = "revoked_token")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Setter
+@Getter
+public class RevokedToken {
+    @Id
+    String jti;
+
+    @Column(name = "expires_at")
+    LocalDateTime expiresAt;
+
+    @Column(name = "revoked_at")
+    LocalDateTime revokedAt;
+}
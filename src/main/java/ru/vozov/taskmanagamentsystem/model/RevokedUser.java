@@ -0,0 +1,29 @@
+package ru.vozov.taskmanagamentsystem.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+//Все токены доступа пользователя, выпущенные не позже notBefore, отклоняются. Запись нужна, пока не истечет последний из них
+@Entity
+@Table(name = "revoked_user")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Setter
+@Getter
+public class RevokedUser {
+    @Id
+    @Column(name = "user_id")
+    UUID userId;
+
+    @Column(name = "not_before")
+    LocalDateTime notBefore;
+
+    @Column(name = "expires_at")
+    LocalDateTime expiresAt;
+}
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -42,6 +43,22 @@ public class Task {
     @OneToMany(mappedBy = "task")
     List<Comment> comments;
 
+    @Version
+    Long version;
+
+    @Column(name = "created_at")
+    LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    LocalDateTime updatedAt;
+
+    //Вычисляемые базой ранги для сортировки по порядку значений enum
+    @Column(name = "priority_rank", insertable = false, updatable = false)
+    Integer priorityRank;
+
+    @Column(name = "status_rank", insertable = false, updatable = false)
+    Integer statusRank;
+
     public enum Priority {
         LOW,
         MEDIUM,
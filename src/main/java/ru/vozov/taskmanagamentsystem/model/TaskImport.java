@@ -0,0 +1,67 @@
+package ru.vozov.taskmanagamentsystem.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "task_import")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@AllArgsConstructor
+@NoArgsConstructor
+@Setter
+@Getter
+@Builder
+public class TaskImport {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    UUID id;
+
+    @Column(name = "file_name")
+    String fileName;
+
+    String format;
+
+    //SHA-256 и размер исходного файла: продолжить импорт можно только тем же файлом
+    @Column(name = "content_hash")
+    String contentHash;
+
+    @Column(name = "content_size")
+    Long contentSize;
+
+    @Enumerated(EnumType.STRING)
+    Status status;
+
+    @Column(name = "author_id")
+    UUID authorId;
+
+    @Column(name = "processed_rows")
+    long processedRows;
+
+    @Column(name = "imported_rows")
+    long importedRows;
+
+    @Column(name = "rejected_rows")
+    long rejectedRows;
+
+    String error;
+
+    @Column(name = "claim_token")
+    UUID claimToken;
+
+    @Column(name = "created_at")
+    LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    LocalDateTime updatedAt;
+
+    public enum Status {
+        PENDING,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+}
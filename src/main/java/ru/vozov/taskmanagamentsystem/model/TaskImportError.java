@@ -0,0 +1,28 @@
+package ru.vozov.taskmanagamentsystem.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.util.UUID;
+
+@Entity
+@Table(name = "task_import_error")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@AllArgsConstructor
+@NoArgsConstructor
+@Setter
+@Getter
+public class TaskImportError {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    UUID id;
+
+    @Column(name = "import_id")
+    UUID importId;
+
+    @Column(name = "record_number")
+    long recordNumber;
+
+    String message;
+}
@@ -0,0 +1,24 @@
+package ru.vozov.taskmanagamentsystem.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "task_tombstone")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@AllArgsConstructor
+@NoArgsConstructor
+@Setter
+@Getter
+public class TaskTombstone {
+    @Id
+    @Column(name = "task_id")
+    UUID taskId;
+
+    @Column(name = "deleted_at")
+    LocalDateTime deletedAt;
+}
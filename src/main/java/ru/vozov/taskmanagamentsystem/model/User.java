@@ -3,12 +3,16 @@ package ru.vozov.taskmanagamentsystem.model;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.List;
 import java.util.UUID;
 
 @Entity
 @Table(name = "\"user\"")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user")
 @FieldDefaults(level = AccessLevel.PRIVATE)
 @Data
 @AllArgsConstructor
@@ -26,6 +30,7 @@ public class User {
     String email;
 
     @ManyToMany(fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user.roles")
     @JoinTable(
             name = "user_role",
             joinColumns = @JoinColumn(name = "user_id"),
@@ -39,6 +44,9 @@ public class User {
     @OneToMany(mappedBy = "author")
     List<Task> authorTasks;
 
+    @Version
+    Long version;
+
     public boolean isAdmin() {
         return roles.stream().anyMatch(role -> role.getName().equals("ROLE_ADMIN"));
     }
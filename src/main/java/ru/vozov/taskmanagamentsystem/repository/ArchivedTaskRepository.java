@@ -0,0 +1,12 @@
+package ru.vozov.taskmanagamentsystem.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.stereotype.Repository;
+import ru.vozov.taskmanagamentsystem.model.ArchivedTask;
+
+import java.util.UUID;
+
+@Repository
+public interface ArchivedTaskRepository extends JpaRepository<ArchivedTask, UUID>, JpaSpecificationExecutor<ArchivedTask> {
+}
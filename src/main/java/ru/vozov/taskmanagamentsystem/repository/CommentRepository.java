@@ -1,11 +1,28 @@
 package ru.vozov.taskmanagamentsystem.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.vozov.taskmanagamentsystem.model.Comment;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, UUID> {
+    //Условие на created_at позволяет Postgres отсечь месячные секции, в которых комментария быть не может
+    @Query("select c from Comment c where c.id = :id and c.createdAt >= :from and c.createdAt < :to")
+    Optional<Comment> findByIdAndCreatedAtRange(@Param("id") UUID id, @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("select c.version, t.id, cm.id from Comment c join c.task t left join c.commentator cm where c.id = :id")
+    List<Object[]> findVersionStateById(@Param("id") UUID id);
+
+    @Query("select c.id, c.version, cm.id from Comment c join c.task t left join c.commentator cm where t.id = :taskId order by c.id")
+    List<Object[]> findVersionStatesByTaskId(@Param("taskId") UUID taskId);
+
+    @Query("select c.id, c.version from Comment c join c.task t left join t.author a left join t.executor e where a.id = :userId or e.id = :userId order by c.id")
+    List<Object[]> findVersionStatesByUserId(@Param("userId") UUID userId);
 }
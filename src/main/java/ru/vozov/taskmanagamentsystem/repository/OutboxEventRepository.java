@@ -0,0 +1,49 @@
+package ru.vozov.taskmanagamentsystem.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ru.vozov.taskmanagamentsystem.model.OutboxEvent;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, UUID> {
+    //Строки, уже захваченные другим узлом, пропускаются без ожидания блокировки
+    @Modifying
+    @Query(value = """
+            update outbox_event
+            set claim_token = :token, claimed_until = :claimedUntil, attempts = attempts + 1
+            where id in (
+                select id from outbox_event
+                where processed_at is null and (claimed_until is null or claimed_until < :now)
+                order by created_at
+                limit :batchSize
+                for update skip locked
+            )
+            """, nativeQuery = true)
+    int claimBatch(
+            @Param("token") UUID token,
+            @Param("now") LocalDateTime now,
+            @Param("claimedUntil") LocalDateTime claimedUntil,
+            @Param("batchSize") int batchSize
+    );
+
+    List<OutboxEvent> findByClaimTokenOrderByCreatedAt(UUID claimToken);
+
+    @Modifying
+    @Query("update OutboxEvent o set o.processedAt = :processedAt, o.claimToken = null, o.claimedUntil = null where o.id = :id and o.claimToken = :token")
+    int markProcessed(@Param("id") UUID id, @Param("token") UUID token, @Param("processedAt") LocalDateTime processedAt);
+
+    @Modifying
+    @Query("update OutboxEvent o set o.claimToken = null, o.claimedUntil = :retryAt, o.lastError = :error where o.id = :id and o.claimToken = :token")
+    int markFailed(@Param("id") UUID id, @Param("token") UUID token, @Param("retryAt") LocalDateTime retryAt, @Param("error") String error);
+
+    @Modifying
+    @Query("delete from OutboxEvent o where o.processedAt < :before")
+    int deleteProcessedBefore(@Param("before") LocalDateTime before);
+}
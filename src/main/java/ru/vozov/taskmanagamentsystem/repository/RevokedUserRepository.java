@@ -0,0 +1,22 @@
+package ru.vozov.taskmanagamentsystem.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ru.vozov.taskmanagamentsystem.model.RevokedUser;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface RevokedUserRepository extends JpaRepository<RevokedUser, UUID> {
+    @Query("select u from RevokedUser u where u.expiresAt > :now")
+    List<RevokedUser> findActive(@Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("delete from RevokedUser u where u.expiresAt < :before")
+    int deleteByExpiresAtBefore(@Param("before") LocalDateTime before);
+}
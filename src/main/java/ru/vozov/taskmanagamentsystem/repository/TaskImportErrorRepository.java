@@ -0,0 +1,13 @@
+package ru.vozov.taskmanagamentsystem.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import ru.vozov.taskmanagamentsystem.model.TaskImportError;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface TaskImportErrorRepository extends JpaRepository<TaskImportError, UUID> {
+    List<TaskImportError> findTop100ByImportIdOrderByRecordNumber(UUID importId);
+}
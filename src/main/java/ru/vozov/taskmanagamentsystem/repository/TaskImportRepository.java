@@ -0,0 +1,59 @@
+package ru.vozov.taskmanagamentsystem.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ru.vozov.taskmanagamentsystem.model.TaskImport;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.UUID;
+
+@Repository
+public interface TaskImportRepository extends JpaRepository<TaskImport, UUID> {
+    //Импорт, зависший в статусе RUNNING дольше staleBefore, считается прерванным и может быть продолжен.
+    //Новый токен захвата отнимает импорт у прежнего запуска: его addProgress и finish больше ничего не обновляют
+    @Modifying
+    @Query("""
+            update TaskImport i set i.status = :running, i.claimToken = :token, i.error = null, i.updatedAt = :now
+            where i.id = :id and (i.status in :resumable or (i.status = :running and i.updatedAt < :staleBefore))
+            """)
+    int claim(
+            @Param("id") UUID id,
+            @Param("token") UUID token,
+            @Param("resumable") Collection<TaskImport.Status> resumable,
+            @Param("running") TaskImport.Status running,
+            @Param("now") LocalDateTime now,
+            @Param("staleBefore") LocalDateTime staleBefore
+    );
+
+    @Modifying
+    @Query("""
+            update TaskImport i set i.processedRows = i.processedRows + :processed, i.importedRows = i.importedRows + :imported,
+            i.rejectedRows = i.rejectedRows + :rejected, i.updatedAt = :now
+            where i.id = :id and i.claimToken = :token
+            """)
+    int addProgress(
+            @Param("id") UUID id,
+            @Param("token") UUID token,
+            @Param("processed") long processed,
+            @Param("imported") long imported,
+            @Param("rejected") long rejected,
+            @Param("now") LocalDateTime now
+    );
+
+    @Modifying
+    @Query("""
+            update TaskImport i set i.status = :status, i.claimToken = null, i.error = :error, i.updatedAt = :now
+            where i.id = :id and i.claimToken = :token
+            """)
+    int finish(
+            @Param("id") UUID id,
+            @Param("token") UUID token,
+            @Param("status") TaskImport.Status status,
+            @Param("error") String error,
+            @Param("now") LocalDateTime now
+    );
+}
@@ -1,12 +1,45 @@
 package ru.vozov.taskmanagamentsystem.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.vozov.taskmanagamentsystem.model.Task;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface TaskRepository extends JpaRepository<Task, UUID>, JpaSpecificationExecutor<Task> {
+    @Query("select t.version, a.id, e.id from Task t left join t.author a left join t.executor e where t.id = :id")
+    List<Object[]> findVersionStateById(@Param("id") UUID id);
+
+    @Query("select t.id, t.version from Task t left join t.author a left join t.executor e where a.id = :userId or e.id = :userId order by t.id")
+    List<Object[]> findVersionStatesByUserId(@Param("userId") UUID userId);
+
+    @Query("""
+            select t from Task t
+                where t.updatedAt <= :until
+                    and (t.updatedAt > :since or (t.updatedAt = :since and t.id > :afterId))
+                order by t.updatedAt, t.id
+            """)
+    List<Task> findUpdatedAfter(
+            @Param("since") LocalDateTime since,
+            @Param("afterId") UUID afterId,
+            @Param("until") LocalDateTime until,
+            Pageable pageable
+    );
+
+    //Массовое обновление не увеличивает версию задачи, поэтому не создает конфликтов с ее редактированием
+    @Modifying
+    @Query("update Task t set t.updatedAt = :updatedAt where t.id = :id")
+    int touch(@Param("id") UUID id, @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Modifying
+    @Query("update Task t set t.updatedAt = :updatedAt where t.author.id = :userId or t.executor.id = :userId")
+    int touchByUserId(@Param("userId") UUID userId, @Param("updatedAt") LocalDateTime updatedAt);
 }
@@ -0,0 +1,33 @@
+package ru.vozov.taskmanagamentsystem.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ru.vozov.taskmanagamentsystem.model.TaskTombstone;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface TaskTombstoneRepository extends JpaRepository<TaskTombstone, UUID> {
+    @Query("""
+            select t from TaskTombstone t
+                where t.deletedAt <= :until
+                    and (t.deletedAt > :since or (t.deletedAt = :since and t.taskId > :afterId))
+                order by t.deletedAt, t.taskId
+            """)
+    List<TaskTombstone> findDeletedAfter(
+            @Param("since") LocalDateTime since,
+            @Param("afterId") UUID afterId,
+            @Param("until") LocalDateTime until,
+            Pageable pageable
+    );
+
+    @Modifying
+    @Query("delete from TaskTombstone t where t.deletedAt < :before")
+    int deleteByDeletedAtBefore(@Param("before") LocalDateTime before);
+}
@@ -1,14 +1,39 @@
 package ru.vozov.taskmanagamentsystem.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.vozov.taskmanagamentsystem.model.User;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, UUID> {
-    Optional<User> findByEmail(String email);
+    //Учетные данные и роли читаются из базы мимо кэша второго уровня: кэш локален для узла,
+    //и смена пароля, ролей или удаление пользователя на другом узле в нем не видны
+    @EntityGraph(attributePaths = "roles")
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_SPEC_CACHE_RETRIEVE_MODE, value = "BYPASS"))
+    @Query("select u from User u where u.email = :email")
+    Optional<User> findByEmail(@Param("email") String email);
+
+    @EntityGraph(attributePaths = "roles")
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_SPEC_CACHE_RETRIEVE_MODE, value = "BYPASS"))
+    @Query("select u from User u where u.id = :id")
+    Optional<User> findUncachedById(@Param("id") UUID id);
+
     boolean existsByEmail(String email);
+
+    @EntityGraph(attributePaths = "roles")
+    List<User> findAllWithRolesByIdIn(Collection<UUID> ids);
+
+    @Query("select u.version from User u where u.id = :id")
+    Optional<Long> findVersionById(@Param("id") UUID id);
 }
@@ -1,32 +1,69 @@
 package ru.vozov.taskmanagamentsystem.repository.specification;
 
 import org.springframework.data.jpa.domain.Specification;
-import ru.vozov.taskmanagamentsystem.model.Task;
 
 import java.util.UUID;
 
+//Фильтры ссылаются на атрибуты по имени, поэтому применимы и к Task, и к ArchivedTask
 public class TaskSpecification {
-    public static Specification<Task> filterByTitle(String title) {
+    public static <T> Specification<T> filter(
+            String title,
+            String description,
+            String priority,
+            String status,
+            UUID authorId,
+            UUID executorId
+    ) {
+        Specification<T> specification = Specification.where(null);
+
+        if (title != null) {
+            specification = Specification.where(filterByTitle(title));
+        }
+
+        if (description != null) {
+            specification = specification.and(filterByDescription(description));
+        }
+
+        if (priority != null) {
+            specification = specification.and(filterByPriority(priority));
+        }
+
+        if (status != null) {
+            specification = specification.and(filterByStatus(status));
+        }
+
+        if (authorId != null) {
+            specification = specification.and(filterByAuthor(authorId));
+        }
+
+        if (executorId != null) {
+            specification = specification.and(filterByExecutor(executorId));
+        }
+
+        return specification;
+    }
+
+    public static <T> Specification<T> filterByTitle(String title) {
         return (root, query, criteriaBuilder) -> criteriaBuilder.like(root.get("title"), "%" + title + "%");
     }
 
-    public static Specification<Task> filterByDescription(String description) {
+    public static <T> Specification<T> filterByDescription(String description) {
         return (root, query, criteriaBuilder) -> criteriaBuilder.like(root.get("description"), "%" + description + "%");
     }
 
-    public static Specification<Task> filterByPriority(String priority) {
+    public static <T> Specification<T> filterByPriority(String priority) {
         return (root, query, criteriaBuilder) -> criteriaBuilder.equal(root.get("priority"), priority);
     }
 
-    public static Specification<Task> filterByStatus(String status) {
+    public static <T> Specification<T> filterByStatus(String status) {
         return (root, query, criteriaBuilder) -> criteriaBuilder.equal(root.get("status"), status);
     }
 
-    public static Specification<Task> filterByAuthor(UUID authorId) {
+    public static <T> Specification<T> filterByAuthor(UUID authorId) {
         return (root, query, criteriaBuilder) -> criteriaBuilder.equal(root.join("author").get("id"), authorId);
     }
 
-    public static Specification<Task> filterByExecutor(UUID executorId) {
+    public static <T> Specification<T> filterByExecutor(UUID executorId) {
         return (root, query, criteriaBuilder) -> criteriaBuilder.equal(root.join("executor").get("id"), executorId);
     }
 }
@@ -0,0 +1,38 @@
+package ru.vozov.taskmanagamentsystem.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import ru.vozov.taskmanagamentsystem.datasource.DataSourceWorkload;
+
+import java.io.IOException;
+
+@Component
+public class AuthWorkloadFilter extends OncePerRequestFilter {
+    static String AUTH_PATH_PREFIX = "/api/auth/";
+
+    //Регистрация и вход выполняются на отдельном пуле соединений
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+        DataSourceWorkload previous = DataSourceWorkload.enter(DataSourceWorkload.AUTH);
+
+        try {
+            filterChain.doFilter(request, response);
+        }
+        finally {
+            DataSourceWorkload.restore(previous);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(request.getContextPath() + AUTH_PATH_PREFIX);
+    }
+}
@@ -1,5 +1,6 @@
 package ru.vozov.taskmanagamentsystem.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -9,15 +10,21 @@ import lombok.experimental.FieldDefaults;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
+import ru.vozov.taskmanagamentsystem.datasource.DataSourceWorkload;
+import ru.vozov.taskmanagamentsystem.datasource.ReadYourWritesContext;
 import ru.vozov.taskmanagamentsystem.service.JwtService;
+import ru.vozov.taskmanagamentsystem.service.TokenRevocationService;
 import ru.vozov.taskmanagamentsystem.service.UserService;
 
 import java.io.IOException;
+import java.util.Collection;
+import java.util.UUID;
 
 @Component
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
@@ -27,11 +34,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     JwtService jwtService;
     UserService userService;
+    TokenRevocationService tokenRevocationService;
 
     @Autowired
-    public JwtAuthenticationFilter(JwtService jwtService, UserService userService) {
+    public JwtAuthenticationFilter(JwtService jwtService, UserService userService, TokenRevocationService tokenRevocationService) {
         this.jwtService = jwtService;
         this.userService = userService;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     @Override
@@ -47,22 +56,39 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         String token = authorization.substring(BEARER_PREFIX.length());
-        String email = jwtService.getEmail(token);
+        Claims claims = jwtService.getClaimsFromToken(token);
 
-        if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userService.loadUserByUsername(email);
+        //Отозванный токен отклоняется до загрузки пользователя, проверка идет по списку в памяти
+        if (tokenRevocationService.isRevoked(claims.getId()) || SecurityContextHolder.getContext().getAuthentication() != null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
 
-            if (jwtService.isTokenValid(token, userDetails)) {
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails,
-                        null,
-                        userDetails.getAuthorities()
-                );
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authToken);
+        if (jwtService.isCompact(claims)) {
+            //Компактный токен уже содержит id пользователя и роли, поэтому пользователь не загружается из базы.
+            //Токены удаленного пользователя отклоняются по отзыву всех его токенов, который тоже проверяется в памяти
+            UUID userId = UUID.fromString(claims.getSubject());
+
+            if (!tokenRevocationService.isRevoked(userId, claims.getIssuedAt() == null ? null : claims.getIssuedAt().toInstant())) {
+                authenticate(request, claims.getSubject(), jwtService.getAuthorities(claims));
+            }
+        }
+        else if (claims.getSubject() != null) {
+            String email = claims.getSubject();
+            ReadYourWritesContext.setPrincipal(email);
+            UserDetails userDetails = DataSourceWorkload.callAs(DataSourceWorkload.AUTH, () -> userService.loadUserByUsername(email));
+
+            if (jwtService.isTokenValid(claims, userDetails)) {
+                authenticate(request, userDetails, userDetails.getAuthorities());
             }
         }
 
         filterChain.doFilter(request, response);
     }
+
+    private void authenticate(HttpServletRequest request, Object principal, Collection<? extends GrantedAuthority> authorities) {
+        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(principal, null, authorities);
+        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+    }
 }
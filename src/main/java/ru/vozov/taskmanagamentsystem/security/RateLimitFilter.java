@@ -0,0 +1,115 @@
+package ru.vozov.taskmanagamentsystem.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import ru.vozov.taskmanagamentsystem.dto.ErrorDto;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+//Стоит после JwtAuthenticationFilter: аутентифицированные запросы расходуют бюджет пользователя,
+//анонимные, а также регистрация, вход и обмен refresh-токена - бюджет адреса клиента. За обратным прокси адрес
+//берется из X-Forwarded-For (server.forward-headers-strategy), иначе все клиенты делили бы один бюджет адреса прокси
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class RateLimitFilter extends OncePerRequestFilter {
+    static String AUTH_PATH_PREFIX = "/api/auth/";
+    static Set<String> WRITE_AUTH_PATHS = Set.of("/api/auth/refresh", "/api/auth/logout");
+    static String ACTUATOR_PATH_PREFIX = "/actuator/";
+
+    RateLimiter rateLimiter;
+    ObjectMapper objectMapper;
+    MeterRegistry meterRegistry;
+    boolean enabled;
+
+    @Autowired
+    public RateLimitFilter(
+            RateLimiter rateLimiter,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${rate-limit.enabled:true}") boolean enabled
+    ) {
+        this.rateLimiter = rateLimiter;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+        RateLimiter.Budget budget = budget(request);
+        long wait = rateLimiter.tryAcquire(budget, principal(request));
+
+        if (wait == 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        meterRegistry.counter("rate.limit.rejected", "budget", budget.name()).increment();
+
+        //Retry-After в целых секундах, округление вверх: раньше этого времени токен не появится
+        long retryAfter = Math.max(1, (wait + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(
+                response.getOutputStream(),
+                new ErrorDto(429, LocalDateTime.now(), String.format("Too many requests, retry after %d seconds", retryAfter))
+        );
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !enabled || request.getRequestURI().startsWith(request.getContextPath() + ACTUATOR_PATH_PREFIX);
+    }
+
+    private RateLimiter.Budget budget(HttpServletRequest request) {
+        //Обмен refresh-токена и выход дешевы и идут по бюджету записи, иначе клиенты за одним адресом упирались бы в лимит входа
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+
+        if (path.startsWith(AUTH_PATH_PREFIX) && !WRITE_AUTH_PATHS.contains(path)) {
+            return RateLimiter.Budget.SIGN_IN;
+        }
+
+        HttpMethod method = HttpMethod.valueOf(request.getMethod());
+        return method == HttpMethod.GET || method == HttpMethod.HEAD || method == HttpMethod.OPTIONS
+                ? RateLimiter.Budget.READ
+                : RateLimiter.Budget.WRITE;
+    }
+
+    private String principal(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        if (!request.getRequestURI().startsWith(request.getContextPath() + AUTH_PATH_PREFIX)
+                && authentication != null
+                && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "user:" + authentication.getName();
+        }
+
+        return "ip:" + request.getRemoteAddr();
+    }
+}
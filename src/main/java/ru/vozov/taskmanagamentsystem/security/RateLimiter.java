@@ -0,0 +1,106 @@
+package ru.vozov.taskmanagamentsystem.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+//Корзина токенов в виде GCRA: состояние ключа - одно число (теоретическое время следующего запроса),
+//которое меняется через compareAndSet, поэтому проверка не берет блокировок. Ключи хранит Caffeine и вытесняет простаивающие
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class RateLimiter {
+    Map<Budget, Limit> limits = new EnumMap<>(Budget.class);
+    Cache<Key, AtomicLong> buckets;
+    LongSupplier clock;
+
+    @Autowired
+    public RateLimiter(
+            @Value("${rate-limit.read.capacity:600}") int readCapacity,
+            @Value("${rate-limit.read.period:1m}") Duration readPeriod,
+            @Value("${rate-limit.write.capacity:120}") int writeCapacity,
+            @Value("${rate-limit.write.period:1m}") Duration writePeriod,
+            @Value("${rate-limit.sign-in.capacity:10}") int signInCapacity,
+            @Value("${rate-limit.sign-in.period:1m}") Duration signInPeriod,
+            @Value("${rate-limit.maximum-keys:100000}") long maximumKeys
+    ) {
+        this(readCapacity, readPeriod, writeCapacity, writePeriod, signInCapacity, signInPeriod, maximumKeys, System::nanoTime);
+    }
+
+    RateLimiter(
+            int readCapacity,
+            Duration readPeriod,
+            int writeCapacity,
+            Duration writePeriod,
+            int signInCapacity,
+            Duration signInPeriod,
+            long maximumKeys,
+            LongSupplier clock
+    ) {
+        limits.put(Budget.READ, Limit.of(readCapacity, readPeriod));
+        limits.put(Budget.WRITE, Limit.of(writeCapacity, writePeriod));
+        limits.put(Budget.SIGN_IN, Limit.of(signInCapacity, signInPeriod));
+
+        //Через период простоя корзина снова полная, и ключ можно забыть
+        Duration idle = readPeriod;
+
+        for (Duration period : new Duration[] {writePeriod, signInPeriod}) {
+            if (period.compareTo(idle) > 0) {
+                idle = period;
+            }
+        }
+
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maximumKeys)
+                .expireAfterAccess(idle)
+                .build();
+        this.clock = clock;
+    }
+
+    //0, если запрос разрешен, иначе сколько наносекунд ждать до следующего токена
+    public long tryAcquire(Budget budget, String principal) {
+        Limit limit = limits.get(budget);
+        long now = clock.getAsLong();
+        AtomicLong state = buckets.get(new Key(budget, principal), key -> new AtomicLong(now));
+
+        while (true) {
+            long current = state.get();
+            long next = Math.max(current, now) + limit.interval();
+            long wait = next - now - limit.burst();
+
+            if (wait > 0) {
+                return wait;
+            }
+
+            if (state.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    public enum Budget {
+        READ,
+        WRITE,
+        SIGN_IN
+    }
+
+    private record Key(Budget budget, String principal) {
+    }
+
+    //interval - время пополнения одного токена, burst - время пополнения всей корзины
+    private record Limit(long interval, long burst) {
+        static Limit of(int capacity, Duration period) {
+            long interval = Math.max(1, period.toNanos() / Math.max(capacity, 1));
+            return new Limit(interval, interval * Math.max(capacity, 1));
+        }
+    }
+}
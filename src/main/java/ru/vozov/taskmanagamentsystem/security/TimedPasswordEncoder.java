@@ -0,0 +1,41 @@
+package ru.vozov.taskmanagamentsystem.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+//Время проверки пароля по алгоритмам: оно определяет задержку входа и подсказывает, какую стоимость хеша выбрать
+public class TimedPasswordEncoder implements PasswordEncoder {
+    private final PasswordEncoder delegate;
+    private final Timer matchesTimer;
+    private final Timer encodeTimer;
+
+    public TimedPasswordEncoder(String algorithm, PasswordEncoder delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.matchesTimer = Timer.builder("password.encoder.matches")
+                .tag("algorithm", algorithm)
+                .publishPercentileHistogram()
+                .description("Time to verify a password against its stored hash")
+                .register(meterRegistry);
+        this.encodeTimer = Timer.builder("password.encoder.encode")
+                .tag("algorithm", algorithm)
+                .description("Time to hash a password")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return encodeTimer.record(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        Boolean matches = matchesTimer.record(() -> delegate.matches(rawPassword, encodedPassword));
+        return Boolean.TRUE.equals(matches);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
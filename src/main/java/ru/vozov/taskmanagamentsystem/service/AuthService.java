@@ -1,19 +1,32 @@
 package ru.vozov.taskmanagamentsystem.service;
 
+import io.jsonwebtoken.Claims;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.vozov.taskmanagamentsystem.datasource.ReadYourWritesContext;
+import ru.vozov.taskmanagamentsystem.datasource.ReadYourWritesTracker;
 import ru.vozov.taskmanagamentsystem.dto.*;
 import ru.vozov.taskmanagamentsystem.exception.EmailAlreadyExistsException;
+import ru.vozov.taskmanagamentsystem.exception.ResourceNotFoundException;
 import ru.vozov.taskmanagamentsystem.exception.SignInException;
+import ru.vozov.taskmanagamentsystem.exception.UserNotFoundException;
+import ru.vozov.taskmanagamentsystem.model.Role;
 import ru.vozov.taskmanagamentsystem.model.User;
 
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.UUID;
+
 @Service
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class AuthService {
@@ -21,16 +34,36 @@ public class AuthService {
     RoleService roleService;
     JwtService jwtService;
     AuthenticationManager authenticationManager;
+    LoginAttemptService loginAttemptService;
+    RefreshTokenService refreshTokenService;
+    TokenRevocationService tokenRevocationService;
+    ReadYourWritesTracker readYourWritesTracker;
 
     @Autowired
-    public AuthService(UserService userService, RoleService roleService, JwtService jwtService, AuthenticationManager authenticationManager) {
+    public AuthService(
+            UserService userService,
+            RoleService roleService,
+            JwtService jwtService,
+            AuthenticationManager authenticationManager,
+            LoginAttemptService loginAttemptService,
+            RefreshTokenService refreshTokenService,
+            TokenRevocationService tokenRevocationService,
+            ReadYourWritesTracker readYourWritesTracker
+    ) {
         this.userService = userService;
         this.roleService = roleService;
         this.jwtService = jwtService;
         this.authenticationManager = authenticationManager;
+        this.loginAttemptService = loginAttemptService;
+        this.refreshTokenService = refreshTokenService;
+        this.tokenRevocationService = tokenRevocationService;
+        this.readYourWritesTracker = readYourWritesTracker;
     }
 
     public RegistrationUserResponseDto signUp(RegistrationUserDto registrationUserDto) {
+        //Пользователь только что создан, поэтому следующие чтения по этому email должны идти в основную базу
+        ReadYourWritesContext.setPrincipal(registrationUserDto.email());
+
         if (userService.existsByEmail(registrationUserDto.email())) {
             throw new EmailAlreadyExistsException(
                     String.format(
@@ -41,29 +74,74 @@ public class AuthService {
         }
 
         User user = userService.save(registrationUserDto, roleService.findByName("ROLE_USER").orElseThrow());
+        //Следующие запросы аутентифицируются компактным токеном, в котором вместо email id пользователя
+        readYourWritesTracker.recordWrite(user.getId().toString());
         return new RegistrationUserResponseDto(
                 UserDto.convert(user),
                 jwtService.generateToken(
-                        userService.loadUserByUsername(registrationUserDto.email())
-                )
+                        user.getId(),
+                        user.getEmail(),
+                        user.getRoles().stream().map(Role::getName).toList()
+                ),
+                refreshTokenService.issue(user.getId())
         );
     }
 
-    public JwtDto signIn(LoginUserDto loginUserDto) {
+    public JwtDto signIn(LoginUserDto loginUserDto, String clientIp) {
+        ReadYourWritesContext.setPrincipal(loginUserDto.email());
+        //Заблокированный email или адрес отклоняется до проверки пароля
+        loginAttemptService.checkAllowed(loginUserDto.email(), clientIp);
+
+        Authentication authentication;
+
         try {
-            authenticate(loginUserDto.email(), loginUserDto.password());
+            authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(
+                            loginUserDto.email(),
+                            loginUserDto.password()
+                    )
+            );
         }
         catch (BadCredentialsException e) {
+            loginAttemptService.onFailure(loginUserDto.email(), clientIp);
             throw new SignInException("incorrect email or password");
         }
 
+        loginAttemptService.onSuccess(loginUserDto.email());
+
+        //Роли уже загружены при проверке пароля, повторно читается только id пользователя
+        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+        User user = userService.findByEmail(loginUserDto.email());
         return new JwtDto(
             jwtService.generateToken(
-                    userService.loadUserByUsername(loginUserDto.email())
-            )
+                    user.getId(),
+                    userDetails.getUsername(),
+                    userDetails.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList()
+            ),
+            refreshTokenService.issue(user.getId())
         );
     }
 
+    public JwtDto refresh(RefreshTokenDto refreshTokenDto) {
+        return refreshTokenService.refresh(refreshTokenDto.refreshToken());
+    }
+
+    //Токен доступа отзывается до истечения срока, refresh-токен из тела запроса - вместе со своим семейством
+    public void logout(String accessToken, RefreshTokenDto refreshTokenDto) {
+        Claims claims = jwtService.getClaimsFromToken(accessToken);
+
+        if (claims.getId() != null) {
+            tokenRevocationService.revoke(
+                    claims.getId(),
+                    LocalDateTime.ofInstant(claims.getExpiration().toInstant(), ZoneId.systemDefault())
+            );
+        }
+
+        if (refreshTokenDto != null) {
+            refreshTokenService.revoke(refreshTokenDto.refreshToken(), getAuthenticatedUser().getId());
+        }
+    }
+
     public void authenticate(String email, String password) throws BadCredentialsException {
         authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(
@@ -73,9 +151,22 @@ public class AuthService {
         );
     }
 
+    //Компактный токен аутентифицирует по id пользователя, прежний формат и тестовые пользователи - по email
     @Transactional(readOnly = true)
     public User getAuthenticatedUser() {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        return userService.findByEmail(email);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        if (authentication.getPrincipal() instanceof UserDetails) {
+            return userService.findByEmail(authentication.getName());
+        }
+
+        UUID userId = UUID.fromString(authentication.getName());
+
+        try {
+            return userService.findUncachedById(userId);
+        }
+        catch (ResourceNotFoundException e) {
+            throw new UserNotFoundException(String.format("User with id %s not found", userId));
+        }
     }
 }
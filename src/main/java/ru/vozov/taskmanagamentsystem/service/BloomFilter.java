@@ -0,0 +1,77 @@
+package ru.vozov.taskmanagamentsystem.service;
+
+import java.util.Arrays;
+
+//Битовый массив на long и k индексов из двух 64-битных хешей (h1 + i * h2). Ложных отрицаний нет,
+//поэтому отрицательный ответ окончательный, а положительный нужно подтвердить точной проверкой
+final class BloomFilter {
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final long[] bits;
+    private final long size;
+    private final int hashes;
+
+    private BloomFilter(long[] bits, int hashes) {
+        this.bits = bits;
+        this.size = (long) bits.length * Long.SIZE;
+        this.hashes = hashes;
+    }
+
+    static BloomFilter create(int expectedInsertions, double falsePositiveRate) {
+        int n = Math.max(1, expectedInsertions);
+        long size = Math.max(Long.SIZE, (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2))));
+        int hashes = Math.max(1, (int) Math.round((double) size / n * Math.log(2)));
+        return new BloomFilter(new long[(int) ((size + Long.SIZE - 1) / Long.SIZE)], hashes);
+    }
+
+    void put(String value) {
+        long h1 = h1(value);
+        long h2 = h2(h1);
+
+        for (int i = 0; i < hashes; i++) {
+            long index = Math.floorMod(h1 + i * h2, size);
+            bits[(int) (index >>> 6)] |= 1L << index;
+        }
+    }
+
+    boolean mightContain(String value) {
+        long h1 = h1(value);
+        long h2 = h2(h1);
+
+        for (int i = 0; i < hashes; i++) {
+            long index = Math.floorMod(h1 + i * h2, size);
+
+            if ((bits[(int) (index >>> 6)] & (1L << index)) == 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    BloomFilter copy() {
+        return new BloomFilter(Arrays.copyOf(bits, bits.length), hashes);
+    }
+
+    //FNV-1a по символам строки с перемешиванием в конце: без выделения памяти на каждую проверку
+    private static long h1(String value) {
+        long hash = FNV_OFFSET;
+
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+        }
+
+        return mix(hash);
+    }
+
+    private static long h2(long h1) {
+        return mix(h1 ^ 0x9e3779b97f4a7c15L) | 1;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
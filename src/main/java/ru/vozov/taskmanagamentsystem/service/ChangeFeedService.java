@@ -0,0 +1,184 @@
+package ru.vozov.taskmanagamentsystem.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.vozov.taskmanagamentsystem.event.ChangeEvent;
+import ru.vozov.taskmanagamentsystem.event.ChangeEventBatch;
+import ru.vozov.taskmanagamentsystem.model.Task;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Slf4j
+@Service
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ChangeFeedService {
+    Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    ExecutorService dispatcher;
+    ExecutorService senders = Executors.newCachedThreadPool(new CustomizableThreadFactory("change-feed-send-"));
+    int bufferSize;
+    long sendTimeout;
+    long timeout;
+
+    @Autowired
+    public ChangeFeedService(
+            @Value("${change-feed.buffer-size:256}") int bufferSize,
+            @Value("${change-feed.dispatcher-threads:8}") int dispatcherThreads,
+            @Value("${change-feed.send-timeout:5s}") Duration sendTimeout,
+            @Value("${change-feed.timeout:30m}") Duration timeout
+    ) {
+        //Число потоков отправки не растет с числом подписчиков. Очередь задач ограничена числом подписчиков:
+        //у каждого подписчика в очереди не больше одной задачи отправки (флаг draining)
+        this.dispatcher = new ThreadPoolExecutor(
+                dispatcherThreads,
+                dispatcherThreads,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                new CustomizableThreadFactory("change-feed-")
+        );
+        this.bufferSize = bufferSize;
+        this.sendTimeout = sendTimeout.toMillis();
+        this.timeout = timeout.toMillis();
+    }
+
+    public SseEmitter subscribe(UUID executorId, UUID authorId, Task.Status status) {
+        return register(new SseEmitter(timeout), executorId, authorId, status);
+    }
+
+    SseEmitter register(SseEmitter emitter, UUID executorId, UUID authorId, Task.Status status) {
+        Subscriber subscriber = new Subscriber(emitter, executorId, authorId, status, new ArrayBlockingQueue<>(bufferSize));
+
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+
+        return emitter;
+    }
+
+    public int getSubscribersCount() {
+        return subscribers.size();
+    }
+
+    @TransactionalEventListener
+    public void publish(ChangeEvent event) {
+        //Вызывается в потоке, закоммитившем транзакцию, поэтому здесь нельзя блокироваться на отправке
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.matches(event)) {
+                continue;
+            }
+
+            if (!subscriber.queue().offer(event)) {
+                drop(subscriber);
+                continue;
+            }
+
+            if (subscriber.draining().compareAndSet(false, true)) {
+                dispatcher.execute(() -> drain(subscriber));
+            }
+        }
+    }
+
+    @TransactionalEventListener
+    public void publishAll(ChangeEventBatch batch) {
+        batch.events().forEach(this::publish);
+    }
+
+    private void drain(Subscriber subscriber) {
+        do {
+            ChangeEvent event;
+
+            while ((event = subscriber.queue().poll()) != null) {
+                if (!send(subscriber, event)) {
+                    subscribers.remove(subscriber);
+                    subscriber.queue().clear();
+                    return;
+                }
+            }
+
+            subscriber.draining().set(false);
+        } while (!subscriber.queue().isEmpty() && subscriber.draining().compareAndSet(false, true));
+    }
+
+    //SseEmitter.send блокируется, пока клиент не читает поток, поэтому поток рассылки ждет отправку не дольше send-timeout.
+    //Иначе несколько остановившихся клиентов заняли бы все потоки рассылки, а остальные подписчики переполнили бы буферы.
+    //Зависшая отправка остается только у отключенного подписчика, поэтому потоков отправки не больше,
+    //чем потоков рассылки и отключенных подписчиков, чья запись в сокет еще не завершилась по таймауту сервера
+    private boolean send(Subscriber subscriber, ChangeEvent event) {
+        Future<Void> sending = senders.submit(() -> {
+            subscriber.emitter().send(
+                    SseEmitter.event()
+                            .name(event.type().name())
+                            .data(event)
+            );
+            return null;
+        });
+
+        try {
+            sending.get(sendTimeout, TimeUnit.MILLISECONDS);
+            return true;
+        }
+        catch (TimeoutException e) {
+            sending.cancel(true);
+            subscribers.remove(subscriber);
+            log.warn("Change feed subscriber dropped: event was not sent in {} ms", sendTimeout);
+            subscriber.emitter().complete();
+            return false;
+        }
+        catch (ExecutionException e) {
+            //IOException или IllegalStateException: клиент отключился
+            return false;
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void drop(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            log.warn("Change feed subscriber dropped: buffer of {} events is full", bufferSize);
+            subscriber.queue().clear();
+            subscriber.emitter().complete();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter().complete());
+        subscribers.clear();
+        dispatcher.shutdownNow();
+        senders.shutdownNow();
+    }
+
+    private record Subscriber(
+            SseEmitter emitter,
+            UUID executorId,
+            UUID authorId,
+            Task.Status status,
+            BlockingQueue<ChangeEvent> queue,
+            AtomicBoolean draining
+    ) {
+        Subscriber(SseEmitter emitter, UUID executorId, UUID authorId, Task.Status status, BlockingQueue<ChangeEvent> queue) {
+            this(emitter, executorId, authorId, status, queue, new AtomicBoolean());
+        }
+
+        boolean matches(ChangeEvent event) {
+            return (executorId == null || executorId.equals(event.executorId()))
+                    && (authorId == null || authorId.equals(event.authorId()))
+                    && (status == null || status == event.status());
+        }
+    }
+}
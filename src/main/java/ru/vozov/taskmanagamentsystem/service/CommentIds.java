@@ -0,0 +1,42 @@
+package ru.vozov.taskmanagamentsystem.service;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Optional;
+import java.util.UUID;
+
+//Id комментариев - UUIDv7: старшие 48 бит содержат время создания в миллисекундах. По id восстанавливается
+//диапазон created_at, и Postgres читает только месячную секцию комментария, а не все секции таблицы
+final class CommentIds {
+    //Запас покрывает смену часового пояса сервера между записью и чтением
+    private static final Duration CREATED_AT_SLACK = Duration.ofDays(1);
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private CommentIds() {
+    }
+
+    static UUID generate(Instant createdAt) {
+        long mostSigBits = (createdAt.toEpochMilli() << 16) | 0x7000L | (RANDOM.nextInt() & 0xFFFL);
+        long leastSigBits = (RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    //Для старых комментариев со случайными id диапазон неизвестен
+    static Optional<CreatedAtRange> createdAtRange(UUID id) {
+        if (id.version() != 7) {
+            return Optional.empty();
+        }
+
+        Instant createdAt = Instant.ofEpochMilli(id.getMostSignificantBits() >>> 16);
+        return Optional.of(new CreatedAtRange(
+                LocalDateTime.ofInstant(createdAt.minus(CREATED_AT_SLACK), ZoneId.systemDefault()),
+                LocalDateTime.ofInstant(createdAt.plus(CREATED_AT_SLACK), ZoneId.systemDefault())
+        ));
+    }
+
+    record CreatedAtRange(LocalDateTime from, LocalDateTime to) {
+    }
+}
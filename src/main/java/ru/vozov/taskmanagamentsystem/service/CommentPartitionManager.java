@@ -0,0 +1,182 @@
+package ru.vozov.taskmanagamentsystem.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+//Таблица comment секционирована по месяцам created_at (только PostgreSQL). Менеджер заранее создает секции
+//на premake-months вперед и удаляет секции старше retention-months: удаление секции - это drop table, а не delete строк
+@Slf4j
+@Service
+@ConditionalOnProperty(value = "comment-partition.enabled", havingValue = "true", matchIfMissing = true)
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class CommentPartitionManager {
+    static Pattern PARTITION_NAME = Pattern.compile("comment_y(\\d{4})m(\\d{2})");
+    static String SELECT_TABLE_KIND = "select c.relkind from pg_class c where c.oid = to_regclass('comment')";
+    static String SELECT_PARTITIONS = """
+            select c.relname
+                from pg_inherits i
+                join pg_class c on c.oid = i.inhrelid
+                where i.inhparent = to_regclass('comment')
+            """;
+    static String CREATE_DEFAULT_PARTITION = "create table if not exists comment_default partition of comment default";
+    static String CREATE_PARTITION = "create table if not exists %s partition of comment for values from ('%s') to ('%s')";
+    static String DROP_PARTITION = "drop table if exists %s";
+    static String RENAME_LEGACY = "alter table comment rename to comment_legacy";
+    static String RENAME_LEGACY_PKEY = "alter table comment_legacy rename constraint comment_pkey to comment_legacy_pkey";
+    static String RENAME_LEGACY_INDEX = "alter index if exists comment_task_id_idx rename to comment_legacy_task_id_idx";
+    static String CREATE_PARTITIONED = """
+            create table comment (
+                id UUID default gen_random_uuid() not null,
+                text text not null,
+                created_at timestamp not null,
+                task_id UUID references task(id) on delete cascade,
+                commentator_id UUID references "user"(id) on delete set null,
+                version bigint not null default 0,
+                primary key (id, created_at)
+            ) partition by range (created_at)
+            """;
+    static String SELECT_LEGACY_RANGE = "select min(created_at), max(created_at) from comment_legacy";
+    static String COPY_LEGACY = """
+            insert into comment (id, text, created_at, task_id, commentator_id, version)
+            select id, text, created_at, task_id, commentator_id, version
+                from comment_legacy
+            """;
+    static String DROP_LEGACY = "drop table comment_legacy";
+    static String CREATE_TASK_ID_INDEX = "create index if not exists comment_task_id_idx on comment (task_id)";
+
+    JdbcTemplate jdbcTemplate;
+    TransactionTemplate transactionTemplate;
+    int premakeMonths;
+    int retentionMonths;
+    boolean migrateLegacy;
+
+    @Autowired
+    public CommentPartitionManager(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${comment-partition.premake-months:3}") int premakeMonths,
+            @Value("${comment-partition.retention-months:0}") int retentionMonths,
+            @Value("${comment-partition.migrate-legacy:false}") boolean migrateLegacy
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.premakeMonths = premakeMonths;
+        this.retentionMonths = retentionMonths;
+        this.migrateLegacy = migrateLegacy;
+    }
+
+    //Скрипт схемы уже выполнен: инициализация базы идет раньше бинов, работающих с DataSource
+    @PostConstruct
+    public void init() {
+        maintain();
+    }
+
+    @Scheduled(cron = "${comment-partition.cron:0 0 2 * * *}")
+    public void maintain() {
+        if (!isPostgres()) {
+            return;
+        }
+
+        String kind = jdbcTemplate.queryForObject(SELECT_TABLE_KIND, String.class);
+
+        if ("r".equals(kind)) {
+            if (!migrateLegacy) {
+                log.warn("Table comment is not partitioned, set comment-partition.migrate-legacy=true to convert it");
+                return;
+            }
+
+            migrate();
+        }
+
+        YearMonth current = YearMonth.now();
+        jdbcTemplate.execute(CREATE_DEFAULT_PARTITION);
+        createPartitions(current, current.plusMonths(premakeMonths));
+
+        if (retentionMonths > 0) {
+            dropPartitionsBefore(current.minusMonths(retentionMonths));
+        }
+    }
+
+    //Одна транзакция: DDL в PostgreSQL транзакционен, при ошибке остается исходная таблица
+    private void migrate() {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute(RENAME_LEGACY);
+            jdbcTemplate.execute(RENAME_LEGACY_PKEY);
+            jdbcTemplate.execute(RENAME_LEGACY_INDEX);
+            jdbcTemplate.execute(CREATE_PARTITIONED);
+            jdbcTemplate.execute(CREATE_DEFAULT_PARTITION);
+
+            LocalDateTime[] range = jdbcTemplate.queryForObject(
+                    SELECT_LEGACY_RANGE,
+                    (rs, rowNum) -> new LocalDateTime[] {
+                            rs.getObject(1, LocalDateTime.class),
+                            rs.getObject(2, LocalDateTime.class)
+                    }
+            );
+
+            if (range != null && range[0] != null) {
+                createPartitions(YearMonth.from(range[0]), YearMonth.from(range[1]));
+            }
+
+            int copied = jdbcTemplate.update(COPY_LEGACY);
+            jdbcTemplate.execute(DROP_LEGACY);
+            jdbcTemplate.execute(CREATE_TASK_ID_INDEX);
+            log.info("Converted table comment to monthly partitions, {} comments copied", copied);
+        });
+    }
+
+    private void createPartitions(YearMonth from, YearMonth to) {
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            String name = partitionName(month);
+
+            //Секция не создается, если подходящие строки уже лежат в секции по умолчанию, - это не мешает остальным
+            try {
+                jdbcTemplate.execute(String.format(CREATE_PARTITION, name, month.atDay(1), month.plusMonths(1).atDay(1)));
+            }
+            catch (DataAccessException e) {
+                log.warn("Failed to create comment partition {}: {}", name, e.getMessage());
+            }
+        }
+    }
+
+    private void dropPartitionsBefore(YearMonth cutoff) {
+        List<String> partitions = jdbcTemplate.queryForList(SELECT_PARTITIONS, String.class);
+
+        for (String partition : partitions) {
+            Matcher matcher = PARTITION_NAME.matcher(partition);
+
+            if (matcher.matches()
+                    && YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))).isBefore(cutoff)) {
+                jdbcTemplate.execute(String.format(DROP_PARTITION, partition));
+                log.info("Dropped comment partition {}", partition);
+            }
+        }
+    }
+
+    private boolean isPostgres() {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        return "PostgreSQL".equals(product);
+    }
+
+    static String partitionName(YearMonth month) {
+        return String.format("comment_y%04dm%02d", month.getYear(), month.getMonthValue());
+    }
+}
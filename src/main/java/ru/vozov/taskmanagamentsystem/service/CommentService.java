@@ -3,20 +3,27 @@ package ru.vozov.taskmanagamentsystem.service;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.vozov.taskmanagamentsystem.dto.CommentCreationDto;
+import ru.vozov.taskmanagamentsystem.dto.CommentDto;
 import ru.vozov.taskmanagamentsystem.dto.CommentUpdateDto;
+import ru.vozov.taskmanagamentsystem.event.ChangeEvent;
 import ru.vozov.taskmanagamentsystem.exception.AccessDeniedException;
 import ru.vozov.taskmanagamentsystem.exception.ResourceNotFoundException;
 import ru.vozov.taskmanagamentsystem.exception.TaskNotFoundException;
+import ru.vozov.taskmanagamentsystem.exception.VersionConflictException;
 import ru.vozov.taskmanagamentsystem.model.Comment;
 import ru.vozov.taskmanagamentsystem.model.Task;
 import ru.vozov.taskmanagamentsystem.model.User;
 import ru.vozov.taskmanagamentsystem.repository.CommentRepository;
 import ru.vozov.taskmanagamentsystem.repository.TaskRepository;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Optional;
 import java.util.UUID;
 
 @Service
@@ -25,17 +32,19 @@ public class CommentService {
     CommentRepository commentRepository;
     TaskRepository taskRepository;
     AuthService authService;
+    ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public CommentService(CommentRepository commentRepository, TaskRepository taskRepository, AuthService authService) {
+    public CommentService(CommentRepository commentRepository, TaskRepository taskRepository, AuthService authService, ApplicationEventPublisher eventPublisher) {
         this.commentRepository = commentRepository;
         this.taskRepository = taskRepository;
         this.authService = authService;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional(readOnly = true)
     public Comment findById(UUID id) {
-        return commentRepository.findById(id)
+        return findComment(id)
                 .orElseThrow(() -> new ResourceNotFoundException(String.format("Comment with id %s not found", id)));
     }
 
@@ -50,19 +59,23 @@ public class CommentService {
             throw new AccessDeniedException("Only admin or executor of task can leave comment");
         }
 
+        Instant now = Instant.now();
         Comment comment = Comment.builder()
+                .id(CommentIds.generate(now))
                 .text(commentCreationDto.text())
-                .createdAt(LocalDateTime.now())
+                .createdAt(LocalDateTime.ofInstant(now, ZoneId.systemDefault()))
                 .task(task)
                 .commentator(authenticatedUser)
                 .build();
 
-        return commentRepository.save(comment);
+        Comment savedComment = commentRepository.save(comment);
+        eventPublisher.publishEvent(ChangeEvent.of(ChangeEvent.Type.COMMENT_CREATED, savedComment));
+        return savedComment;
     }
 
     @Transactional
     public void delete(UUID id) {
-        Comment comment = commentRepository.findById(id).orElseThrow(() -> new ResourceNotFoundException(String.format("Comment with id %s not found", id)));
+        Comment comment = findComment(id).orElseThrow(() -> new ResourceNotFoundException(String.format("Comment with id %s not found", id)));
 
         User authenticatedUser = authService.getAuthenticatedUser();
 
@@ -70,12 +83,14 @@ public class CommentService {
             throw new AccessDeniedException("Only admin or creator of comment can delete the comment");
         }
 
-        commentRepository.deleteById(id);
+        //Удаляется уже загруженная сущность: deleteById повторил бы поиск без диапазона created_at по всем секциям
+        commentRepository.delete(comment);
+        eventPublisher.publishEvent(ChangeEvent.of(ChangeEvent.Type.COMMENT_DELETED, comment));
     }
 
     @Transactional
     public Comment update(UUID id, CommentUpdateDto commentUpdateDto) {
-        Comment comment = commentRepository.findById(id)
+        Comment comment = findComment(id)
                 .orElseThrow(() -> new ResourceNotFoundException(String.format("Comment with id %s not found", id)));
 
         User authenticatedUser = authService.getAuthenticatedUser();
@@ -84,8 +99,24 @@ public class CommentService {
             throw new AccessDeniedException("Only admin or creator of comment can edit the comment");
         }
 
+        if (commentUpdateDto.version() != null && !commentUpdateDto.version().equals(comment.getVersion())) {
+            throw new VersionConflictException(
+                    String.format("Comment with id %s was modified, current version is %d", id, comment.getVersion()),
+                    CommentDto.convert(comment)
+            );
+        }
+
         comment.setText(commentUpdateDto.text());
-        return commentRepository.save(comment);
+
+        Comment savedComment = commentRepository.save(comment);
+        eventPublisher.publishEvent(ChangeEvent.of(ChangeEvent.Type.COMMENT_UPDATED, savedComment));
+        return savedComment;
+    }
+
+    private Optional<Comment> findComment(UUID id) {
+        return CommentIds.createdAtRange(id)
+                .map(range -> commentRepository.findByIdAndCreatedAtRange(id, range.from(), range.to()))
+                .orElseGet(() -> commentRepository.findById(id));
     }
 
     private boolean actionIsUnavailable(User user, User owner) {
@@ -0,0 +1,50 @@
+package ru.vozov.taskmanagamentsystem.service;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import ru.vozov.taskmanagamentsystem.exception.VersionConflictException;
+
+import java.util.function.Supplier;
+
+@Slf4j
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ConflictRetryPolicy {
+    boolean enabled;
+    int maxAttempts;
+
+    @Autowired
+    public ConflictRetryPolicy(
+            @Value("${conflict-retry.enabled:false}") boolean enabled,
+            @Value("${conflict-retry.max-attempts:3}") int maxAttempts
+    ) {
+        this.enabled = enabled;
+        this.maxAttempts = Math.max(maxAttempts, 1);
+    }
+
+    public <T> T execute(Supplier<T> action, Supplier<?> currentState, boolean commutative) {
+        //Повторяем только коммутативные изменения, остальные конфликты сразу возвращаем клиенту с текущим состоянием
+        int attempts = enabled && commutative ? maxAttempts : 1;
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            }
+            catch (ObjectOptimisticLockingFailureException e) {
+                if (attempt >= attempts) {
+                    throw new VersionConflictException(
+                            "Resource was modified concurrently, reload it and try again",
+                            currentState.get()
+                    );
+                }
+
+                log.debug("Optimistic locking conflict on {} {}, retry attempt {}", e.getPersistentClassName(), e.getIdentifier(), attempt + 1);
+            }
+        }
+    }
+}
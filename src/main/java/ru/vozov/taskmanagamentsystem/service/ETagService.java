@@ -0,0 +1,81 @@
+package ru.vozov.taskmanagamentsystem.service;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
+import ru.vozov.taskmanagamentsystem.exception.ResourceNotFoundException;
+import ru.vozov.taskmanagamentsystem.repository.CommentRepository;
+import ru.vozov.taskmanagamentsystem.repository.TaskRepository;
+import ru.vozov.taskmanagamentsystem.repository.UserRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+@Service
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ETagService {
+    TaskRepository taskRepository;
+    CommentRepository commentRepository;
+    UserRepository userRepository;
+
+    @Autowired
+    public ETagService(TaskRepository taskRepository, CommentRepository commentRepository, UserRepository userRepository) {
+        this.taskRepository = taskRepository;
+        this.commentRepository = commentRepository;
+        this.userRepository = userRepository;
+    }
+
+    @Transactional(readOnly = true)
+    public String taskETag(UUID id) {
+        List<Object[]> task = taskRepository.findVersionStateById(id);
+
+        if (task.isEmpty()) {
+            throw new ResourceNotFoundException(String.format("Task with id %s not found", id));
+        }
+
+        return eTag("task", id, task, commentRepository.findVersionStatesByTaskId(id));
+    }
+
+    @Transactional(readOnly = true)
+    public String commentETag(UUID id) {
+        List<Object[]> comment = commentRepository.findVersionStateById(id);
+
+        if (comment.isEmpty()) {
+            throw new ResourceNotFoundException(String.format("Comment with id %s not found", id));
+        }
+
+        return eTag("comment", id, comment);
+    }
+
+    @Transactional(readOnly = true)
+    public String userETag(UUID id) {
+        Long version = userRepository.findVersionById(id)
+                .orElseThrow(() -> new ResourceNotFoundException(String.format("User with id %s not found", id)));
+
+        return eTag(
+                "user",
+                id,
+                List.<Object[]>of(new Object[] {version}),
+                taskRepository.findVersionStatesByUserId(id),
+                commentRepository.findVersionStatesByUserId(id)
+        );
+    }
+
+    @SafeVarargs
+    private String eTag(String type, UUID id, List<Object[]>... states) {
+        //Тег строится только по версиям и связям строк, без загрузки сущностей и их коллекций
+        StringBuilder builder = new StringBuilder(type).append(':').append(id);
+
+        for (List<Object[]> rows : states) {
+            builder.append('|');
+            rows.forEach(row -> builder.append(Arrays.toString(row)).append(';'));
+        }
+
+        return "\"" + DigestUtils.md5DigestAsHex(builder.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+}
@@ -0,0 +1,251 @@
+package ru.vozov.taskmanagamentsystem.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.vozov.taskmanagamentsystem.exception.IdempotencyKeyInProgressException;
+import ru.vozov.taskmanagamentsystem.exception.IdempotencyKeyMismatchException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+//Повтор запроса с тем же заголовком Idempotency-Key получает сохраненный ответ без повторного выполнения.
+//Ключ действует в пределах операции и пользователя, а отпечаток тела запроса не дает переиспользовать ключ для другого запроса
+@Slf4j
+@Service
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class IdempotencyService {
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    IdempotencyStore idempotencyStore;
+    ObjectMapper objectMapper;
+    TransactionTemplate transactionTemplate;
+    Duration waitTimeout;
+    Duration pollInterval;
+    Duration leaseRenewalInterval;
+    ScheduledExecutorService leaseRenewal = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("idempotency-lease-"));
+    //Одновременные повторы на этом узле ждут результата первого запроса, не опрашивая хранилище
+    Map<String, CompletableFuture<IdempotencyStore.Entry>> inFlight = new ConcurrentHashMap<>();
+
+    @Autowired
+    public IdempotencyService(
+            IdempotencyStore idempotencyStore,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            @Value("${idempotency.wait-timeout:10s}") Duration waitTimeout,
+            @Value("${idempotency.poll-interval:100ms}") Duration pollInterval,
+            @Value("${idempotency.lease-renewal-interval:20s}") Duration leaseRenewalInterval
+    ) {
+        this.idempotencyStore = idempotencyStore;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.waitTimeout = waitTimeout;
+        this.pollInterval = pollInterval;
+        this.leaseRenewalInterval = leaseRenewalInterval;
+    }
+
+    public <T> ResponseEntity<T> execute(
+            String operation,
+            String idempotencyKey,
+            Object request,
+            Class<T> responseType,
+            Supplier<ResponseEntity<T>> action
+    ) {
+        if (idempotencyKey == null) {
+            return action.get();
+        }
+
+        String key = hash((operation + "\n" + principal() + "\n" + idempotencyKey).getBytes(StandardCharsets.UTF_8));
+        String fingerprint = hash(serialize(request).getBytes(StandardCharsets.UTF_8));
+        CompletableFuture<IdempotencyStore.Entry> execution = new CompletableFuture<>();
+        CompletableFuture<IdempotencyStore.Entry> current = inFlight.putIfAbsent(key, execution);
+
+        if (current != null) {
+            return replay(await(current), fingerprint, responseType);
+        }
+
+        try {
+            Optional<IdempotencyStore.Entry> stored = reserve(key, fingerprint);
+
+            if (stored.isPresent()) {
+                execution.complete(stored.get());
+                return replay(stored.get(), fingerprint, responseType);
+            }
+
+            ResponseEntity<T> response = run(key, fingerprint, action);
+            execution.complete(new IdempotencyStore.Entry(fingerprint, response.getStatusCode().value(), serialize(response.getBody())));
+            return response;
+        }
+        catch (RuntimeException e) {
+            execution.completeExceptionally(e);
+            throw e;
+        }
+        finally {
+            inFlight.remove(key, execution);
+        }
+    }
+
+    //Пустой результат - ключ зарезервирован этим запросом. Иначе ждем, пока запрос с другого узла сохранит ответ
+    private Optional<IdempotencyStore.Entry> reserve(String key, String fingerprint) {
+        long deadline = System.nanoTime() + waitTimeout.toNanos();
+
+        while (!idempotencyStore.tryReserve(key, fingerprint)) {
+            Optional<IdempotencyStore.Entry> stored = idempotencyStore.find(key);
+
+            if (stored.isPresent() && (stored.get().completed() || !stored.get().fingerprint().equals(fingerprint))) {
+                return stored;
+            }
+
+            if (System.nanoTime() > deadline) {
+                throw new IdempotencyKeyInProgressException("Request with this Idempotency-Key is still in progress, try again later");
+            }
+
+            try {
+                Thread.sleep(pollInterval.toMillis());
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IdempotencyKeyInProgressException("Request with this Idempotency-Key is still in progress, try again later");
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    //Сохраняются только успешные ответы: после ошибки ключ освобождается, и клиент может повторить запрос.
+    //Действие выполняется в транзакции, к которой присоединяется транзакция сервиса, и ответ сохраняется в ней же:
+    //падение между созданием записи и сохранением ответа откатывает обе, а повтор не создаст дубликат.
+    //Пока действие выполняется, резерв продлевается, чтобы другой узел не счел его брошенным по pending-timeout
+    private <T> ResponseEntity<T> run(String key, String fingerprint, Supplier<ResponseEntity<T>> action) {
+        ScheduledFuture<?> renewal = leaseRenewal.scheduleAtFixedRate(
+                () -> renew(key),
+                leaseRenewalInterval.toMillis(),
+                leaseRenewalInterval.toMillis(),
+                TimeUnit.MILLISECONDS
+        );
+        ResponseEntity<T> response;
+
+        try {
+            response = transactionTemplate.execute(status -> {
+                ResponseEntity<T> result = action.get();
+
+                if (result.getStatusCode().is2xxSuccessful()) {
+                    idempotencyStore.complete(key, new IdempotencyStore.Entry(fingerprint, result.getStatusCode().value(), serialize(result.getBody())));
+                }
+
+                return result;
+            });
+        }
+        catch (RuntimeException e) {
+            idempotencyStore.release(key);
+            throw e;
+        }
+        finally {
+            renewal.cancel(false);
+        }
+
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            idempotencyStore.release(key);
+        }
+
+        return response;
+    }
+
+    private void renew(String key) {
+        try {
+            idempotencyStore.renew(key);
+        }
+        catch (RuntimeException e) {
+            log.warn("Idempotency key reservation renewal failed", e);
+        }
+    }
+
+    private <T> ResponseEntity<T> replay(IdempotencyStore.Entry entry, String fingerprint, Class<T> responseType) {
+        if (!entry.fingerprint().equals(fingerprint)) {
+            throw new IdempotencyKeyMismatchException("Idempotency-Key was already used with a different request body");
+        }
+
+        try {
+            return ResponseEntity.status(entry.status())
+                    .header(REPLAYED_HEADER, "true")
+                    .body(objectMapper.readValue(entry.body(), responseType));
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    //Ожидание на этом узле ограничено тем же wait-timeout, что и ожидание запроса с другого узла.
+    //Таймаут ставится на копию, чтобы не завершить общий результат для остальных ожидающих
+    private IdempotencyStore.Entry await(CompletableFuture<IdempotencyStore.Entry> execution) {
+        try {
+            return execution.copy().orTimeout(waitTimeout.toMillis(), TimeUnit.MILLISECONDS).join();
+        }
+        catch (CompletionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                throw new IdempotencyKeyInProgressException("Request with this Idempotency-Key is still in progress, try again later");
+            }
+
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        leaseRenewal.shutdownNow();
+    }
+
+    private String principal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null ? "" : authentication.getName();
+    }
+
+    private String serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String hash(byte[] value) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(value));
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package ru.vozov.taskmanagamentsystem.service;
+
+import java.util.Optional;
+
+//Хранилище ключей идемпотентности: ключ сначала резервируется, затем получает сохраненный ответ или освобождается при ошибке
+public interface IdempotencyStore {
+    //false, если ключ уже зарезервирован или по нему сохранен ответ
+    boolean tryReserve(String key, String fingerprint);
+
+    Optional<Entry> find(String key);
+
+    //Вызывается в транзакции действия: ответ должен зафиксироваться вместе с его результатом
+    void complete(String key, Entry entry);
+
+    //Продлевает резерв, пока действие еще выполняется
+    void renew(String key);
+
+    void release(String key);
+
+    record Entry(String fingerprint, Integer status, String body) {
+        public static Entry pending(String fingerprint) {
+            return new Entry(fingerprint, null, null);
+        }
+
+        public boolean completed() {
+            return status != null;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package ru.vozov.taskmanagamentsystem.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+
+//Ключи живут в памяти узла: повтор, попавший на другой узел, выполнится заново. Для нескольких узлов - idempotency.store=jdbc
+@Service
+@ConditionalOnProperty(value = "idempotency.store", havingValue = "memory", matchIfMissing = true)
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+    Cache<String, Entry> cache;
+
+    @Autowired
+    public InMemoryIdempotencyStore(
+            MeterRegistry meterRegistry,
+            @Value("${idempotency.maximum-size:100000}") long maximumSize,
+            @Value("${idempotency.ttl:24h}") Duration ttl
+    ) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "idempotency-keys");
+    }
+
+    @Override
+    public boolean tryReserve(String key, String fingerprint) {
+        return cache.asMap().putIfAbsent(key, Entry.pending(fingerprint)) == null;
+    }
+
+    @Override
+    public Optional<Entry> find(String key) {
+        return Optional.ofNullable(cache.getIfPresent(key));
+    }
+
+    //Память не участвует в транзакции, поэтому ответ сохраняется только после ее коммита
+    @Override
+    public void complete(String key, Entry entry) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.put(key, entry);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.put(key, entry);
+            }
+        });
+    }
+
+    //Резерв в памяти истекает только по ttl
+    @Override
+    public void renew(String key) {
+    }
+
+    @Override
+    public void release(String key) {
+        cache.asMap().computeIfPresent(key, (k, entry) -> entry.completed() ? entry : null);
+    }
+}
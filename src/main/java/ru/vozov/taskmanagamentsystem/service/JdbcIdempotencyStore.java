@@ -0,0 +1,96 @@
+package ru.vozov.taskmanagamentsystem.service;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+//Ключи общие для всех узлов: резервирование - вставка строки, поэтому одновременные повторы на разных узлах
+//выполняют запрос один раз. Резерв продлевается, пока запрос выполняется, поэтому истекает через pending-timeout только у упавшего узла.
+//Ответ записывается JdbcTemplate в транзакции действия и фиксируется вместе с созданными им данными
+@Slf4j
+@Service
+@ConditionalOnProperty(value = "idempotency.store", havingValue = "jdbc")
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class JdbcIdempotencyStore implements IdempotencyStore {
+    static String DELETE_EXPIRED_KEY = "delete from idempotency_key where id = ? and expires_at < ?";
+    static String INSERT_KEY = "insert into idempotency_key (id, fingerprint, expires_at) values (?, ?, ?)";
+    static String SELECT_KEY = "select fingerprint, response_status, response_body from idempotency_key where id = ? and expires_at >= ?";
+    static String COMPLETE_KEY = "update idempotency_key set response_status = ?, response_body = ?, expires_at = ? where id = ?";
+    static String RENEW_KEY = "update idempotency_key set expires_at = ? where id = ? and response_status is null";
+    static String RELEASE_KEY = "delete from idempotency_key where id = ? and response_status is null";
+    static String PURGE_KEYS = "delete from idempotency_key where expires_at < ?";
+
+    JdbcTemplate jdbcTemplate;
+    Duration ttl;
+    Duration pendingTimeout;
+
+    @Autowired
+    public JdbcIdempotencyStore(
+            JdbcTemplate jdbcTemplate,
+            @Value("${idempotency.ttl:24h}") Duration ttl,
+            @Value("${idempotency.pending-timeout:1m}") Duration pendingTimeout
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttl = ttl;
+        this.pendingTimeout = pendingTimeout;
+    }
+
+    @Override
+    public boolean tryReserve(String key, String fingerprint) {
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update(DELETE_EXPIRED_KEY, key, now);
+
+        try {
+            jdbcTemplate.update(INSERT_KEY, key, fingerprint, now.plus(pendingTimeout));
+            return true;
+        }
+        catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public Optional<Entry> find(String key) {
+        return jdbcTemplate.query(
+                SELECT_KEY,
+                (rs, rowNum) -> new Entry(rs.getString("fingerprint"), rs.getObject("response_status", Integer.class), rs.getString("response_body")),
+                key,
+                LocalDateTime.now()
+        ).stream().findFirst();
+    }
+
+    @Override
+    public void complete(String key, Entry entry) {
+        jdbcTemplate.update(COMPLETE_KEY, entry.status(), entry.body(), LocalDateTime.now().plus(ttl), key);
+    }
+
+    @Override
+    public void renew(String key) {
+        jdbcTemplate.update(RENEW_KEY, LocalDateTime.now().plus(pendingTimeout), key);
+    }
+
+    @Override
+    public void release(String key) {
+        jdbcTemplate.update(RELEASE_KEY, key);
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval-ms:600000}")
+    public void purge() {
+        int purged = jdbcTemplate.update(PURGE_KEYS, LocalDateTime.now());
+
+        if (purged > 0) {
+            log.info("Purged {} expired idempotency keys", purged);
+        }
+    }
+}
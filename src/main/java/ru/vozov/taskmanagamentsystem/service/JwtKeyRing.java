@@ -0,0 +1,222 @@
+package ru.vozov.taskmanagamentsystem.service;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+
+//Ключи JWT по kid. Для HS256 один общий секрет и подписывает, и проверяет. Для ES256 и EdDSA (Ed25519) в файле лежат
+//kid.private (PKCS#8) и kid.public (X.509) в base64: закрытый ключ нужен только активному kid, а открытые публикуются в JWKS,
+//и проверять токены может шлюз или sidecar без доступа к секрету
+final class JwtKeyRing {
+    static final String HS256 = "HS256";
+    static final String ES256 = "ES256";
+    static final String EDDSA = "EdDSA";
+    private static final int MIN_SECRET_BYTES = 32;
+    private static final int EC_COORDINATE_BYTES = 32;
+    private static final int ED25519_KEY_BYTES = 32;
+    private static final String PRIVATE_SUFFIX = ".private";
+    private static final String PUBLIC_SUFFIX = ".public";
+
+    private final String algorithm;
+    private final String activeKid;
+    private final Key signingKey;
+    private final Map<String, Key> verificationKeys;
+
+    JwtKeyRing(String algorithm, String activeKid, Key signingKey, Map<String, ? extends Key> verificationKeys) {
+        if (!List.of(HS256, ES256, EDDSA).contains(algorithm)) {
+            throw new IllegalStateException("Unsupported jwt.algorithm '" + algorithm + "', expected HS256, ES256 or EdDSA");
+        }
+
+        if (signingKey == null || !verificationKeys.containsKey(activeKid)) {
+            throw new IllegalStateException("jwt.keys.active-kid '" + activeKid + "' is not found among signing keys");
+        }
+
+        this.algorithm = algorithm;
+        this.activeKid = activeKid;
+        this.signingKey = signingKey;
+        this.verificationKeys = Map.copyOf(verificationKeys);
+    }
+
+    String algorithm() {
+        return algorithm;
+    }
+
+    String activeKid() {
+        return activeKid;
+    }
+
+    Key signingKey() {
+        return signingKey;
+    }
+
+    Key verificationKey(String kid) {
+        return kid == null ? null : verificationKeys.get(kid);
+    }
+
+    //Случайные ключи, которые живут до перезапуска узла
+    static JwtKeyRing generate(String algorithm) {
+        String kid = UUID.randomUUID().toString();
+
+        if (HS256.equals(algorithm)) {
+            Key secret = Jwts.SIG.HS256.key().build();
+            return new JwtKeyRing(algorithm, kid, secret, Map.of(kid, secret));
+        }
+
+        KeyPair keyPair = generateKeyPair(algorithm);
+        return new JwtKeyRing(algorithm, kid, keyPair.getPrivate(), Map.of(kid, keyPair.getPublic()));
+    }
+
+    static JwtKeyRing load(String algorithm, String keysFile, String activeKid) {
+        Properties properties = new Properties();
+
+        try (Reader reader = Files.newBufferedReader(Path.of(keysFile), StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Cannot read JWT keys from " + keysFile, e);
+        }
+
+        Map<String, Key> verificationKeys = new HashMap<>();
+        Key signingKey = null;
+
+        if (HS256.equals(algorithm)) {
+            for (String kid : properties.stringPropertyNames()) {
+                byte[] secret = decode(properties, kid);
+
+                if (secret.length < MIN_SECRET_BYTES) {
+                    throw new IllegalStateException("JWT key '" + kid + "' must be at least " + MIN_SECRET_BYTES + " bytes long");
+                }
+
+                verificationKeys.put(kid, Keys.hmacShaKeyFor(secret));
+            }
+
+            signingKey = verificationKeys.get(activeKid);
+        }
+        else {
+            KeyFactory keyFactory = keyFactory(algorithm);
+
+            try {
+                for (String name : properties.stringPropertyNames()) {
+                    if (name.endsWith(PUBLIC_SUFFIX)) {
+                        String kid = name.substring(0, name.length() - PUBLIC_SUFFIX.length());
+                        verificationKeys.put(kid, keyFactory.generatePublic(new X509EncodedKeySpec(decode(properties, name))));
+                    }
+                }
+
+                //Закрытые ключи прежних kid не загружаются: ими больше ничего не подписывается
+                if (properties.getProperty(activeKid + PRIVATE_SUFFIX) != null) {
+                    signingKey = keyFactory.generatePrivate(new PKCS8EncodedKeySpec(decode(properties, activeKid + PRIVATE_SUFFIX)));
+                }
+            }
+            catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Cannot decode " + algorithm + " keys from " + keysFile, e);
+            }
+        }
+
+        return new JwtKeyRing(algorithm, activeKid, signingKey, verificationKeys);
+    }
+
+    //Открытые ключи в формате JWK (RFC 7517). Общий секрет HS256 не публикуется
+    List<Map<String, Object>> publicJwks() {
+        List<Map<String, Object>> jwks = new ArrayList<>();
+
+        verificationKeys.forEach((kid, key) -> {
+            if (key instanceof PublicKey publicKey) {
+                jwks.add(toJwk(kid, publicKey));
+            }
+        });
+
+        return List.copyOf(jwks);
+    }
+
+    private Map<String, Object> toJwk(String kid, PublicKey publicKey) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        Map<String, Object> jwk = new LinkedHashMap<>();
+
+        if (publicKey instanceof ECPublicKey ecPublicKey) {
+            jwk.put("kty", "EC");
+            jwk.put("crv", "P-256");
+            jwk.put("x", encoder.encodeToString(unsigned(ecPublicKey.getW().getAffineX(), EC_COORDINATE_BYTES)));
+            jwk.put("y", encoder.encodeToString(unsigned(ecPublicKey.getW().getAffineY(), EC_COORDINATE_BYTES)));
+        }
+        else {
+            //Кодировка X.509 ключа Ed25519 заканчивается 32 байтами самого ключа
+            byte[] encoded = publicKey.getEncoded();
+            jwk.put("kty", "OKP");
+            jwk.put("crv", "Ed25519");
+            jwk.put("x", encoder.encodeToString(Arrays.copyOfRange(encoded, encoded.length - ED25519_KEY_BYTES, encoded.length)));
+        }
+
+        jwk.put("kid", kid);
+        jwk.put("use", "sig");
+        jwk.put("alg", algorithm);
+        return jwk;
+    }
+
+    private static byte[] unsigned(BigInteger value, int length) {
+        byte[] bytes = value.toByteArray();
+
+        if (bytes.length == length) {
+            return bytes;
+        }
+
+        byte[] result = new byte[length];
+        int copied = Math.min(bytes.length, length);
+        System.arraycopy(bytes, bytes.length - copied, result, length - copied, copied);
+        return result;
+    }
+
+    private static byte[] decode(Properties properties, String name) {
+        return Base64.getDecoder().decode(properties.getProperty(name).trim());
+    }
+
+    private static KeyFactory keyFactory(String algorithm) {
+        try {
+            return KeyFactory.getInstance(ES256.equals(algorithm) ? "EC" : "Ed25519");
+        }
+        catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static KeyPair generateKeyPair(String algorithm) {
+        try {
+            if (ES256.equals(algorithm)) {
+                KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+                generator.initialize(new ECGenParameterSpec("secp256r1"));
+                return generator.generateKeyPair();
+            }
+
+            return KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        }
+        catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
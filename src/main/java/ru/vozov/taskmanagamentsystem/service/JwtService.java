@@ -1,47 +1,124 @@
 package ru.vozov.taskmanagamentsystem.service;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.ProtectedHeader;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.SecureDigestAlgorithm;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
-import javax.crypto.SecretKey;
+import java.security.Key;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
-
+//Ключи подписи читаются из файла jwt.keys.file (формат описан в JwtKeyRing), поэтому токен, выпущенный одним узлом,
+//принимают все узлы и после перезапуска. Новые токены подписываются ключом jwt.keys.active-kid и получают его kid в заголовке,
+//а остальные ключи файла только проверяют подпись: при ротации старый ключ остается в файле, пока не истекут выпущенные им токены.
+//В режимах ES256 и EdDSA открытые ключи публикуются в JWKS, и токены может проверять компонент без секрета
+@Slf4j
 @Service
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class JwtService {
-    SecretKey secretKey;
+    static String ROLES_CLAIM = "roles";
+    static String ROLE_MASK_CLAIM = "r";
+    //Позиция роли задает ее бит в компактном токене, поэтому новые роли добавляются только в конец
+    static List<String> ROLE_BITS = List.of("ROLE_USER", "ROLE_ADMIN");
+    static List<List<GrantedAuthority>> AUTHORITIES_BY_MASK = authoritiesByMask();
+
+    JwtKeyRing keyRing;
+    SecureDigestAlgorithm<Key, ?> signatureAlgorithm;
+    JwtParser parser;
     long expirationTime;
+    boolean compactClaims;
+
+    //Токен доступа живет недолго: клиент продлевает его refresh-токеном без повторной проверки пароля
+    @Autowired
+    public JwtService(
+            @Value("${jwt.access-token-ttl:15m}") Duration accessTokenTtl,
+            @Value("${jwt.algorithm:HS256}") String algorithm,
+            @Value("${jwt.keys.file:}") String keysFile,
+            @Value("${jwt.keys.active-kid:}") String activeKid,
+            @Value("${jwt.compact-claims:true}") boolean compactClaims
+    ) {
+        this(accessTokenTtl, keyRing(algorithm, keysFile, activeKid), compactClaims);
+    }
 
-    public JwtService() {
-        secretKey = Jwts.SIG.HS256.key().build();
-        expirationTime = 3600000;
+    @SuppressWarnings("unchecked")
+    JwtService(Duration accessTokenTtl, JwtKeyRing keyRing, boolean compactClaims) {
+        this.keyRing = keyRing;
+        this.signatureAlgorithm = (SecureDigestAlgorithm<Key, ?>) Jwts.SIG.get().forKey(keyRing.algorithm());
+        //Парсер неизменяем и потокобезопасен, поэтому строится один раз, а ключ выбирается по kid из заголовка
+        this.parser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(ProtectedHeader header) {
+                        Key key = keyRing.verificationKey(header.getKeyId());
+
+                        if (key == null) {
+                            throw new UnsupportedJwtException("Unknown signing key id: " + header.getKeyId());
+                        }
+
+                        return key;
+                    }
+                })
+                .build();
+        this.expirationTime = accessTokenTtl.toMillis();
+        this.compactClaims = compactClaims;
     }
 
-    public String generateToken(UserDetails userDetails) {
-        Map<String, Object> claims = new HashMap<>();
+    //Компактный токен: id пользователя в subject и роли битовой маской вместо email и списка строк.
+    //Если у пользователя есть роль без бита, выпускается прежний формат
+    public String generateToken(UUID userId, String email, Collection<String> roles) {
+        int roleMask = compactClaims ? roleMask(roles) : -1;
+        JwtBuilder builder = Jwts.builder()
+                .header().keyId(keyRing.activeKid()).and()
+                .id(UUID.randomUUID().toString());
 
-        List<String> roles = userDetails.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList();
-        claims.put("roles", roles);
+        if (roleMask >= 0) {
+            builder.subject(userId.toString()).claim(ROLE_MASK_CLAIM, roleMask);
+        }
+        else {
+            builder.subject(email).claim(ROLES_CLAIM, List.copyOf(roles));
+        }
 
-        return Jwts.builder()
-                .subject(userDetails.getUsername())
-                .claims(claims)
+        return builder
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() + expirationTime))
-                .signWith(SignatureAlgorithm.HS256, secretKey)
+                .signWith(keyRing.signingKey(), signatureAlgorithm)
                 .compact();
+    }
 
+    public boolean isCompact(Claims claims) {
+        return claims.containsKey(ROLE_MASK_CLAIM);
+    }
+
+    //Права компактного токена - готовый неизменяемый список по значению маски, без разбора строк и новых коллекций
+    public List<GrantedAuthority> getAuthorities(Claims claims) {
+        Integer roleMask = claims.get(ROLE_MASK_CLAIM, Integer.class);
+
+        if (roleMask == null || roleMask < 0 || roleMask >= AUTHORITIES_BY_MASK.size()) {
+            throw new MalformedJwtException("Invalid role mask: " + roleMask);
+        }
+
+        return AUTHORITIES_BY_MASK.get(roleMask);
     }
 
     public String getEmail(String token) {
@@ -58,6 +135,11 @@ public class JwtService {
         return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
     }
 
+    //Для фильтра запросов: подпись проверяется один раз, дальше используются уже разобранные claims
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        return claims.getSubject().equals(userDetails.getUsername()) && !claims.getExpiration().before(new Date());
+    }
+
     private boolean isTokenExpired(String token) {
         return getExpiration(token).before(new Date());
     }
@@ -66,11 +148,55 @@ public class JwtService {
         return getClaim(token, Claims::getExpiration);
     }
 
-    private Claims getClaimsFromToken(String token) {
-        return Jwts.parser()
-                .verifyWith(secretKey)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    public Claims getClaimsFromToken(String token) {
+        return parser.parseSignedClaims(token).getPayload();
+    }
+
+    static int roleMask(Collection<String> roles) {
+        int mask = 0;
+
+        for (String role : roles) {
+            int bit = ROLE_BITS.indexOf(role);
+
+            if (bit < 0) {
+                return -1;
+            }
+
+            mask |= 1 << bit;
+        }
+
+        return mask;
+    }
+
+    private static List<List<GrantedAuthority>> authoritiesByMask() {
+        List<List<GrantedAuthority>> authorities = new ArrayList<>();
+
+        for (int mask = 0; mask < 1 << ROLE_BITS.size(); mask++) {
+            List<GrantedAuthority> maskAuthorities = new ArrayList<>();
+
+            for (int bit = 0; bit < ROLE_BITS.size(); bit++) {
+                if ((mask & 1 << bit) != 0) {
+                    maskAuthorities.add(new SimpleGrantedAuthority(ROLE_BITS.get(bit)));
+                }
+            }
+
+            authorities.add(List.copyOf(maskAuthorities));
+        }
+
+        return List.copyOf(authorities);
+    }
+
+    public List<Map<String, Object>> getPublicJwks() {
+        return keyRing.publicJwks();
+    }
+
+    private static JwtKeyRing keyRing(String algorithm, String keysFile, String activeKid) {
+        if (keysFile == null || keysFile.isBlank()) {
+            //Без файла ключей токены действуют только до перезапуска этого узла
+            log.warn("jwt.keys.file is not set, tokens are signed with a random key and will not survive a restart");
+            return JwtKeyRing.generate(algorithm);
+        }
+
+        return JwtKeyRing.load(algorithm, keysFile, activeKid);
     }
 }
@@ -0,0 +1,28 @@
+package ru.vozov.taskmanagamentsystem.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import ru.vozov.taskmanagamentsystem.event.ChangeEvent;
+import ru.vozov.taskmanagamentsystem.event.OutboxConsumer;
+
+//Публикует события outbox в отдельный логгер outbox.events, откуда их забирает сборщик логов.
+//Отключается, когда события доставляет другой получатель, например брокер
+@Slf4j(topic = "outbox.events")
+@Service
+@ConditionalOnProperty(value = "outbox.log-consumer.enabled", havingValue = "true", matchIfMissing = true)
+public class LoggingOutboxConsumer implements OutboxConsumer {
+    @Override
+    public void accept(ChangeEvent event) {
+        log.info(
+                "type={} taskId={} commentId={} authorId={} executorId={} status={} dateTime={}",
+                event.type(),
+                event.taskId(),
+                event.commentId(),
+                event.authorId(),
+                event.executorId(),
+                event.status(),
+                event.dateTime()
+        );
+    }
+}
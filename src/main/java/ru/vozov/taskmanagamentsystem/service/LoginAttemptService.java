@@ -0,0 +1,158 @@
+package ru.vozov.taskmanagamentsystem.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.vozov.taskmanagamentsystem.exception.SignInLockedException;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+//Неудачные входы считаются отдельно по email и по адресу клиента в окне window. После max-failures ключ блокируется
+//на base-lockout, и каждая следующая неудача удваивает блокировку до max-lockout. Проверка идет до BCrypt,
+//поэтому перебор паролей по заблокированному ключу не нагружает процессор. Число ключей ограничено maximum-keys
+@Service
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class LoginAttemptService {
+    static String EMAIL_PREFIX = "email:";
+    static String IP_PREFIX = "ip:";
+
+    Cache<String, Attempts> attempts;
+    LongSupplier clock;
+    boolean enabled;
+    int emailMaxFailures;
+    int ipMaxFailures;
+    long window;
+    long baseLockout;
+    long maxLockout;
+
+    @Autowired
+    public LoginAttemptService(
+            MeterRegistry meterRegistry,
+            @Value("${login-attempts.enabled:true}") boolean enabled,
+            @Value("${login-attempts.email.max-failures:5}") int emailMaxFailures,
+            @Value("${login-attempts.ip.max-failures:20}") int ipMaxFailures,
+            @Value("${login-attempts.window:15m}") Duration window,
+            @Value("${login-attempts.base-lockout:1s}") Duration baseLockout,
+            @Value("${login-attempts.max-lockout:15m}") Duration maxLockout,
+            @Value("${login-attempts.maximum-keys:1000000}") long maximumKeys
+    ) {
+        this(enabled, emailMaxFailures, ipMaxFailures, window, baseLockout, maxLockout, maximumKeys, System::nanoTime);
+        CaffeineCacheMetrics.monitor(meterRegistry, attempts, "login-attempts");
+    }
+
+    LoginAttemptService(
+            boolean enabled,
+            int emailMaxFailures,
+            int ipMaxFailures,
+            Duration window,
+            Duration baseLockout,
+            Duration maxLockout,
+            long maximumKeys,
+            LongSupplier clock
+    ) {
+        this.enabled = enabled;
+        this.emailMaxFailures = emailMaxFailures;
+        this.ipMaxFailures = ipMaxFailures;
+        this.window = window.toNanos();
+        this.baseLockout = baseLockout.toNanos();
+        this.maxLockout = maxLockout.toNanos();
+        this.clock = clock;
+        //Запись живет до конца окна или блокировки, поэтому память занимают только активные ключи
+        this.attempts = Caffeine.newBuilder()
+                .maximumSize(maximumKeys)
+                .ticker(clock::getAsLong)
+                .expireAfter(new Expiry<String, Attempts>() {
+                    @Override
+                    public long expireAfterCreate(String key, Attempts value, long currentTime) {
+                        return Math.max(1, value.expiresAt(LoginAttemptService.this.window) - currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Attempts value, long currentTime, long currentDuration) {
+                        return Math.max(1, value.expiresAt(LoginAttemptService.this.window) - currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Attempts value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    public void checkAllowed(String email, String ip) {
+        if (!enabled) {
+            return;
+        }
+
+        long now = clock.getAsLong();
+        long wait = Math.max(lockedFor(emailKey(email), now), lockedFor(IP_PREFIX + ip, now));
+
+        if (wait > 0) {
+            long retryAfter = Math.max(1, (wait + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+            throw new SignInLockedException(String.format("Too many failed sign-in attempts, retry after %d seconds", retryAfter), retryAfter);
+        }
+    }
+
+    public void onFailure(String email, String ip) {
+        if (!enabled) {
+            return;
+        }
+
+        long now = clock.getAsLong();
+        attempts.asMap().compute(emailKey(email), (key, current) -> fail(current, now, emailMaxFailures));
+        attempts.asMap().compute(IP_PREFIX + ip, (key, current) -> fail(current, now, ipMaxFailures));
+    }
+
+    //Успешный вход сбрасывает счетчик email, но не адреса: с одного адреса могут перебирать чужие учетные записи
+    public void onSuccess(String email) {
+        if (enabled) {
+            attempts.invalidate(emailKey(email));
+        }
+    }
+
+    private long lockedFor(String key, long now) {
+        Attempts current = attempts.getIfPresent(key);
+        return current == null ? 0 : current.lockedUntil() - now;
+    }
+
+    private Attempts fail(Attempts current, long now, int maxFailures) {
+        //Окно начинается заново, только если оно истекло и ключ не заблокирован
+        if (current == null || (now - current.windowStart() > window && now >= current.lockedUntil())) {
+            current = new Attempts(0, now, now);
+        }
+
+        int failures = current.failures() + 1;
+        long lockedUntil = current.lockedUntil();
+
+        if (failures >= maxFailures) {
+            int exponent = failures - maxFailures;
+            //Сдвиг без переполнения, дальше блокировка все равно упирается в max-lockout
+            long lockout = exponent < Long.numberOfLeadingZeros(baseLockout) - 1 ? baseLockout << exponent : maxLockout;
+            lockedUntil = now + Math.min(maxLockout, lockout);
+        }
+
+        return new Attempts(failures, current.windowStart(), lockedUntil);
+    }
+
+    private static String emailKey(String email) {
+        return EMAIL_PREFIX + email.toLowerCase(Locale.ROOT);
+    }
+
+    private record Attempts(int failures, long windowStart, long lockedUntil) {
+        long expiresAt(long window) {
+            return Math.max(windowStart + window, lockedUntil);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package ru.vozov.taskmanagamentsystem.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.vozov.taskmanagamentsystem.event.ChangeEvent;
+import ru.vozov.taskmanagamentsystem.event.OutboxConsumer;
+import ru.vozov.taskmanagamentsystem.model.OutboxEvent;
+import ru.vozov.taskmanagamentsystem.repository.OutboxEventRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Slf4j
+@Service
+@ConditionalOnProperty(value = "outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class OutboxRelay {
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    OutboxEventRepository outboxEventRepository;
+    ObjectMapper objectMapper;
+    List<OutboxConsumer> consumers;
+    TransactionTemplate transactionTemplate;
+    int batchSize;
+    Duration lease;
+    Duration retryDelay;
+    Duration retention;
+
+    @Autowired
+    public OutboxRelay(
+            OutboxEventRepository outboxEventRepository,
+            ObjectMapper objectMapper,
+            List<OutboxConsumer> consumers,
+            PlatformTransactionManager transactionManager,
+            @Value("${outbox.relay.batch-size:100}") int batchSize,
+            @Value("${outbox.relay.lease:1m}") Duration lease,
+            @Value("${outbox.relay.retry-delay:30s}") Duration retryDelay,
+            @Value("${outbox.relay.retention:7d}") Duration retention
+    ) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+        this.consumers = consumers;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.lease = lease;
+        this.retryDelay = retryDelay;
+        this.retention = retention;
+
+        if (consumers.isEmpty()) {
+            log.warn("No outbox consumers configured, outbox events are kept undelivered");
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.poll-interval-ms:1000}")
+    public void relay() {
+        //Без получателей события не захватываются: иначе они были бы отмечены обработанными, никуда не попав
+        if (consumers.isEmpty()) {
+            return;
+        }
+
+        int claimed;
+
+        //Пока пачки приходят полными, в outbox остались необработанные события
+        do {
+            claimed = relayBatch();
+        } while (claimed == batchSize);
+    }
+
+    int relayBatch() {
+        UUID token = UUID.randomUUID();
+        LocalDateTime now = LocalDateTime.now();
+
+        Integer claimed = transactionTemplate.execute(
+                status -> outboxEventRepository.claimBatch(token, now, now.plus(lease), batchSize)
+        );
+
+        if (claimed == null || claimed == 0) {
+            return 0;
+        }
+
+        for (OutboxEvent outboxEvent : outboxEventRepository.findByClaimTokenOrderByCreatedAt(token)) {
+            deliver(outboxEvent, token);
+        }
+
+        return claimed;
+    }
+
+    private void deliver(OutboxEvent outboxEvent, UUID token) {
+        try {
+            ChangeEvent event = objectMapper.readValue(outboxEvent.getPayload(), ChangeEvent.class);
+            consumers.forEach(consumer -> consumer.accept(event));
+
+            transactionTemplate.executeWithoutResult(
+                    status -> outboxEventRepository.markProcessed(outboxEvent.getId(), token, LocalDateTime.now())
+            );
+        }
+        catch (Exception e) {
+            log.warn("Outbox event {} delivery failed, attempt {}", outboxEvent.getId(), outboxEvent.getAttempts(), e);
+
+            String error = String.valueOf(e.getMessage());
+            transactionTemplate.executeWithoutResult(
+                    status -> outboxEventRepository.markFailed(
+                            outboxEvent.getId(),
+                            token,
+                            LocalDateTime.now().plus(retryDelay),
+                            error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error
+                    )
+            );
+        }
+    }
+
+    @Scheduled(cron = "${outbox.relay.purge-cron:0 0 * * * *}")
+    public void purge() {
+        transactionTemplate.executeWithoutResult(
+                status -> outboxEventRepository.deleteProcessedBefore(LocalDateTime.now().minus(retention))
+        );
+    }
+}
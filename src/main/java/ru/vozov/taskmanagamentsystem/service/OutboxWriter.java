@@ -0,0 +1,78 @@
+package ru.vozov.taskmanagamentsystem.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import ru.vozov.taskmanagamentsystem.event.ChangeEvent;
+import ru.vozov.taskmanagamentsystem.event.ChangeEventBatch;
+import ru.vozov.taskmanagamentsystem.model.OutboxEvent;
+import ru.vozov.taskmanagamentsystem.repository.OutboxEventRepository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Service
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class OutboxWriter {
+    static String INSERT_EVENT = "insert into outbox_event (id, event_type, aggregate_id, payload, created_at) values (?, ?, ?, ?, ?)";
+
+    OutboxEventRepository outboxEventRepository;
+    JdbcTemplate jdbcTemplate;
+    ObjectMapper objectMapper;
+
+    @Autowired
+    public OutboxWriter(OutboxEventRepository outboxEventRepository, JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    //Синхронный слушатель выполняется в транзакции изменения, поэтому событие фиксируется вместе с ним
+    @EventListener
+    public void write(ChangeEvent event) {
+        OutboxEvent outboxEvent = OutboxEvent.builder()
+                .eventType(event.type())
+                .aggregateId(aggregateIdOf(event))
+                .payload(toJson(event))
+                .createdAt(event.dateTime())
+                .build();
+
+        outboxEventRepository.save(outboxEvent);
+    }
+
+    //Массовые операции пишут все события одним пакетом JDBC вместо вставки через JPA на каждое событие
+    @EventListener
+    public void writeAll(ChangeEventBatch batch) {
+        List<Object[]> rows = batch.events().stream()
+                .map(event -> new Object[] {
+                        UUID.randomUUID(),
+                        event.type().name(),
+                        aggregateIdOf(event),
+                        toJson(event),
+                        event.dateTime()
+                })
+                .toList();
+
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_EVENT, rows);
+        }
+    }
+
+    private UUID aggregateIdOf(ChangeEvent event) {
+        return event.commentId() == null ? event.taskId() : event.commentId();
+    }
+
+    private String toJson(ChangeEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        }
+        catch (JsonProcessingException e) {
+            throw new IllegalStateException("Change event can not be serialized", e);
+        }
+    }
+}
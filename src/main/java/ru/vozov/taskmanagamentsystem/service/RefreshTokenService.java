@@ -0,0 +1,142 @@
+package ru.vozov.taskmanagamentsystem.service;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.vozov.taskmanagamentsystem.dto.JwtDto;
+import ru.vozov.taskmanagamentsystem.exception.InvalidRefreshTokenException;
+import ru.vozov.taskmanagamentsystem.model.RefreshToken;
+import ru.vozov.taskmanagamentsystem.model.Role;
+import ru.vozov.taskmanagamentsystem.model.User;
+import ru.vozov.taskmanagamentsystem.repository.RefreshTokenRepository;
+import ru.vozov.taskmanagamentsystem.repository.UserRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+
+//Обмен refresh-токена на новую пару не проверяет пароль и не строит UserDetails: достаточно одного запроса
+//пользователя с ролями. Каждый токен обменивается один раз, повтор означает утечку и отзывает все семейство
+@Slf4j
+@Service
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class RefreshTokenService {
+    static int TOKEN_BYTES = 32;
+    static SecureRandom RANDOM = new SecureRandom();
+
+    RefreshTokenRepository refreshTokenRepository;
+    UserRepository userRepository;
+    JwtService jwtService;
+    Duration refreshTokenTtl;
+
+    @Autowired
+    public RefreshTokenService(
+            RefreshTokenRepository refreshTokenRepository,
+            UserRepository userRepository,
+            JwtService jwtService,
+            @Value("${jwt.refresh-token-ttl:30d}") Duration refreshTokenTtl
+    ) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.jwtService = jwtService;
+        this.refreshTokenTtl = refreshTokenTtl;
+    }
+
+    @Transactional
+    public String issue(UUID userId) {
+        return create(userId, UUID.randomUUID(), LocalDateTime.now());
+    }
+
+    //Отзыв семейства должен сохраниться, хотя клиент получает ошибку
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public JwtDto refresh(String token) {
+        LocalDateTime now = LocalDateTime.now();
+        RefreshToken refreshToken = refreshTokenRepository.findByTokenHash(hash(token))
+                .orElseThrow(() -> new InvalidRefreshTokenException("Refresh token is invalid"));
+
+        if (refreshToken.getUsedAt() != null || refreshToken.getRevokedAt() != null) {
+            int revoked = refreshTokenRepository.revokeFamily(refreshToken.getFamilyId(), now);
+
+            if (refreshToken.getUsedAt() != null) {
+                log.warn("Reuse of refresh token {} detected, revoked {} tokens of its family", refreshToken.getId(), revoked);
+            }
+
+            throw new InvalidRefreshTokenException("Refresh token is revoked");
+        }
+
+        if (refreshToken.getExpiresAt().isBefore(now)) {
+            throw new InvalidRefreshTokenException("Refresh token is expired");
+        }
+
+        User user = userRepository.findAllWithRolesByIdIn(List.of(refreshToken.getUserId())).stream()
+                .findFirst()
+                .orElseThrow(() -> new InvalidRefreshTokenException("Refresh token is invalid"));
+
+        refreshToken.setUsedAt(now);
+        String next = create(user.getId(), refreshToken.getFamilyId(), now);
+        String accessToken = jwtService.generateToken(user.getId(), user.getEmail(), user.getRoles().stream().map(Role::getName).toList());
+        return new JwtDto(accessToken, next);
+    }
+
+    //Чужой или неизвестный токен молча игнорируется, чтобы выход не раскрывал, существует ли токен
+    @Transactional
+    public void revoke(String token, UUID userId) {
+        refreshTokenRepository.findByTokenHash(hash(token))
+                .filter(refreshToken -> refreshToken.getUserId().equals(userId))
+                .ifPresent(refreshToken -> refreshTokenRepository.revokeFamily(refreshToken.getFamilyId(), LocalDateTime.now()));
+    }
+
+    @Transactional
+    public void revokeAll(UUID userId) {
+        refreshTokenRepository.revokeByUserId(userId, LocalDateTime.now());
+    }
+
+    @Scheduled(cron = "${jwt.refresh-token-purge-cron:0 15 3 * * *}")
+    @Transactional
+    public void purgeExpired() {
+        int purged = refreshTokenRepository.deleteByExpiresAtBefore(LocalDateTime.now());
+
+        if (purged > 0) {
+            log.info("Purged {} expired refresh tokens", purged);
+        }
+    }
+
+    private String create(UUID userId, UUID familyId, LocalDateTime now) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        RANDOM.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        refreshTokenRepository.save(RefreshToken.builder()
+                .id(UUID.randomUUID())
+                .tokenHash(hash(token))
+                .familyId(familyId)
+                .userId(userId)
+                .createdAt(now)
+                .expiresAt(now.plus(refreshTokenTtl))
+                .build());
+        return token;
+    }
+
+    //Токен случайный и длинный, поэтому хватает быстрого хеша без соли
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
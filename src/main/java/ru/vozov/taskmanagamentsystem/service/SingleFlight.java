@@ -0,0 +1,72 @@
+package ru.vozov.taskmanagamentsystem.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+//Одновременные одинаковые чтения выполняются один раз: вызовы с тем же методом и аргументами, пришедшие,
+//пока первый еще выполняется, получают его результат или исключение. Кэшем это не является - после завершения ключ удаляется
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class SingleFlight {
+    static String CALLS_METRIC = "single.flight.calls";
+
+    Map<Key, CompletableFuture<Object>> calls = new ConcurrentHashMap<>();
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    public SingleFlight(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String method, Object arguments, Supplier<T> loader) {
+        Key key = new Key(method, arguments);
+        CompletableFuture<Object> call = new CompletableFuture<>();
+        CompletableFuture<Object> current = calls.putIfAbsent(key, call);
+
+        if (current != null) {
+            meterRegistry.counter(CALLS_METRIC, "method", method, "result", "collapsed").increment();
+            return (T) await(current);
+        }
+
+        meterRegistry.counter(CALLS_METRIC, "method", method, "result", "executed").increment();
+
+        try {
+            T result = loader.get();
+            call.complete(result);
+            return result;
+        }
+        catch (RuntimeException e) {
+            call.completeExceptionally(e);
+            throw e;
+        }
+        finally {
+            calls.remove(key, call);
+        }
+    }
+
+    private Object await(CompletableFuture<Object> call) {
+        try {
+            return call.join();
+        }
+        catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+
+            throw e;
+        }
+    }
+
+    private record Key(String method, Object arguments) {
+    }
+}
@@ -0,0 +1,123 @@
+package ru.vozov.taskmanagamentsystem.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.vozov.taskmanagamentsystem.model.ArchivedComment;
+import ru.vozov.taskmanagamentsystem.model.ArchivedTask;
+import ru.vozov.taskmanagamentsystem.model.Comment;
+import ru.vozov.taskmanagamentsystem.model.Task;
+import ru.vozov.taskmanagamentsystem.repository.ArchivedTaskRepository;
+import ru.vozov.taskmanagamentsystem.repository.TaskRepository;
+import ru.vozov.taskmanagamentsystem.repository.specification.TaskSpecification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+@Service
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class TaskArchiveService {
+    TaskRepository taskRepository;
+    ArchivedTaskRepository archivedTaskRepository;
+    EntityManager entityManager;
+
+    @Autowired
+    public TaskArchiveService(TaskRepository taskRepository, ArchivedTaskRepository archivedTaskRepository, EntityManager entityManager) {
+        this.taskRepository = taskRepository;
+        this.archivedTaskRepository = archivedTaskRepository;
+        this.entityManager = entityManager;
+    }
+
+    //Архивные задачи идут после активных: сортировка применяется внутри каждой части,
+    //поэтому страница читает только нужный отрезок каждой таблицы
+    @Transactional(readOnly = true)
+    public Page<Task> findTasksByFilter(
+            String title,
+            String description,
+            String priority,
+            String status,
+            UUID authorId,
+            UUID executorId,
+            PageRequest pageRequest
+    ) {
+        Specification<Task> specification = TaskSpecification.filter(title, description, priority, status, authorId, executorId);
+        Specification<ArchivedTask> archiveSpecification = TaskSpecification.filter(title, description, priority, status, authorId, executorId);
+
+        Page<Task> tasks = taskRepository.findAll(specification, pageRequest);
+        long archivedTotal = archivedTaskRepository.count(archiveSpecification);
+        List<Task> content = new ArrayList<>(tasks.getContent());
+        int remaining = pageRequest.getPageSize() - content.size();
+        long archiveOffset = Math.max(0, pageRequest.getOffset() - tasks.getTotalElements());
+
+        if (remaining > 0 && archiveOffset < archivedTotal) {
+            findArchived(archiveSpecification, pageRequest.getSort(), archiveOffset, remaining)
+                    .forEach(archivedTask -> content.add(restore(archivedTask)));
+        }
+
+        return new PageImpl<>(content, pageRequest, tasks.getTotalElements() + archivedTotal);
+    }
+
+    private List<ArchivedTask> findArchived(Specification<ArchivedTask> specification, Sort sort, long offset, int limit) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ArchivedTask> query = criteriaBuilder.createQuery(ArchivedTask.class);
+        Root<ArchivedTask> root = query.from(ArchivedTask.class);
+        Predicate predicate = specification.toPredicate(root, query, criteriaBuilder);
+
+        if (predicate != null) {
+            query.where(predicate);
+        }
+
+        query.orderBy(QueryUtils.toOrders(sort, root, criteriaBuilder));
+
+        return entityManager.createQuery(query)
+                .setFirstResult(Math.toIntExact(offset))
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    //Архивная задача отдается клиенту в том же виде, что и активная
+    private Task restore(ArchivedTask archivedTask) {
+        Task task = Task.builder()
+                .id(archivedTask.getId())
+                .title(archivedTask.getTitle())
+                .description(archivedTask.getDescription())
+                .priority(archivedTask.getPriority())
+                .status(archivedTask.getStatus())
+                .author(archivedTask.getAuthor())
+                .executor(archivedTask.getExecutor())
+                .version(archivedTask.getVersion())
+                .createdAt(archivedTask.getCreatedAt())
+                .updatedAt(archivedTask.getUpdatedAt())
+                .build();
+
+        List<Comment> comments = new ArrayList<>();
+
+        for (ArchivedComment archivedComment : archivedTask.getComments()) {
+            comments.add(Comment.builder()
+                    .id(archivedComment.getId())
+                    .text(archivedComment.getText())
+                    .createdAt(archivedComment.getCreatedAt())
+                    .task(task)
+                    .commentator(archivedComment.getCommentator())
+                    .version(archivedComment.getVersion())
+                    .build());
+        }
+
+        task.setComments(comments);
+        return task;
+    }
+}
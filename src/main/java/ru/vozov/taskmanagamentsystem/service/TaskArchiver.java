@@ -0,0 +1,132 @@
+package ru.vozov.taskmanagamentsystem.service;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.vozov.taskmanagamentsystem.event.ChangeEvent;
+import ru.vozov.taskmanagamentsystem.event.ChangeEventBatch;
+import ru.vozov.taskmanagamentsystem.model.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+//Переносит завершенные задачи, не менявшиеся дольше done-after, вместе с комментариями в task_archive и comment_archive.
+//Каждая пачка - отдельная короткая транзакция, блокирующая только свои строки. Для горячего набора перенос в архив -
+//то же, что удаление: событие TASK_ARCHIVED оставляет надгробие для синхронизации и попадает в outbox и ленту изменений
+@Slf4j
+@Service
+@ConditionalOnProperty(value = "task-archive.enabled", havingValue = "true", matchIfMissing = true)
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class TaskArchiver {
+    static String SELECT_BATCH = "select id, author_id, executor_id from task where status = 'DONE' and updated_at < ? order by updated_at, id limit ? for update";
+    static String ARCHIVE_TASKS = """
+            insert into task_archive (id, title, description, priority, status, author_id, executor_id, version, created_at, updated_at, archived_at)
+            select id, title, description, priority, status, author_id, executor_id, version, created_at, updated_at, ?
+                from task
+                where id in (%s)
+            """;
+    static String ARCHIVE_COMMENTS = """
+            insert into comment_archive (id, text, created_at, task_id, commentator_id, version)
+            select id, text, created_at, task_id, commentator_id, version
+                from comment
+                where task_id in (%s)
+            """;
+    static String DELETE_COMMENTS = "delete from comment where task_id in (%s)";
+    static String DELETE_TASKS = "delete from task where id in (%s)";
+
+    JdbcTemplate jdbcTemplate;
+    TransactionTemplate transactionTemplate;
+    ApplicationEventPublisher eventPublisher;
+    Duration doneAfter;
+    int batchSize;
+    int maxBatches;
+
+    @Autowired
+    public TaskArchiver(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${task-archive.done-after:90d}") Duration doneAfter,
+            @Value("${task-archive.batch-size:200}") int batchSize,
+            @Value("${task-archive.max-batches:50}") int maxBatches
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.doneAfter = doneAfter;
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+    }
+
+    @Scheduled(fixedDelayString = "${task-archive.interval-ms:600000}")
+    public void archive() {
+        int archived = 0;
+
+        for (int batch = 0; batch < maxBatches; batch++) {
+            int count = archiveBatch();
+            archived += count;
+
+            if (count < batchSize) {
+                break;
+            }
+        }
+
+        if (archived > 0) {
+            log.info("Archived {} done tasks", archived);
+        }
+    }
+
+    int archiveBatch() {
+        return Objects.requireNonNull(transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<ChangeEvent> events = jdbcTemplate.query(
+                    SELECT_BATCH,
+                    (rs, rowNum) -> new ChangeEvent(
+                            ChangeEvent.Type.TASK_ARCHIVED,
+                            rs.getObject("id", UUID.class),
+                            null,
+                            rs.getObject("author_id", UUID.class),
+                            rs.getObject("executor_id", UUID.class),
+                            Task.Status.DONE,
+                            now
+                    ),
+                    now.minus(doneAfter),
+                    batchSize
+            );
+
+            if (events.isEmpty()) {
+                return 0;
+            }
+
+            List<UUID> ids = events.stream().map(ChangeEvent::taskId).toList();
+
+            String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+            List<Object> archiveArgs = new ArrayList<>();
+            archiveArgs.add(now);
+            archiveArgs.addAll(ids);
+            Object[] idArgs = ids.toArray();
+
+            //Копии пишутся раньше удаления, а комментарии удаляются явно, чтобы не зависеть от каскада
+            jdbcTemplate.update(String.format(ARCHIVE_TASKS, placeholders), archiveArgs.toArray());
+            jdbcTemplate.update(String.format(ARCHIVE_COMMENTS, placeholders), idArgs);
+            jdbcTemplate.update(String.format(DELETE_COMMENTS, placeholders), idArgs);
+            jdbcTemplate.update(String.format(DELETE_TASKS, placeholders), idArgs);
+            eventPublisher.publishEvent(new ChangeEventBatch(events));
+            return ids.size();
+        }));
+    }
+}
@@ -0,0 +1,109 @@
+package ru.vozov.taskmanagamentsystem.service;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+//Сворачивает накопленные дельты в итоговые счетчики, чтобы чтение статистики не зависело от числа изменений задач
+@Slf4j
+@Service
+@ConditionalOnProperty(value = "task-counter.compaction.enabled", havingValue = "true", matchIfMissing = true)
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class TaskCounterCompactor {
+    static String SELECT_MAX_ID = "select max(id) from task_counter_delta";
+    static String SELECT_DELTAS = """
+            select author_id, executor_id, status, priority, sum(delta) as delta, count(*) as row_count
+                from task_counter_delta
+                where id <= ?
+                group by author_id, executor_id, status, priority
+            """;
+    static String DELETE_DELTAS = "delete from task_counter_delta where id <= ?";
+    static String UPDATE_COUNTER = """
+            update task_counter
+                set task_count = task_count + ?
+                where author_id is not distinct from ?
+                    and executor_id is not distinct from ?
+                    and status = ?
+                    and priority = ?
+            """;
+    static String INSERT_COUNTER = "insert into task_counter (author_id, executor_id, status, priority, task_count) values (?, ?, ?, ?, ?)";
+    static String DELETE_EMPTY_COUNTERS = "delete from task_counter where task_count = 0";
+
+    JdbcTemplate jdbcTemplate;
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public TaskCounterCompactor(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(fixedDelayString = "${task-counter.compaction.interval-ms:60000}")
+    public void compact() {
+        int compacted = compactDeltas();
+
+        if (compacted > 0) {
+            log.debug("Compacted {} task counter deltas", compacted);
+        }
+    }
+
+    //Удаление дельт должно затронуть ровно просуммированные строки. Иначе их уже свернул другой узел
+    //или закоммитилась транзакция с меньшим id - тогда откатываемся и пробуем в следующий раз
+    int compactDeltas() {
+        return Objects.requireNonNull(transactionTemplate.execute(status -> {
+            Long maxId = jdbcTemplate.queryForObject(SELECT_MAX_ID, Long.class);
+
+            if (maxId == null) {
+                return 0;
+            }
+
+            List<Delta> deltas = jdbcTemplate.query(SELECT_DELTAS, (resultSet, rowNum) -> new Delta(
+                    resultSet.getObject("author_id", UUID.class),
+                    resultSet.getObject("executor_id", UUID.class),
+                    resultSet.getString("status"),
+                    resultSet.getString("priority"),
+                    resultSet.getLong("delta"),
+                    resultSet.getLong("row_count")
+            ), maxId);
+            long rows = deltas.stream().mapToLong(Delta::rows).sum();
+
+            if (jdbcTemplate.update(DELETE_DELTAS, maxId) != rows) {
+                status.setRollbackOnly();
+                return 0;
+            }
+
+            for (Delta delta : deltas) {
+                if (delta.delta() == 0) {
+                    continue;
+                }
+
+                int updated = jdbcTemplate.update(
+                        UPDATE_COUNTER, delta.delta(), delta.authorId(), delta.executorId(), delta.status(), delta.priority()
+                );
+
+                if (updated == 0) {
+                    jdbcTemplate.update(
+                            INSERT_COUNTER, delta.authorId(), delta.executorId(), delta.status(), delta.priority(), delta.delta()
+                    );
+                }
+            }
+
+            jdbcTemplate.update(DELETE_EMPTY_COUNTERS);
+            return (int) rows;
+        }));
+    }
+
+    private record Delta(UUID authorId, UUID executorId, String status, String priority, long delta, long rows) {
+    }
+}
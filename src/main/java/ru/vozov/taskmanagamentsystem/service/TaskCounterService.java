@@ -0,0 +1,212 @@
+package ru.vozov.taskmanagamentsystem.service;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.vozov.taskmanagamentsystem.dto.TaskStatsDto;
+import ru.vozov.taskmanagamentsystem.model.Task;
+import ru.vozov.taskmanagamentsystem.model.User;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+//Счетчики задач по (автор, исполнитель, статус, приоритет). Запись только добавляет дельты в task_counter_delta,
+//поэтому параллельные транзакции не конкурируют за одну строку; дельты периодически сворачивает TaskCounterCompactor
+@Service
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class TaskCounterService {
+    static String INSERT_DELTA = "insert into task_counter_delta (author_id, executor_id, status, priority, delta) values (?, ?, ?, ?, ?)";
+    static String SELECT_COUNTS = """
+            select author_id, executor_id, status, priority, sum(task_count) as task_count
+                from (
+                    select author_id, executor_id, status, priority, task_count from task_counter
+                    union all
+                    select author_id, executor_id, status, priority, delta from task_counter_delta
+                ) counter
+            """;
+    static String GROUP_COUNTS = " group by author_id, executor_id, status, priority";
+    static String RELEASE_USER_TASKS = """
+            insert into task_counter_delta (author_id, executor_id, status, priority, delta)
+            select author_id, executor_id, status, priority, -count(*)
+                from (%1$s) t
+                where author_id = ? or executor_id = ?
+                group by author_id, executor_id, status, priority
+            union all
+            select case when author_id = ? then null else author_id end,
+                   case when executor_id = ? then null else executor_id end,
+                   status, priority, count(*)
+                from (%1$s) t
+                where author_id = ? or executor_id = ?
+                group by author_id, executor_id, status, priority
+            """.formatted("""
+            select author_id, executor_id, status, priority from task
+            union all
+            select author_id, executor_id, status, priority from task_archive
+            """);
+
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public TaskCounterService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Transactional
+    public void increment(Key key) {
+        add(key, 1);
+    }
+
+    @Transactional
+    public void decrement(Key key) {
+        add(key, -1);
+    }
+
+    @Transactional
+    public void move(Key from, Key to) {
+        if (from.equals(to)) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_DELTA, List.of(from.toArgs(-1), to.toArgs(1)));
+    }
+
+    @Transactional
+    public void incrementAll(Collection<Key> keys) {
+        List<Object[]> deltas = keys.stream()
+                .collect(Collectors.groupingBy(Function.identity(), LinkedHashMap::new, Collectors.counting()))
+                .entrySet()
+                .stream()
+                .map(entry -> entry.getKey().toArgs(entry.getValue()))
+                .toList();
+
+        if (!deltas.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_DELTA, deltas);
+        }
+    }
+
+    //При удалении пользователя внешние ключи задач обнуляются базой, поэтому его задачи, включая архивные,
+    //заранее переносятся на пустого автора/исполнителя
+    @Transactional
+    public void releaseUserTasks(UUID userId) {
+        jdbcTemplate.update(RELEASE_USER_TASKS, userId, userId, userId, userId, userId, userId);
+    }
+
+    @Transactional(readOnly = true)
+    public TaskStatsDto findStats(UUID authorId, UUID executorId) {
+        StringBuilder sql = new StringBuilder(SELECT_COUNTS);
+        List<Object> args = new ArrayList<>();
+
+        if (authorId != null || executorId != null) {
+            List<String> conditions = new ArrayList<>();
+
+            if (authorId != null) {
+                conditions.add("author_id = ?");
+                args.add(authorId);
+            }
+
+            if (executorId != null) {
+                conditions.add("executor_id = ?");
+                args.add(executorId);
+            }
+
+            sql.append(" where ").append(String.join(" and ", conditions));
+        }
+
+        sql.append(GROUP_COUNTS);
+
+        Accumulator accumulator = new Accumulator(authorId, executorId);
+        jdbcTemplate.query(sql.toString(), (RowCallbackHandler) accumulator::add, args.toArray());
+        return accumulator.toDto();
+    }
+
+    @Transactional(readOnly = true)
+    public List<TaskStatsDto> findStatsByExecutor() {
+        return findStatsGroupedBy(key -> new Accumulator(null, key.executorId()), Key::executorId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<TaskStatsDto> findStatsByAuthor() {
+        return findStatsGroupedBy(key -> new Accumulator(key.authorId(), null), Key::authorId);
+    }
+
+    private List<TaskStatsDto> findStatsGroupedBy(Function<Key, Accumulator> factory, Function<Key, UUID> dimension) {
+        //null - задачи без исполнителя (автора), они возвращаются отдельной группой
+        Map<Optional<UUID>, Accumulator> groups = new LinkedHashMap<>();
+
+        jdbcTemplate.query(SELECT_COUNTS + GROUP_COUNTS, (RowCallbackHandler) resultSet -> {
+            Key key = Key.of(resultSet);
+            groups.computeIfAbsent(Optional.ofNullable(dimension.apply(key)), ignored -> factory.apply(key)).add(resultSet);
+        });
+
+        return groups.values().stream()
+                .filter(accumulator -> accumulator.total > 0)
+                .map(Accumulator::toDto)
+                .toList();
+    }
+
+    private void add(Key key, long delta) {
+        jdbcTemplate.update(INSERT_DELTA, key.toArgs(delta));
+    }
+
+    public record Key(UUID authorId, UUID executorId, Task.Status status, Task.Priority priority) {
+        public static Key of(Task task) {
+            return new Key(idOf(task.getAuthor()), idOf(task.getExecutor()), task.getStatus(), task.getPriority());
+        }
+
+        static Key of(ResultSet resultSet) throws SQLException {
+            return new Key(
+                    resultSet.getObject("author_id", UUID.class),
+                    resultSet.getObject("executor_id", UUID.class),
+                    Task.Status.valueOf(resultSet.getString("status")),
+                    Task.Priority.valueOf(resultSet.getString("priority"))
+            );
+        }
+
+        Object[] toArgs(long delta) {
+            return new Object[] {authorId, executorId, status.name(), priority.name(), delta};
+        }
+
+        private static UUID idOf(User user) {
+            return user == null ? null : user.getId();
+        }
+    }
+
+    private static final class Accumulator {
+        final UUID authorId;
+        final UUID executorId;
+        final Map<Task.Status, Long> byStatus = new EnumMap<>(Task.Status.class);
+        final Map<Task.Priority, Long> byPriority = new EnumMap<>(Task.Priority.class);
+        long total;
+
+        Accumulator(UUID authorId, UUID executorId) {
+            this.authorId = authorId;
+            this.executorId = executorId;
+
+            for (Task.Status status : Task.Status.values()) {
+                byStatus.put(status, 0L);
+            }
+
+            for (Task.Priority priority : Task.Priority.values()) {
+                byPriority.put(priority, 0L);
+            }
+        }
+
+        void add(ResultSet resultSet) throws SQLException {
+            long count = resultSet.getLong("task_count");
+            byStatus.merge(Task.Status.valueOf(resultSet.getString("status")), count, Long::sum);
+            byPriority.merge(Task.Priority.valueOf(resultSet.getString("priority")), count, Long::sum);
+            total += count;
+        }
+
+        TaskStatsDto toDto() {
+            return new TaskStatsDto(authorId, executorId, total, byStatus, byPriority);
+        }
+    }
+}
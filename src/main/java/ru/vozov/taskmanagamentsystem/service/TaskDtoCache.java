@@ -0,0 +1,106 @@
+package ru.vozov.taskmanagamentsystem.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.vozov.taskmanagamentsystem.dto.TaskDto;
+import ru.vozov.taskmanagamentsystem.event.ChangeEvent;
+import ru.vozov.taskmanagamentsystem.event.ChangeEventBatch;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+@Service
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class TaskDtoCache {
+    //Примерные накладные расходы на запись кэша помимо сериализованного тела
+    private static final int ENTRY_OVERHEAD = 128;
+
+    Cache<UUID, Entry> cache;
+    ObjectMapper objectMapper;
+
+    @Autowired
+    public TaskDtoCache(
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${task-cache.maximum-weight-bytes:67108864}") long maximumWeight,
+            @Value("${task-cache.ttl:5m}") Duration ttl
+    ) {
+        this.objectMapper = objectMapper;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumWeight)
+                .weigher((UUID id, Entry entry) -> entry.payload().length + entry.eTag().length() + ENTRY_OVERHEAD)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "task-dto");
+        Gauge.builder("cache.weight", cache, c -> c.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L))
+                .tag("cache", "task-dto")
+                .baseUnit("bytes")
+                .description("Approximate memory footprint of cached task responses")
+                .register(meterRegistry);
+    }
+
+    //Запись используется, только если ее ETag совпадает с текущим, поэтому изменения с других узлов не отдаются устаревшими
+    public TaskDto get(UUID id, String eTag, Supplier<TaskDto> loader) {
+        Entry entry = cache.getIfPresent(id);
+
+        if (entry != null && entry.eTag().equals(eTag)) {
+            return deserialize(entry.payload());
+        }
+
+        TaskDto taskDto = loader.get();
+        cache.put(id, new Entry(eTag, serialize(taskDto)));
+        return taskDto;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void evict(ChangeEvent event) {
+        if (event.taskId() != null) {
+            cache.invalidate(event.taskId());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void evictAll(ChangeEventBatch batch) {
+        batch.events().forEach(this::evict);
+    }
+
+    long size() {
+        return cache.estimatedSize();
+    }
+
+    private byte[] serialize(TaskDto taskDto) {
+        try {
+            return objectMapper.writeValueAsBytes(taskDto);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private TaskDto deserialize(byte[] payload) {
+        try {
+            return objectMapper.readValue(payload, TaskDto.class);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record Entry(String eTag, byte[] payload) {
+    }
+}
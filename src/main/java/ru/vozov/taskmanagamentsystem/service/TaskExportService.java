@@ -0,0 +1,148 @@
+package ru.vozov.taskmanagamentsystem.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.*;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.vozov.taskmanagamentsystem.dto.TaskExportDto;
+import ru.vozov.taskmanagamentsystem.model.Task;
+import ru.vozov.taskmanagamentsystem.model.User;
+import ru.vozov.taskmanagamentsystem.repository.specification.TaskSpecification;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+@Service
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class TaskExportService {
+    static String CSV_HEADER = "id,title,description,priority,status,authorId,executorId,version";
+
+    EntityManager entityManager;
+    ObjectMapper objectMapper;
+    int fetchSize;
+
+    @Autowired
+    public TaskExportService(EntityManager entityManager, ObjectMapper objectMapper, @Value("${task-export.fetch-size:500}") int fetchSize) {
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+    }
+
+    //Строки читаются курсором и сразу пишутся в поток ответа, поэтому память не зависит от размера выгрузки
+    @Transactional(readOnly = true)
+    public void export(
+            TaskFileFormat format,
+            String title,
+            String description,
+            String priority,
+            String status,
+            UUID authorId,
+            UUID executorId,
+            OutputStream outputStream
+    ) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+
+        if (format == TaskFileFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        try (Stream<Tuple> rows = query(TaskSpecification.filter(title, description, priority, status, authorId, executorId))) {
+            for (Tuple row : (Iterable<Tuple>) rows::iterator) {
+                TaskExportDto task = new TaskExportDto(
+                        row.get(0, UUID.class),
+                        row.get(1, String.class),
+                        row.get(2, String.class),
+                        row.get(3, Task.Priority.class),
+                        row.get(4, Task.Status.class),
+                        row.get(5, UUID.class),
+                        row.get(6, UUID.class),
+                        row.get(7, Long.class)
+                );
+
+                if (format == TaskFileFormat.CSV) {
+                    writeCsv(writer, task);
+                }
+                else {
+                    writer.write(objectMapper.writeValueAsString(task));
+                    writer.write('\n');
+                }
+            }
+        }
+
+        writer.flush();
+    }
+
+    private Stream<Tuple> query(Specification<Task> specification) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<Task> root = query.from(Task.class);
+        Join<Task, User> author = root.join("author", JoinType.LEFT);
+        Join<Task, User> executor = root.join("executor", JoinType.LEFT);
+
+        query.multiselect(
+                root.get("id"),
+                root.get("title"),
+                root.get("description"),
+                root.get("priority"),
+                root.get("status"),
+                author.get("id"),
+                executor.get("id"),
+                root.get("version")
+        );
+
+        Predicate predicate = specification.toPredicate(root, query, criteriaBuilder);
+
+        if (predicate != null) {
+            query.where(predicate);
+        }
+
+        query.orderBy(criteriaBuilder.asc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setHint(AvailableHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(AvailableHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    private void writeCsv(Writer writer, TaskExportDto task) throws IOException {
+        writer.write(String.valueOf(task.id()));
+        writer.write(',');
+        writer.write(csvField(task.title()));
+        writer.write(',');
+        writer.write(csvField(task.description()));
+        writer.write(',');
+        writer.write(String.valueOf(task.priority()));
+        writer.write(',');
+        writer.write(String.valueOf(task.status()));
+        writer.write(',');
+        writer.write(task.authorId() == null ? "" : task.authorId().toString());
+        writer.write(',');
+        writer.write(task.executorId() == null ? "" : task.executorId().toString());
+        writer.write(',');
+        writer.write(String.valueOf(task.version()));
+        writer.write('\n');
+    }
+
+    private String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
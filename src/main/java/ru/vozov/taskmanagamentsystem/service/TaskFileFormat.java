@@ -0,0 +1,35 @@
+package ru.vozov.taskmanagamentsystem.service;
+
+import org.springframework.http.MediaType;
+import ru.vozov.taskmanagamentsystem.exception.UnsupportedFileFormatException;
+
+public enum TaskFileFormat {
+    CSV("text/csv", "csv"),
+    NDJSON("application/x-ndjson", "ndjson");
+
+    final String contentType;
+    final String extension;
+
+    TaskFileFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public MediaType getMediaType() {
+        return MediaType.parseMediaType(contentType);
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public static TaskFileFormat of(String value) {
+        for (TaskFileFormat format : values()) {
+            if (format.extension.equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+
+        throw new UnsupportedFileFormatException(String.format("File format %s is not supported, use csv or ndjson", value));
+    }
+}
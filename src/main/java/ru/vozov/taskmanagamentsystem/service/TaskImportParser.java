@@ -0,0 +1,216 @@
+package ru.vozov.taskmanagamentsystem.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ru.vozov.taskmanagamentsystem.dto.TaskCreationDto;
+import ru.vozov.taskmanagamentsystem.exception.UnsupportedFileFormatException;
+import ru.vozov.taskmanagamentsystem.model.Task;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Последовательно читает строки файла импорта, не загружая файл в память целиком.
+ * Ошибка разбора отдельной строки не прерывает чтение, а возвращается вместе со строкой.
+ */
+class TaskImportParser implements Iterator<TaskImportParser.Row>, Closeable {
+    static List<String> CSV_COLUMNS = List.of("title", "description", "priority", "executorId");
+
+    private final TaskFileFormat format;
+    private final BufferedReader reader;
+    private final ObjectMapper objectMapper;
+    private final Map<String, Integer> columns = new HashMap<>();
+    private long number;
+    private Row next;
+
+    TaskImportParser(TaskFileFormat format, InputStream inputStream, ObjectMapper objectMapper) throws IOException {
+        this.format = format;
+        this.reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        this.objectMapper = objectMapper;
+
+        if (format == TaskFileFormat.CSV) {
+            readHeader();
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            try {
+                next = format == TaskFileFormat.CSV ? readCsvRow() : readJsonRow();
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        return next != null;
+    }
+
+    @Override
+    public Row next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        Row row = next;
+        next = null;
+        return row;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private void readHeader() throws IOException {
+        List<String> header = readCsvRecord();
+
+        if (header == null) {
+            throw new UnsupportedFileFormatException("Import file is empty");
+        }
+
+        for (int i = 0; i < header.size(); i++) {
+            //BOM в начале файла, сохраненного в Excel, не должен ломать имя первой колонки
+            columns.put(header.get(i).replace("\uFEFF", "").trim(), i);
+        }
+
+        if (!columns.containsKey("title") || !columns.containsKey("description") || !columns.containsKey("priority")) {
+            throw new UnsupportedFileFormatException(
+                    String.format("CSV header must contain columns %s", String.join(",", CSV_COLUMNS))
+            );
+        }
+    }
+
+    private Row readCsvRow() throws IOException {
+        List<String> record;
+
+        do {
+            record = readCsvRecord();
+        } while (record != null && record.size() == 1 && record.get(0).isBlank());
+
+        if (record == null) {
+            return null;
+        }
+
+        number++;
+
+        String title = field(record, "title");
+        String description = field(record, "description");
+        String priority = field(record, "priority");
+        String executorId = field(record, "executorId");
+
+        Task.Priority parsedPriority = null;
+
+        if (priority != null) {
+            try {
+                parsedPriority = Task.Priority.valueOf(priority.trim().toUpperCase());
+            }
+            catch (IllegalArgumentException e) {
+                return Row.rejected(number, "priority must be one of LOW, MEDIUM, HIGH");
+            }
+        }
+
+        UUID parsedExecutorId = null;
+
+        if (executorId != null) {
+            try {
+                parsedExecutorId = UUID.fromString(executorId.trim());
+            }
+            catch (IllegalArgumentException e) {
+                return Row.rejected(number, "executorId must be a valid UUID");
+            }
+        }
+
+        return new Row(number, new TaskCreationDto(title, description, parsedPriority, parsedExecutorId), null);
+    }
+
+    private Row readJsonRow() throws IOException {
+        String line;
+
+        do {
+            line = reader.readLine();
+        } while (line != null && line.isBlank());
+
+        if (line == null) {
+            return null;
+        }
+
+        number++;
+
+        try {
+            return new Row(number, objectMapper.readValue(line, TaskCreationDto.class), null);
+        }
+        catch (JsonProcessingException e) {
+            return Row.rejected(number, "Invalid JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private String field(List<String> record, String column) {
+        Integer index = columns.get(column);
+
+        if (index == null || index >= record.size() || record.get(index).isEmpty()) {
+            return null;
+        }
+
+        return record.get(index);
+    }
+
+    //Запись CSV по RFC 4180: поля в кавычках могут содержать запятые, кавычки и переводы строк
+    private List<String> readCsvRecord() throws IOException {
+        int c = reader.read();
+
+        if (c == -1) {
+            return null;
+        }
+
+        List<String> record = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        while (c != -1) {
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    int following = reader.read();
+
+                    if (following == '"') {
+                        field.append('"');
+                    }
+                    else {
+                        quoted = false;
+                        reader.reset();
+                    }
+                }
+                else {
+                    field.append((char) c);
+                }
+            }
+            else if (c == '"') {
+                quoted = true;
+            }
+            else if (c == ',') {
+                record.add(field.toString());
+                field.setLength(0);
+            }
+            else if (c == '\n') {
+                break;
+            }
+            else if (c != '\r') {
+                field.append((char) c);
+            }
+
+            c = reader.read();
+        }
+
+        record.add(field.toString());
+        return record;
+    }
+
+    record Row(long number, TaskCreationDto task, String error) {
+        static Row rejected(long number, String error) {
+            return new Row(number, null, error);
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package ru.vozov.taskmanagamentsystem.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.vozov.taskmanagamentsystem.dto.TaskCreationDto;
+import ru.vozov.taskmanagamentsystem.event.ChangeEvent;
+import ru.vozov.taskmanagamentsystem.event.ChangeEventBatch;
+import ru.vozov.taskmanagamentsystem.exception.ResourceNotFoundException;
+import ru.vozov.taskmanagamentsystem.exception.TaskImportStateException;
+import ru.vozov.taskmanagamentsystem.model.Task;
+import ru.vozov.taskmanagamentsystem.model.TaskImport;
+import ru.vozov.taskmanagamentsystem.model.TaskImportError;
+import ru.vozov.taskmanagamentsystem.model.User;
+import ru.vozov.taskmanagamentsystem.repository.TaskImportErrorRepository;
+import ru.vozov.taskmanagamentsystem.repository.TaskImportRepository;
+import ru.vozov.taskmanagamentsystem.repository.UserRepository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class TaskImportService {
+    static String INSERT_TASK = "insert into task (id, title, description, priority, status, author_id, executor_id, created_at, updated_at) values (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    static String INSERT_ERROR = "insert into task_import_error (id, import_id, record_number, message) values (?, ?, ?, ?)";
+    static int MAX_MESSAGE_LENGTH = 1000;
+
+    TaskImportRepository taskImportRepository;
+    TaskImportErrorRepository taskImportErrorRepository;
+    UserRepository userRepository;
+    AuthService authService;
+    JdbcTemplate jdbcTemplate;
+    Validator validator;
+    ObjectMapper objectMapper;
+    ApplicationEventPublisher eventPublisher;
+    TaskCounterService taskCounterService;
+    TransactionTemplate transactionTemplate;
+    int chunkSize;
+    Duration staleAfter;
+
+    @Autowired
+    public TaskImportService(
+            TaskImportRepository taskImportRepository,
+            TaskImportErrorRepository taskImportErrorRepository,
+            UserRepository userRepository,
+            AuthService authService,
+            JdbcTemplate jdbcTemplate,
+            Validator validator,
+            ObjectMapper objectMapper,
+            ApplicationEventPublisher eventPublisher,
+            TaskCounterService taskCounterService,
+            PlatformTransactionManager transactionManager,
+            @Value("${task-import.chunk-size:1000}") int chunkSize,
+            @Value("${task-import.stale-after:5m}") Duration staleAfter
+    ) {
+        this.taskImportRepository = taskImportRepository;
+        this.taskImportErrorRepository = taskImportErrorRepository;
+        this.userRepository = userRepository;
+        this.authService = authService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.taskCounterService = taskCounterService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.staleAfter = staleAfter;
+    }
+
+    @Transactional(readOnly = true)
+    public TaskImport findById(UUID id) {
+        return taskImportRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException(String.format("Task import with id %s not found", id)));
+    }
+
+    @Transactional(readOnly = true)
+    public List<TaskImportError> findRowErrors(UUID id) {
+        return taskImportErrorRepository.findTop100ByImportIdOrderByRecordNumber(id);
+    }
+
+    public TaskImport start(TaskFileFormat format, String fileName, InputStreamSource file) throws IOException {
+        User author = authService.getAuthenticatedUser();
+        Fingerprint fingerprint = fingerprint(file);
+        LocalDateTime now = LocalDateTime.now();
+
+        TaskImport taskImport = transactionTemplate.execute(status -> taskImportRepository.save(
+                TaskImport.builder()
+                        .fileName(fileName)
+                        .format(format.name())
+                        .status(TaskImport.Status.PENDING)
+                        .authorId(author.getId())
+                        .contentHash(fingerprint.hash())
+                        .contentSize(fingerprint.size())
+                        .createdAt(now)
+                        .updatedAt(now)
+                        .build()
+        ));
+
+        return run(Objects.requireNonNull(taskImport).getId(), file);
+    }
+
+    //Продолжение прерванного импорта: строки, зафиксированные в прошлых запусках, пропускаются.
+    //Пропуск по номеру строки верен только для того же файла, поэтому файл сверяется с исходным по размеру и хешу
+    public TaskImport resume(UUID id, InputStreamSource file) throws IOException {
+        TaskImport taskImport = findById(id);
+        Fingerprint fingerprint = fingerprint(file);
+
+        if (!Objects.equals(taskImport.getContentSize(), fingerprint.size()) || !fingerprint.hash().equals(taskImport.getContentHash())) {
+            throw new TaskImportStateException(String.format("File does not match the original file of task import with id %s", id));
+        }
+
+        return run(id, file);
+    }
+
+    private TaskImport run(UUID id, InputStreamSource file) {
+        LocalDateTime now = LocalDateTime.now();
+        UUID token = UUID.randomUUID();
+        Integer claimed = transactionTemplate.execute(status -> taskImportRepository.claim(
+                id,
+                token,
+                List.of(TaskImport.Status.PENDING, TaskImport.Status.FAILED),
+                TaskImport.Status.RUNNING,
+                now,
+                now.minus(staleAfter)
+        ));
+
+        if (claimed == null || claimed == 0) {
+            throw new TaskImportStateException(String.format("Task import with id %s is already running or completed", id));
+        }
+
+        TaskImport taskImport = findById(id);
+        long committedRows = taskImport.getProcessedRows();
+
+        try (
+                InputStream inputStream = file.getInputStream();
+                TaskImportParser parser = new TaskImportParser(TaskFileFormat.valueOf(taskImport.getFormat()), inputStream, objectMapper)
+        ) {
+            List<TaskImportParser.Row> chunk = new ArrayList<>(chunkSize);
+
+            while (parser.hasNext()) {
+                TaskImportParser.Row row = parser.next();
+
+                if (row.number() <= committedRows) {
+                    continue;
+                }
+
+                chunk.add(row);
+
+                if (chunk.size() == chunkSize) {
+                    commitChunk(taskImport, token, chunk);
+                    chunk.clear();
+                }
+            }
+
+            if (!chunk.isEmpty()) {
+                commitChunk(taskImport, token, chunk);
+            }
+
+            if (!finish(id, token, TaskImport.Status.COMPLETED, null)) {
+                throw reclaimed(id);
+            }
+        }
+        catch (TaskImportStateException e) {
+            //Импорт продолжает другой запуск: его прогресс и итоговый статус не трогаются
+            log.warn("Task import {} was reclaimed by another run, this run is aborted", id);
+            throw e;
+        }
+        catch (IOException | RuntimeException e) {
+            log.warn("Task import {} failed", id, e);
+
+            if (!finish(id, token, TaskImport.Status.FAILED, truncate(String.valueOf(e.getMessage())))) {
+                throw reclaimed(id);
+            }
+        }
+
+        return findById(id);
+    }
+
+    //Задачи, ошибки строк, счетчики задач и прогресса фиксируются одной транзакцией, поэтому прогресс всегда совпадает с данными
+    private void commitChunk(TaskImport taskImport, UUID token, List<TaskImportParser.Row> chunk) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<UUID, User> executors = findExecutors(chunk);
+            List<Object[]> tasks = new ArrayList<>();
+            List<Object[]> errors = new ArrayList<>();
+            List<ChangeEvent> events = new ArrayList<>();
+            List<TaskCounterService.Key> counterKeys = new ArrayList<>();
+            LocalDateTime now = LocalDateTime.now();
+
+            for (TaskImportParser.Row row : chunk) {
+                String error = validate(row, executors);
+
+                if (error != null) {
+                    errors.add(new Object[] {UUID.randomUUID(), taskImport.getId(), row.number(), truncate(error)});
+                    continue;
+                }
+
+                UUID taskId = UUID.randomUUID();
+                TaskCreationDto task = row.task();
+                tasks.add(new Object[] {
+                        taskId,
+                        task.title(),
+                        task.description(),
+                        task.priority().name(),
+                        Task.Status.TODO.name(),
+                        taskImport.getAuthorId(),
+                        task.executorId(),
+                        now,
+                        now
+                });
+                events.add(new ChangeEvent(
+                        ChangeEvent.Type.TASK_CREATED,
+                        taskId,
+                        null,
+                        taskImport.getAuthorId(),
+                        task.executorId(),
+                        Task.Status.TODO,
+                        now
+                ));
+                counterKeys.add(new TaskCounterService.Key(taskImport.getAuthorId(), task.executorId(), Task.Status.TODO, task.priority()));
+            }
+
+            if (!tasks.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_TASK, tasks);
+                taskCounterService.incrementAll(counterKeys);
+            }
+
+            if (!errors.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_ERROR, errors);
+            }
+
+            //Одно событие на пачку: outbox записывается одним пакетом JDBC, как и сами задачи
+            eventPublisher.publishEvent(new ChangeEventBatch(events));
+
+            //Исключение откатывает всю пачку, если импорт уже захвачен другим запуском после stale-after
+            if (taskImportRepository.addProgress(taskImport.getId(), token, chunk.size(), tasks.size(), errors.size(), now) == 0) {
+                throw reclaimed(taskImport.getId());
+            }
+        });
+    }
+
+    private Map<UUID, User> findExecutors(List<TaskImportParser.Row> chunk) {
+        Set<UUID> executorIds = chunk.stream()
+                .filter(row -> row.task() != null && row.task().executorId() != null)
+                .map(row -> row.task().executorId())
+                .collect(Collectors.toSet());
+
+        if (executorIds.isEmpty()) {
+            return Map.of();
+        }
+
+        return userRepository.findAllWithRolesByIdIn(executorIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+    }
+
+    private String validate(TaskImportParser.Row row, Map<UUID, User> executors) {
+        if (row.error() != null) {
+            return row.error();
+        }
+
+        Set<ConstraintViolation<TaskCreationDto>> violations = validator.validate(row.task());
+
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+
+        UUID executorId = row.task().executorId();
+
+        if (executorId == null) {
+            return null;
+        }
+
+        User executor = executors.get(executorId);
+
+        if (executor == null) {
+            return String.format("Executor with id %s not exists", executorId);
+        }
+
+        if (!executor.isUser()) {
+            return "Executor must has role USER";
+        }
+
+        return null;
+    }
+
+    private boolean finish(UUID id, UUID token, TaskImport.Status status, String error) {
+        Integer finished = transactionTemplate.execute(
+                transactionStatus -> taskImportRepository.finish(id, token, status, error, LocalDateTime.now())
+        );
+
+        return finished != null && finished > 0;
+    }
+
+    private TaskImportStateException reclaimed(UUID id) {
+        return new TaskImportStateException(String.format("Task import with id %s was resumed by another run", id));
+    }
+
+    private Fingerprint fingerprint(InputStreamSource file) throws IOException {
+        MessageDigest digest;
+
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        try (InputStream inputStream = new DigestInputStream(file.getInputStream(), digest)) {
+            long size = inputStream.transferTo(OutputStream.nullOutputStream());
+            return new Fingerprint(HexFormat.of().formatHex(digest.digest()), size);
+        }
+    }
+
+    private String truncate(String message) {
+        return message.length() > MAX_MESSAGE_LENGTH ? message.substring(0, MAX_MESSAGE_LENGTH) : message;
+    }
+
+    private record Fingerprint(String hash, long size) {
+    }
+}
@@ -3,13 +3,16 @@ package ru.vozov.taskmanagamentsystem.service;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.vozov.taskmanagamentsystem.dto.TaskCreationDto;
+import ru.vozov.taskmanagamentsystem.dto.TaskDto;
 import ru.vozov.taskmanagamentsystem.dto.TaskUpdateDto;
+import ru.vozov.taskmanagamentsystem.event.ChangeEvent;
 import ru.vozov.taskmanagamentsystem.exception.*;
 import ru.vozov.taskmanagamentsystem.model.Task;
 import ru.vozov.taskmanagamentsystem.model.User;
@@ -17,6 +20,7 @@ import ru.vozov.taskmanagamentsystem.repository.TaskRepository;
 import ru.vozov.taskmanagamentsystem.repository.specification.TaskSpecification;
 import ru.vozov.taskmanagamentsystem.repository.UserRepository;
 
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Service
@@ -25,12 +29,22 @@ public class TaskService {
     TaskRepository taskRepository;
     UserRepository userRepository;
     AuthService authService;
+    ApplicationEventPublisher eventPublisher;
+    TaskCounterService taskCounterService;
 
     @Autowired
-    public TaskService(TaskRepository taskRepository, UserRepository userRepository, AuthService authService) {
+    public TaskService(
+            TaskRepository taskRepository,
+            UserRepository userRepository,
+            AuthService authService,
+            ApplicationEventPublisher eventPublisher,
+            TaskCounterService taskCounterService
+    ) {
         this.taskRepository = taskRepository;
         this.userRepository = userRepository;
         this.authService = authService;
+        this.eventPublisher = eventPublisher;
+        this.taskCounterService = taskCounterService;
     }
 
     @Transactional(readOnly = true)
@@ -55,6 +69,7 @@ public class TaskService {
             }
         }
 
+        LocalDateTime now = LocalDateTime.now();
         Task task = Task.builder()
                 .title(taskCreationDto.title())
                 .description(taskCreationDto.description())
@@ -62,8 +77,14 @@ public class TaskService {
                 .status(Task.Status.TODO)
                 .author(author)
                 .executor(executor)
+                .createdAt(now)
+                .updatedAt(now)
                 .build();
-        return taskRepository.save(task);
+
+        Task savedTask = taskRepository.save(task);
+        taskCounterService.increment(TaskCounterService.Key.of(savedTask));
+        eventPublisher.publishEvent(ChangeEvent.of(ChangeEvent.Type.TASK_CREATED, savedTask));
+        return savedTask;
     }
 
     @Transactional
@@ -77,6 +98,15 @@ public class TaskService {
              throw new AccessDeniedException("Only admin and executor of task can update this task.");
          }
 
+         TaskCounterService.Key counterKey = TaskCounterService.Key.of(task);
+
+         if (taskUpdateDto.version() != null && !taskUpdateDto.version().equals(task.getVersion())) {
+             throw new VersionConflictException(
+                     String.format("Task with id %s was modified, current version is %d", id, task.getVersion()),
+                     TaskDto.convert(task)
+             );
+         }
+
          if (user.isAdmin()) {
              if (taskUpdateDto.title() == null && taskUpdateDto.description() == null && taskUpdateDto.priority() == null && taskUpdateDto.status() == null && taskUpdateDto.executorId() == null) {
                  throw new NoDataToUpdateException("No data to update task, you can update title, description, priority, status and executor");
@@ -126,17 +156,21 @@ public class TaskService {
              task.setStatus(taskUpdateDto.status());
          }
 
-         return taskRepository.save(task);
+         task.setUpdatedAt(LocalDateTime.now());
+         Task savedTask = taskRepository.save(task);
+         taskCounterService.move(counterKey, TaskCounterService.Key.of(savedTask));
+         eventPublisher.publishEvent(ChangeEvent.of(ChangeEvent.Type.TASK_UPDATED, savedTask));
+         return savedTask;
     }
 
     @Transactional
     public void delete(UUID id) {
-        if (!taskRepository.existsById(id)) {
-            throw new ResourceNotFoundException(
-                    String.format("Task with id %s not found", id)
-            );
-        }
+        Task task = taskRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException(String.format("Task with id %s not found", id)));
+
         taskRepository.deleteById(id);
+        taskCounterService.decrement(TaskCounterService.Key.of(task));
+        eventPublisher.publishEvent(ChangeEvent.of(ChangeEvent.Type.TASK_DELETED, task));
     }
 
     @Transactional(readOnly = true)
@@ -149,32 +183,7 @@ public class TaskService {
            UUID executorId,
            PageRequest pageRequest
     ) {
-        Specification<Task> specification = Specification.where(null);
-
-        if (title != null) {
-            specification = Specification.where(TaskSpecification.filterByTitle(title));
-        }
-
-        if (description != null) {
-            specification = specification.and(TaskSpecification.filterByDescription(description));
-        }
-
-        if (priority != null) {
-            specification = specification.and(TaskSpecification.filterByPriority(priority));
-        }
-
-        if (status != null) {
-            specification = specification.and(TaskSpecification.filterByStatus(status));
-        }
-
-        if (authorId != null) {
-            specification = specification.and(TaskSpecification.filterByAuthor(authorId));
-        }
-
-        if (executorId != null) {
-            specification = specification.and(TaskSpecification.filterByExecutor(executorId));
-        }
-
+        Specification<Task> specification = TaskSpecification.filter(title, description, priority, status, authorId, executorId);
         return taskRepository.findAll(specification, pageRequest);
     }
 
@@ -0,0 +1,43 @@
+package ru.vozov.taskmanagamentsystem.service;
+
+import org.springframework.data.domain.Sort;
+import ru.vozov.taskmanagamentsystem.exception.UnsupportedSortFieldException;
+
+//Допустимые поля сортировки задач. Приоритет и статус сортируются по рангу, а не по строке,
+//для каждого поля в схеме есть индекс (поле, id), в том числе в паре с автором и исполнителем
+public enum TaskSortField {
+    PRIORITY("priority", "priorityRank"),
+    STATUS("status", "statusRank"),
+    CREATED_AT("createdAt", "createdAt"),
+    UPDATED_AT("updatedAt", "updatedAt");
+
+    final String name;
+    final String property;
+
+    TaskSortField(String name, String property) {
+        this.name = name;
+        this.property = property;
+    }
+
+    //id добавляется последним ключом, чтобы страницы с одинаковыми значениями поля не пересекались
+    public Sort toSort(String direction) {
+        Sort.Direction sortDirection = Sort.Direction.fromOptionalString(direction)
+                .orElseThrow(() -> new UnsupportedSortFieldException(
+                        String.format("Sort direction %s is not supported, use asc or desc", direction)
+                ));
+
+        return Sort.by(sortDirection, property, "id");
+    }
+
+    public static TaskSortField of(String value) {
+        for (TaskSortField field : values()) {
+            if (field.name.equalsIgnoreCase(value)) {
+                return field;
+            }
+        }
+
+        throw new UnsupportedSortFieldException(
+                String.format("Sort field %s is not supported, use priority, status, createdAt or updatedAt", value)
+        );
+    }
+}
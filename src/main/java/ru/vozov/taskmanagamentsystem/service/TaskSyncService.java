@@ -0,0 +1,169 @@
+package ru.vozov.taskmanagamentsystem.service;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.vozov.taskmanagamentsystem.event.ChangeEvent;
+import ru.vozov.taskmanagamentsystem.event.ChangeEventBatch;
+import ru.vozov.taskmanagamentsystem.exception.IncorrectSyncWatermarkException;
+import ru.vozov.taskmanagamentsystem.exception.SyncWatermarkExpiredException;
+import ru.vozov.taskmanagamentsystem.model.Task;
+import ru.vozov.taskmanagamentsystem.model.TaskTombstone;
+import ru.vozov.taskmanagamentsystem.repository.TaskRepository;
+import ru.vozov.taskmanagamentsystem.repository.TaskTombstoneRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+
+//Инкрементальная синхронизация: изменения задач и удаления отдаются одним потоком, упорядоченным по (время, id).
+//Водяной знак - позиция последнего отданного изменения, поэтому стоимость запроса зависит от числа изменений, а не задач
+@Slf4j
+@Service
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class TaskSyncService {
+    static LocalDateTime INITIAL_TIME = LocalDateTime.of(1970, 1, 1, 0, 0);
+    static UUID INITIAL_ID = new UUID(0, 0);
+    static UUID LAST_ID = new UUID(-1, -1);
+    static String SEPARATOR = "|";
+
+    TaskRepository taskRepository;
+    TaskTombstoneRepository taskTombstoneRepository;
+    int maxLimit;
+    Duration settleTime;
+    Duration tombstoneRetention;
+
+    @Autowired
+    public TaskSyncService(
+            TaskRepository taskRepository,
+            TaskTombstoneRepository taskTombstoneRepository,
+            @Value("${task-sync.max-limit:500}") int maxLimit,
+            @Value("${task-sync.settle-time:5s}") Duration settleTime,
+            @Value("${task-sync.tombstone-retention:30d}") Duration tombstoneRetention
+    ) {
+        this.taskRepository = taskRepository;
+        this.taskTombstoneRepository = taskTombstoneRepository;
+        this.maxLimit = maxLimit;
+        this.settleTime = settleTime;
+        this.tombstoneRetention = tombstoneRetention;
+    }
+
+    //Синхронный слушатель выполняется в транзакции изменения: удаление и перенос в архив оставляют надгробие,
+    //а изменение комментария сдвигает updated_at задачи, чтобы клиент перечитал ее
+    @EventListener
+    public void onChange(ChangeEvent event) {
+        if (event.taskId() == null) {
+            return;
+        }
+
+        switch (event.type()) {
+            case TASK_DELETED, TASK_ARCHIVED -> taskTombstoneRepository.save(new TaskTombstone(event.taskId(), event.dateTime()));
+            case COMMENT_CREATED, COMMENT_UPDATED, COMMENT_DELETED -> taskRepository.touch(event.taskId(), event.dateTime());
+            default -> {
+            }
+        }
+    }
+
+    @EventListener
+    public void onChanges(ChangeEventBatch batch) {
+        batch.events().forEach(this::onChange);
+    }
+
+    //Изменения не новее settle-time не отдаются: транзакция с более ранней отметкой времени
+    //могла еще не закоммититься, и клиент с продвинутым водяным знаком пропустил бы ее
+    @Transactional(readOnly = true)
+    public Changes findChanges(String watermark, int limit) {
+        Position position = watermark == null ? new Position(INITIAL_TIME, INITIAL_ID) : decode(watermark);
+        LocalDateTime now = LocalDateTime.now();
+
+        if (watermark != null && position.time().isBefore(now.minus(tombstoneRetention))) {
+            throw new SyncWatermarkExpiredException(
+                    String.format("Watermark is older than %d days, deleted tasks are no longer tracked, sync from scratch", tombstoneRetention.toDays())
+            );
+        }
+
+        int pageSize = Math.max(1, Math.min(limit, maxLimit));
+        LocalDateTime until = now.minus(settleTime);
+        PageRequest pageRequest = PageRequest.of(0, pageSize + 1);
+        List<Change> changes = new ArrayList<>();
+
+        taskRepository.findUpdatedAfter(position.time(), position.id(), until, pageRequest)
+                .forEach(task -> changes.add(new Change(new Position(task.getUpdatedAt(), task.getId()), task)));
+        taskTombstoneRepository.findDeletedAfter(position.time(), position.id(), until, pageRequest)
+                .forEach(tombstone -> changes.add(new Change(new Position(tombstone.getDeletedAt(), tombstone.getTaskId()), null)));
+
+        //UUID сравниваются как строки: так же, как их упорядочивает база, а не знаковым UUID.compareTo
+        changes.sort(Comparator.comparing((Change change) -> change.position().time())
+                .thenComparing(change -> change.position().id().toString()));
+
+        boolean hasMore = changes.size() > pageSize;
+        List<Change> page = hasMore ? changes.subList(0, pageSize) : changes;
+        List<Task> tasks = new ArrayList<>();
+        List<UUID> deletedTaskIds = new ArrayList<>();
+
+        for (Change change : page) {
+            if (change.task() == null) {
+                deletedTaskIds.add(change.position().id());
+            }
+            else {
+                tasks.add(change.task());
+            }
+        }
+
+        //Если все изменения до until отданы, водяной знак сдвигается на until: иначе без изменений дольше tombstone-retention
+        //он устареет и каждая инкрементальная синхронизация будет заканчиваться 410
+        String nextWatermark = hasMore
+                ? encode(page.get(page.size() - 1).position())
+                : encode(new Position(until, LAST_ID));
+        return new Changes(tasks, deletedTaskIds, nextWatermark, hasMore);
+    }
+
+    @Scheduled(cron = "${task-sync.purge-cron:0 30 3 * * *}")
+    @Transactional
+    public void purgeTombstones() {
+        int purged = taskTombstoneRepository.deleteByDeletedAtBefore(LocalDateTime.now().minus(tombstoneRetention));
+
+        if (purged > 0) {
+            log.info("Purged {} task tombstones", purged);
+        }
+    }
+
+    private String encode(Position position) {
+        String value = position.time() + SEPARATOR + position.id();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Position decode(String watermark) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(watermark), StandardCharsets.UTF_8);
+            int separator = value.indexOf(SEPARATOR);
+
+            if (separator < 0) {
+                throw new IncorrectSyncWatermarkException(String.format("Incorrect watermark %s", watermark));
+            }
+
+            return new Position(LocalDateTime.parse(value.substring(0, separator)), UUID.fromString(value.substring(separator + 1)));
+        }
+        catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IncorrectSyncWatermarkException(String.format("Incorrect watermark %s", watermark));
+        }
+    }
+
+    public record Changes(List<Task> tasks, List<UUID> deletedTaskIds, String watermark, boolean hasMore) {
+    }
+
+    private record Position(LocalDateTime time, UUID id) {
+    }
+
+    private record Change(Position position, Task task) {
+    }
+}
@@ -0,0 +1,206 @@
+package ru.vozov.taskmanagamentsystem.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.vozov.taskmanagamentsystem.model.RevokedToken;
+import ru.vozov.taskmanagamentsystem.model.RevokedUser;
+import ru.vozov.taskmanagamentsystem.repository.RevokedTokenRepository;
+import ru.vozov.taskmanagamentsystem.repository.RevokedUserRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+//Проверка токена на каждом запросе не ходит в базу: список отозванных токенов держится в памяти
+//и перечитывается из таблицы revoked_token с интервалом refresh-interval-ms. Фильтр Блума отвечает "нет"
+//для почти всех неотозванных токенов за несколько обращений к массиву, точное множество проверяется только после "может быть".
+//Кроме отдельных токенов можно отозвать все токены пользователя, выпущенные до момента отзыва (таблица revoked_user)
+@Slf4j
+@Service
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class TokenRevocationService {
+    RevokedTokenRepository revokedTokenRepository;
+    RevokedUserRepository revokedUserRepository;
+    Duration accessTokenTtl;
+    int minCapacity;
+    double falsePositiveRate;
+    AtomicReference<Snapshot> snapshot;
+    //Отзывы этого узла: сохраняются при перечитывании, даже если запрос к базе начался раньше записи
+    Map<String, LocalDateTime> localRevocations = new ConcurrentHashMap<>();
+    Map<UUID, RevokedUser> localUserRevocations = new ConcurrentHashMap<>();
+    //Отзыв и подмена снимка при перечитывании не должны чередоваться, иначе новый снимок затрет только что отозванный токен.
+    //Отзывы редки, а чтение снимка в isRevoked блокировку не берет
+    ReentrantLock snapshotLock = new ReentrantLock();
+
+    @Autowired
+    public TokenRevocationService(
+            RevokedTokenRepository revokedTokenRepository,
+            RevokedUserRepository revokedUserRepository,
+            @Value("${jwt.access-token-ttl:15m}") Duration accessTokenTtl,
+            @Value("${token-revocation.min-capacity:1024}") int minCapacity,
+            @Value("${token-revocation.false-positive-rate:0.01}") double falsePositiveRate
+    ) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.revokedUserRepository = revokedUserRepository;
+        this.accessTokenTtl = accessTokenTtl;
+        this.minCapacity = minCapacity;
+        this.falsePositiveRate = falsePositiveRate;
+        this.snapshot = new AtomicReference<>(Snapshot.of(Set.of(), Map.of(), minCapacity, falsePositiveRate));
+    }
+
+    public boolean isRevoked(String jti) {
+        return jti != null && snapshot.get().contains(jti);
+    }
+
+    //iat токена хранится с точностью до секунды, поэтому отклоняется и токен, выпущенный в ту же секунду сразу после отзыва
+    public boolean isRevoked(UUID userId, Instant issuedAt) {
+        LocalDateTime notBefore = snapshot.get().notBefore().get(userId);
+        return notBefore != null
+                && (issuedAt == null || !issuedAt.isAfter(notBefore.truncatedTo(ChronoUnit.SECONDS).atZone(ZoneId.systemDefault()).toInstant()));
+    }
+
+    public void revoke(String jti, LocalDateTime expiresAt) {
+        revokedTokenRepository.save(RevokedToken.builder()
+                .jti(jti)
+                .expiresAt(expiresAt)
+                .revokedAt(LocalDateTime.now())
+                .build());
+
+        afterCommit(() -> {
+            localRevocations.put(jti, expiresAt);
+            //Копирование при записи: отзывы редки, а чтение снимка остается без блокировок
+            snapshot.updateAndGet(current -> current.with(jti));
+        });
+    }
+
+    //Отзывает все выпущенные пользователю токены доступа: после удаления или смены ролей они не должны действовать до истечения срока
+    public void revokeUser(UUID userId) {
+        LocalDateTime now = LocalDateTime.now();
+        RevokedUser revokedUser = revokedUserRepository.save(RevokedUser.builder()
+                .userId(userId)
+                .notBefore(now)
+                .expiresAt(now.plus(accessTokenTtl))
+                .build());
+
+        afterCommit(() -> {
+            localUserRevocations.put(userId, revokedUser);
+            snapshot.updateAndGet(current -> current.withUser(userId, now));
+        });
+    }
+
+    @PostConstruct
+    public void init() {
+        reload();
+    }
+
+    @Scheduled(fixedDelayString = "${token-revocation.refresh-interval-ms:5000}")
+    public void reload() {
+        LocalDateTime now = LocalDateTime.now();
+        Set<String> jtis = new HashSet<>(revokedTokenRepository.findActiveJtis(now));
+        Map<UUID, LocalDateTime> notBefore = new HashMap<>();
+        revokedUserRepository.findActive(now).forEach(revokedUser -> notBefore.put(revokedUser.getUserId(), revokedUser.getNotBefore()));
+
+        //Запрос к базе идет без блокировки: отзывы, записанные после него, подхватываются из localRevocations под ней
+        snapshotLock.lock();
+        try {
+            localRevocations.values().removeIf(expiresAt -> expiresAt.isBefore(now));
+            jtis.addAll(localRevocations.keySet());
+            localUserRevocations.values().removeIf(revokedUser -> revokedUser.getExpiresAt().isBefore(now));
+            localUserRevocations.values().forEach(
+                    revokedUser -> notBefore.merge(revokedUser.getUserId(), revokedUser.getNotBefore(), TokenRevocationService::latest)
+            );
+            snapshot.set(Snapshot.of(jtis, notBefore, minCapacity, falsePositiveRate));
+        }
+        finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    @Scheduled(cron = "${token-revocation.purge-cron:0 20 3 * * *}")
+    @Transactional
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int purged = revokedTokenRepository.deleteByExpiresAtBefore(now) + revokedUserRepository.deleteByExpiresAtBefore(now);
+
+        if (purged > 0) {
+            log.info("Purged {} expired token revocations", purged);
+        }
+    }
+
+    //Отзыв вызывается и внутри чужой транзакции (удаление пользователя): память узла меняется только после ее коммита,
+    //иначе при откате узел отклонял бы токены пользователя, которого в базе никто не отзывал, до перезапуска
+    private void afterCommit(Runnable revocation) {
+        Runnable locked = () -> {
+            snapshotLock.lock();
+            try {
+                revocation.run();
+            }
+            finally {
+                snapshotLock.unlock();
+            }
+        };
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            locked.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                locked.run();
+            }
+        });
+    }
+
+    private static LocalDateTime latest(LocalDateTime first, LocalDateTime second) {
+        return first.isAfter(second) ? first : second;
+    }
+
+    private record Snapshot(BloomFilter bloomFilter, Set<String> jtis, Map<UUID, LocalDateTime> notBefore) {
+        //Фильтр строится с двукратным запасом, чтобы отзывы до следующего перечитывания не поднимали долю ложных срабатываний
+        static Snapshot of(Collection<String> jtis, Map<UUID, LocalDateTime> notBefore, int minCapacity, double falsePositiveRate) {
+            BloomFilter bloomFilter = BloomFilter.create(Math.max(minCapacity, jtis.size() * 2), falsePositiveRate);
+            jtis.forEach(bloomFilter::put);
+            return new Snapshot(bloomFilter, Set.copyOf(jtis), Map.copyOf(notBefore));
+        }
+
+        boolean contains(String jti) {
+            return bloomFilter.mightContain(jti) && jtis.contains(jti);
+        }
+
+        Snapshot with(String jti) {
+            BloomFilter copy = bloomFilter.copy();
+            copy.put(jti);
+            Set<String> next = new HashSet<>(jtis);
+            next.add(jti);
+            return new Snapshot(copy, Set.copyOf(next), notBefore);
+        }
+
+        Snapshot withUser(UUID userId, LocalDateTime time) {
+            Map<UUID, LocalDateTime> next = new HashMap<>(notBefore);
+            next.merge(userId, time, TokenRevocationService::latest);
+            return new Snapshot(bloomFilter, jtis, Map.copyOf(next));
+        }
+    }
+}
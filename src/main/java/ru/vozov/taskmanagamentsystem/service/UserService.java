@@ -7,6 +7,7 @@ import org.springframework.context.annotation.Lazy;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -17,25 +18,43 @@ import ru.vozov.taskmanagamentsystem.dto.RegistrationUserDto;
 import ru.vozov.taskmanagamentsystem.exception.*;
 import ru.vozov.taskmanagamentsystem.model.Role;
 import ru.vozov.taskmanagamentsystem.model.User;
+import ru.vozov.taskmanagamentsystem.repository.TaskRepository;
 import ru.vozov.taskmanagamentsystem.repository.UserRepository;
 
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
-public class UserService implements UserDetailsService {
+public class UserService implements UserDetailsService, UserDetailsPasswordService {
     UserRepository userRepository;
     PasswordEncoder passwordEncoder;
     AuthService authService;
+    TaskCounterService taskCounterService;
+    TaskRepository taskRepository;
+    RefreshTokenService refreshTokenService;
+    TokenRevocationService tokenRevocationService;
 
     @Autowired
-    public UserService(UserRepository userRepository, @Lazy PasswordEncoder passwordEncoder, @Lazy AuthService authService) {
+    public UserService(
+            UserRepository userRepository,
+            @Lazy PasswordEncoder passwordEncoder,
+            @Lazy AuthService authService,
+            TaskCounterService taskCounterService,
+            TaskRepository taskRepository,
+            @Lazy RefreshTokenService refreshTokenService,
+            TokenRevocationService tokenRevocationService
+    ) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.authService = authService;
+        this.taskCounterService = taskCounterService;
+        this.taskRepository = taskRepository;
+        this.refreshTokenService = refreshTokenService;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     @Transactional
@@ -55,6 +74,13 @@ public class UserService implements UserDetailsService {
                 .orElseThrow(() -> new ResourceNotFoundException(String.format("User with id %s not found", id)));
     }
 
+    //Текущий пользователь и его роли для проверок доступа читаются мимо кэша второго уровня
+    @Transactional(readOnly = true)
+    public User findUncachedById(UUID id) {
+        return userRepository.findUncachedById(id)
+                .orElseThrow(() -> new ResourceNotFoundException(String.format("User with id %s not found", id)));
+    }
+
     @Transactional(readOnly = true)
     public boolean existsByEmail(String email) {
         return userRepository.existsByEmail(email);
@@ -79,6 +105,20 @@ public class UserService implements UserDetailsService {
         );
     }
 
+    //Вызывается после успешного входа, если хеш пароля создан другим алгоритмом или с другой стоимостью
+    @Transactional
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = userRepository.findByEmail(userDetails.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException(String.format("User with email %s not found", userDetails.getUsername())));
+
+        user.setPassword(newPassword);
+        userRepository.save(user);
+        return org.springframework.security.core.userdetails.User.withUserDetails(userDetails)
+                .password(newPassword)
+                .build();
+    }
+
     @Transactional
     public User update(UUID id, UserUpdateDto userUpdateDto) {
         User user = userRepository.findById(id)
@@ -111,6 +151,9 @@ public class UserService implements UserDetailsService {
             }
 
             user.setPassword(passwordEncoder.encode(userUpdateDto.password()));
+            //После смены пароля старые сессии не должны продлеваться, а выпущенные токены доступа - действовать до истечения срока
+            refreshTokenService.revokeAll(user.getId());
+            tokenRevocationService.revokeUser(user.getId());
         }
 
         if (userUpdateDto.email() != null) {
@@ -154,6 +197,11 @@ public class UserService implements UserDetailsService {
             );
         }
 
+        //База обнулит автора и исполнителя у задач пользователя, поэтому они должны попасть в инкрементальную синхронизацию
+        taskRepository.touchByUserId(id, LocalDateTime.now());
+        taskCounterService.releaseUserTasks(id);
         userRepository.deleteById(id);
+        //Компактные токены не проверяют пользователя в базе, поэтому без отзыва они действовали бы до истечения срока
+        tokenRevocationService.revokeUser(id);
     }
 }
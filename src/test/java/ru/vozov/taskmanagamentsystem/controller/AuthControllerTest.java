@@ -8,14 +8,27 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.vozov.taskmanagamentsystem.dto.LoginUserDto;
+import ru.vozov.taskmanagamentsystem.dto.RefreshTokenDto;
 import ru.vozov.taskmanagamentsystem.dto.RegistrationUserDto;
+import ru.vozov.taskmanagamentsystem.dto.UserUpdateDto;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -28,6 +41,9 @@ public class AuthControllerTest {
     @Autowired
     MockMvc mockMvc;
 
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
     final ObjectMapper mapper = new ObjectMapper();
 
     @Test
@@ -188,6 +204,137 @@ public class AuthControllerTest {
                 .andExpect(jsonPath("$.token").exists());
     }
 
+    @Test
+    void signIn_ShouldRehashPassword_WhenStoredHashHasNoAlgorithmPrefix() throws Exception {
+        LoginUserDto loginUserDto = new LoginUserDto("test@gmail.com", "test");
+
+        mockMvc.perform(post("/api/auth/sign-in")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(loginUserDto)))
+                .andExpect(status().isOk());
+
+        String password = jdbcTemplate.queryForObject("select password from \"user\" where email = ?", String.class, "test@gmail.com");
+        assertTrue(password.startsWith("{bcrypt}$2a$10$"));
+
+        mockMvc.perform(post("/api/auth/sign-in")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(loginUserDto)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").exists());
+    }
+
+    @Test
+    void refresh_ShouldReturnNewTokens_WhenRefreshTokenIsValid() throws Exception {
+        String refreshToken = signIn();
+
+        mockMvc.perform(post("/api/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(new RefreshTokenDto(refreshToken))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").exists())
+                .andExpect(jsonPath("$.refreshToken").exists());
+    }
+
+    @Test
+    void refresh_ShouldRevokeFamily_WhenRefreshTokenIsReused() throws Exception {
+        String refreshToken = signIn();
+
+        String response = mockMvc.perform(post("/api/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(new RefreshTokenDto(refreshToken))))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        String rotatedToken = mapper.readTree(response).get("refreshToken").asText();
+
+        mockMvc.perform(post("/api/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(new RefreshTokenDto(refreshToken))))
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.status").value("401"));
+
+        mockMvc.perform(post("/api/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(new RefreshTokenDto(rotatedToken))))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void logout_ShouldRevokeAccessAndRefreshTokens_WhenUserIsAuthenticated() throws Exception {
+        String response = mockMvc.perform(post("/api/auth/sign-in")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(new LoginUserDto("test@gmail.com", "test"))))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        String token = mapper.readTree(response).get("token").asText();
+        String refreshToken = mapper.readTree(response).get("refreshToken").asText();
+
+        mockMvc.perform(get("/api/users/{id}", "8f7985de-a578-4419-b93f-ff9d29969b11")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/auth/logout")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(new RefreshTokenDto(refreshToken))))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/users/{id}", "8f7985de-a578-4419-b93f-ff9d29969b11")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isForbidden());
+
+        mockMvc.perform(post("/api/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(new RefreshTokenDto(refreshToken))))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void signIn_ShouldReturnCompactToken_WhenUserRolesHaveBits() throws Exception {
+        String response = mockMvc.perform(post("/api/auth/sign-in")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(new LoginUserDto("test@gmail.com", "test"))))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        String token = mapper.readTree(response).get("token").asText();
+        String payload = new String(Base64.getUrlDecoder().decode(token.split("\\.")[1]), StandardCharsets.UTF_8);
+
+        assertEquals("8f7985de-a578-4419-b93f-ff9d29969b11", mapper.readTree(payload).get("sub").asText());
+        assertFalse(mapper.readTree(payload).has("roles"));
+
+        mockMvc.perform(put("/api/users/{id}", "8f7985de-a578-4419-b93f-ff9d29969b11")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(new UserUpdateDto("renamed", null, null, null))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.username").value("renamed"));
+    }
+
+    @Test
+    void signIn_ShouldRejectCompactToken_WhenUserIsDeleted() throws Exception {
+        String response = mockMvc.perform(post("/api/auth/sign-in")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(new LoginUserDto("test@gmail.com", "test"))))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        String token = mapper.readTree(response).get("token").asText();
+
+        mockMvc.perform(delete("/api/users/{id}", "8f7985de-a578-4419-b93f-ff9d29969b11")
+                        .with(user("admin@gmail.com").roles("ADMIN")))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/users/{id}", "8f7985de-a578-4419-b93f-ff9d29969b11")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isForbidden());
+    }
+
     @Test
     void signIn_ShouldReturnError_WhenEmailIsNotCorrect() throws Exception {
         String email = "test";
@@ -292,4 +439,16 @@ public class AuthControllerTest {
                 .andExpect(jsonPath("$.message").value("incorrect email or password"))
                 .andExpect(jsonPath("$.dateTime").exists());
     }
+
+    private String signIn() throws Exception {
+        String response = mockMvc.perform(post("/api/auth/sign-in")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(new LoginUserDto("test@gmail.com", "test"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.refreshToken").exists())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        return mapper.readTree(response).get("refreshToken").asText();
+    }
 }
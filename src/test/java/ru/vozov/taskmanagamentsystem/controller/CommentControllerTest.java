@@ -16,6 +16,7 @@ import ru.vozov.taskmanagamentsystem.dto.CommentUpdateDto;
 import java.util.UUID;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -42,6 +43,22 @@ public class CommentControllerTest {
                 .andExpect(jsonPath("$.dateTime").exists());
     }
 
+    @Test
+    @WithMockUser(username = "test@gmail.com", roles = "USER")
+    void getComment_ShouldReturn304_WhenETagMatches() throws Exception {
+        String id = "d061c985-a0f6-420f-b49f-a85971fb27e4";
+
+        String eTag = mockMvc.perform(get("/api/comments/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn()
+                .getResponse()
+                .getHeader("ETag");
+
+        mockMvc.perform(get("/api/comments/{id}", id).header("If-None-Match", eTag))
+                .andExpect(status().isNotModified());
+    }
+
     @Test
     @WithMockUser(username = "test@gmail.com", roles = "USER")
     void getComment_ShouldReturnComment_WhenCommentExists() throws Exception {
@@ -172,6 +189,34 @@ public class CommentControllerTest {
                 .andExpect(jsonPath("$.commentatorId").value("2bc86005-4208-45da-a289-99c9e8c5d432"));
     }
 
+    @Test
+    @WithMockUser(username = "test@gmail.com", roles = "USER")
+    void createComment_ShouldReturnStoredComment_WhenIdempotencyKeyIsRepeated() throws Exception {
+        String idempotencyKey = UUID.randomUUID().toString();
+        CommentCreationDto commentCreationDto = new CommentCreationDto("123", UUID.fromString("ea8efca6-8625-4686-8bf8-7c4153d9666e"));
+
+        String id = mapper.readTree(mockMvc.perform(post("/api/comments")
+                        .header("Idempotency-Key", idempotencyKey)
+                        .contentType("application/json")
+                        .content(mapper.writeValueAsString(commentCreationDto)))
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString()).get("id").asText();
+
+        mockMvc.perform(post("/api/comments")
+                        .header("Idempotency-Key", idempotencyKey)
+                        .contentType("application/json")
+                        .content(mapper.writeValueAsString(commentCreationDto)))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(jsonPath("$.id").value(id));
+
+        mockMvc.perform(get("/api/tasks/{id}", "ea8efca6-8625-4686-8bf8-7c4153d9666e"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.comments.length()").value(3));
+    }
+
     @Test
     @WithMockUser(username = "test@gmail.com", roles = "USER")
     void deleteComment_ShouldReturn404_WhenCommentNotExists() throws Exception {
@@ -219,7 +264,7 @@ public class CommentControllerTest {
     void updateComment_ShouldReturn404_WhenCommentNotExists() throws Exception {
         String id = UUID.randomUUID().toString();
         String text = "комментарий";
-        CommentUpdateDto commentUpdateDto = new CommentUpdateDto(text);
+        CommentUpdateDto commentUpdateDto = new CommentUpdateDto(text, null);
 
         mockMvc.perform(put("/api/comments/{id}", id)
                         .contentType("application/json")
@@ -235,7 +280,7 @@ public class CommentControllerTest {
     void updateComment_ShouldReturn400_WhenTextIsNull() throws Exception {
         String id = "d061c985-a0f6-420f-b49f-a85971fb27e4";
         String text = null;
-        CommentUpdateDto commentUpdateDto = new CommentUpdateDto(text);
+        CommentUpdateDto commentUpdateDto = new CommentUpdateDto(text, null);
 
         mockMvc.perform(put("/api/comments/{id}", id)
                         .contentType("application/json")
@@ -251,7 +296,7 @@ public class CommentControllerTest {
     void updateComment_ShouldReturn400_WhenTextIsBlank() throws Exception {
         String id = "d061c985-a0f6-420f-b49f-a85971fb27e4";
         String text = "     ";
-        CommentUpdateDto commentUpdateDto = new CommentUpdateDto(text);
+        CommentUpdateDto commentUpdateDto = new CommentUpdateDto(text, null);
 
         mockMvc.perform(put("/api/comments/{id}", id)
                         .contentType("application/json")
@@ -267,7 +312,7 @@ public class CommentControllerTest {
     void updateComment_ShouldReturn403_WhenUserIsNotCommentator() throws Exception {
         String id = "8ee7714a-f747-4a39-b589-9bcffc6db573";
         String text = "комментарий";
-        CommentUpdateDto commentUpdateDto = new CommentUpdateDto(text);
+        CommentUpdateDto commentUpdateDto = new CommentUpdateDto(text, null);
 
         mockMvc.perform(put("/api/comments/{id}", id)
                         .contentType("application/json")
@@ -283,7 +328,7 @@ public class CommentControllerTest {
     void updateComment_ShouldReturnUpdatedComment_WhenUserIsAdminAndNotCommentator() throws Exception {
         String id = "d061c985-a0f6-420f-b49f-a85971fb27e4";
         String text = "комментарий";
-        CommentUpdateDto commentUpdateDto = new CommentUpdateDto(text);
+        CommentUpdateDto commentUpdateDto = new CommentUpdateDto(text, null);
 
         mockMvc.perform(put("/api/comments/{id}", id)
                         .contentType("application/json")
@@ -301,7 +346,7 @@ public class CommentControllerTest {
     void updateComment_ShouldReturnUpdatedComment_WhenUserIsCommentator() throws Exception {
         String id = "d061c985-a0f6-420f-b49f-a85971fb27e4";
         String text = "комментарий";
-        CommentUpdateDto commentUpdateDto = new CommentUpdateDto(text);
+        CommentUpdateDto commentUpdateDto = new CommentUpdateDto(text, null);
 
         mockMvc.perform(put("/api/comments/{id}", id)
                         .contentType("application/json")
@@ -7,17 +7,26 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import ru.vozov.taskmanagamentsystem.dto.TaskCreationDto;
 import ru.vozov.taskmanagamentsystem.dto.TaskUpdateDto;
 import ru.vozov.taskmanagamentsystem.model.Task;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.UUID;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -29,6 +38,9 @@ public class TaskControllerTest {
     @Autowired
     MockMvc mockMvc;
 
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
     final ObjectMapper mapper = new ObjectMapper();
 
     @Test
@@ -47,6 +59,44 @@ public class TaskControllerTest {
                 .andExpect(jsonPath("$.executorId").value("8f7985de-a578-4419-b93f-ff9d29969b11"));
     }
 
+    @Test
+    @WithMockUser(username = "test@gmail.com", roles = "USER")
+    void getTask_ShouldReturn304_WhenETagMatches() throws Exception {
+        String id = "ea8efca6-8625-4686-8bf8-7c4153d9666e";
+
+        String eTag = mockMvc.perform(get("/api/tasks/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn()
+                .getResponse()
+                .getHeader("ETag");
+
+        mockMvc.perform(get("/api/tasks/{id}", id).header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", eTag));
+    }
+
+    @Test
+    @WithMockUser(username = "test@gmail.com", roles = "USER")
+    void getTask_ShouldReturn200_WhenTaskChangedAfterETag() throws Exception {
+        String id = "ea8efca6-8625-4686-8bf8-7c4153d9666e";
+
+        String eTag = mockMvc.perform(get("/api/tasks/{id}", id))
+                .andReturn()
+                .getResponse()
+                .getHeader("ETag");
+
+        TaskUpdateDto taskUpdateDto = new TaskUpdateDto(null, null, null, Task.Status.DONE, null, null);
+        mockMvc.perform(put("/api/tasks/{id}", id)
+                        .contentType("application/json")
+                        .content(mapper.writeValueAsString(taskUpdateDto)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/tasks/{id}", id).header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("DONE"));
+    }
+
     @Test
     @WithMockUser(username = "test@gmail.com", roles = "USER")
     void getTask_ShouldReturn404_WhenTaskNotExists() throws Exception {
@@ -113,6 +163,197 @@ public class TaskControllerTest {
                 .andExpect(jsonPath("$.content").isEmpty());
     }
 
+    @Test
+    @WithMockUser(username = "test@gmail.com", roles = "USER")
+    void getTasksByFilter_ShouldSortByPriorityRank_WhenSortIsPriority() throws Exception {
+        mockMvc.perform(get("/api/tasks?sort=priority"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value("b2f1c5b0-31b1-4a15-9ce0-d20300965218"))
+                .andExpect(jsonPath("$.content[1].id").value("ea8efca6-8625-4686-8bf8-7c4153d9666e"));
+
+        mockMvc.perform(get("/api/tasks?sort=priority&direction=desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value("ea8efca6-8625-4686-8bf8-7c4153d9666e"))
+                .andExpect(jsonPath("$.content[1].id").value("b2f1c5b0-31b1-4a15-9ce0-d20300965218"));
+    }
+
+    @Test
+    @WithMockUser(username = "test@gmail.com", roles = "USER")
+    void getTasksByFilter_ShouldSortByStatusRank_WhenSortIsStatus() throws Exception {
+        mockMvc.perform(get("/api/tasks?sort=status&direction=desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].status").value("IN_PROGRESS"))
+                .andExpect(jsonPath("$.content[1].status").value("TODO"));
+    }
+
+    @Test
+    @WithMockUser(username = "admin@gmail.com", roles = "ADMIN")
+    void getTasksByFilter_ShouldSortByUpdatedAt_WhenTaskUpdated() throws Exception {
+        TaskUpdateDto taskUpdateDto = new TaskUpdateDto(null, null, null, Task.Status.DONE, null, null);
+
+        mockMvc.perform(put("/api/tasks/{id}", "ea8efca6-8625-4686-8bf8-7c4153d9666e")
+                        .contentType("application/json")
+                        .content(mapper.writeValueAsString(taskUpdateDto)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updatedAt").exists());
+
+        mockMvc.perform(get("/api/tasks?sort=updatedAt&direction=desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value("ea8efca6-8625-4686-8bf8-7c4153d9666e"));
+    }
+
+    @Test
+    @WithMockUser(username = "test@gmail.com", roles = "USER")
+    void getTasksByFilter_ShouldReturn400_WhenSortFieldNotSupported() throws Exception {
+        mockMvc.perform(get("/api/tasks?sort=title"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value("400"))
+                .andExpect(jsonPath("$.message").value("Sort field title is not supported, use priority, status, createdAt or updatedAt"));
+    }
+
+    @Test
+    @WithMockUser(username = "test@gmail.com", roles = "USER")
+    void getTasksByFilter_ShouldReturn400_WhenSortDirectionNotSupported() throws Exception {
+        mockMvc.perform(get("/api/tasks?sort=status&direction=up"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Sort direction up is not supported, use asc or desc"));
+    }
+
+    @Test
+    @WithMockUser(username = "test@gmail.com", roles = "USER")
+    void syncTasks_ShouldReturnAllTasks_WhenWithoutWatermark() throws Exception {
+        mockMvc.perform(get("/api/tasks/sync"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tasks.length()").value(2))
+                .andExpect(jsonPath("$.deletedTaskIds").isEmpty())
+                .andExpect(jsonPath("$.watermark").isNotEmpty())
+                .andExpect(jsonPath("$.hasMore").value(false));
+    }
+
+    @Test
+    @WithMockUser(username = "test@gmail.com", roles = "USER")
+    void syncTasks_ShouldPageByWatermark_WhenLimitIsReached() throws Exception {
+        String watermark = syncWatermark(mockMvc.perform(get("/api/tasks/sync").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tasks.length()").value(1))
+                .andExpect(jsonPath("$.hasMore").value(true))
+                .andReturn());
+
+        String nextWatermark = syncWatermark(mockMvc.perform(get("/api/tasks/sync").param("limit", "1").param("watermark", watermark))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tasks.length()").value(1))
+                .andExpect(jsonPath("$.hasMore").value(false))
+                .andReturn());
+
+        mockMvc.perform(get("/api/tasks/sync").param("watermark", nextWatermark))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tasks").isEmpty())
+                .andExpect(jsonPath("$.hasMore").value(false));
+    }
+
+    @Test
+    @WithMockUser(username = "test@gmail.com", roles = "USER")
+    void syncTasks_ShouldAdvanceWatermark_WhenNoTasksChangedLongerThanRetention() throws Exception {
+        jdbcTemplate.update("update task set updated_at = ?", LocalDateTime.now().minusDays(60));
+
+        String watermark = syncWatermark(mockMvc.perform(get("/api/tasks/sync"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tasks.length()").value(2))
+                .andReturn());
+
+        String nextWatermark = syncWatermark(mockMvc.perform(get("/api/tasks/sync").param("watermark", watermark))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tasks").isEmpty())
+                .andReturn());
+
+        mockMvc.perform(get("/api/tasks/sync").param("watermark", nextWatermark))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tasks").isEmpty());
+    }
+
+    @Test
+    @WithMockUser(username = "admin@gmail.com", roles = "ADMIN")
+    void syncTasks_ShouldReturnOnlyChanges_WhenTasksUpdatedAndDeleted() throws Exception {
+        String watermark = syncWatermark(mockMvc.perform(get("/api/tasks/sync")).andReturn());
+        TaskUpdateDto taskUpdateDto = new TaskUpdateDto(null, null, null, Task.Status.DONE, null, null);
+
+        mockMvc.perform(put("/api/tasks/{id}", "b2f1c5b0-31b1-4a15-9ce0-d20300965218")
+                        .contentType("application/json")
+                        .content(mapper.writeValueAsString(taskUpdateDto)))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/tasks/{id}", "ea8efca6-8625-4686-8bf8-7c4153d9666e"))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/tasks/sync").param("watermark", watermark))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tasks.length()").value(1))
+                .andExpect(jsonPath("$.tasks[0].id").value("b2f1c5b0-31b1-4a15-9ce0-d20300965218"))
+                .andExpect(jsonPath("$.tasks[0].status").value("DONE"))
+                .andExpect(jsonPath("$.deletedTaskIds.length()").value(1))
+                .andExpect(jsonPath("$.deletedTaskIds[0]").value("ea8efca6-8625-4686-8bf8-7c4153d9666e"));
+    }
+
+    @Test
+    @WithMockUser(username = "test@gmail.com", roles = "USER")
+    void syncTasks_ShouldReturn400_WhenWatermarkIsIncorrect() throws Exception {
+        mockMvc.perform(get("/api/tasks/sync").param("watermark", "incorrect"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value("400"));
+    }
+
+    @Test
+    @WithMockUser(username = "test@gmail.com", roles = "USER")
+    void syncTasks_ShouldReturn410_WhenWatermarkIsExpired() throws Exception {
+        String watermark = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                ("2000-01-01T00:00|" + UUID.randomUUID()).getBytes(StandardCharsets.UTF_8)
+        );
+
+        mockMvc.perform(get("/api/tasks/sync").param("watermark", watermark))
+                .andExpect(status().isGone())
+                .andExpect(jsonPath("$.status").value("410"));
+    }
+
+    @Test
+    @WithMockUser(username = "test@gmail.com", roles = "USER")
+    void exportTasks_ShouldStreamCsv_WhenFilterByExecutorId() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/tasks/export?executorId=8f7985de-a578-4419-b93f-ff9d29969b11"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv"))
+                .andExpect(content().string(
+                        "id,title,description,priority,status,authorId,executorId,version\n" +
+                        "ea8efca6-8625-4686-8bf8-7c4153d9666e,test,test,HIGH,IN_PROGRESS," +
+                        "2bc86005-4208-45da-a289-99c9e8c5d432,8f7985de-a578-4419-b93f-ff9d29969b11,0\n"
+                ));
+    }
+
+    @Test
+    @WithMockUser(username = "test@gmail.com", roles = "USER")
+    void exportTasks_ShouldStreamNdjson_WhenWithoutFilters() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/tasks/export?format=ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertEquals(2, body.lines().count());
+    }
+
+    @Test
+    @WithMockUser(username = "test@gmail.com", roles = "USER")
+    void exportTasks_ShouldReturn400_WhenFormatNotSupported() throws Exception {
+        mockMvc.perform(get("/api/tasks/export?format=xml"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @WithMockUser(username = "test@gmail.com", roles = "USER")
     void createTask_ShouldReturn403_WhenUserHasNoRight() throws Exception {
@@ -276,6 +517,55 @@ public class TaskControllerTest {
                 .andExpect(jsonPath("$.executorId").value(executorId.toString()));
     }
 
+    @Test
+    @WithMockUser(username = "admin@gmail.com", roles = "ADMIN")
+    void createTask_ShouldReturnStoredTask_WhenIdempotencyKeyIsRepeated() throws Exception {
+        String idempotencyKey = UUID.randomUUID().toString();
+        TaskCreationDto taskCreationDto = new TaskCreationDto("title", "desc", Task.Priority.LOW, null);
+
+        String id = mapper.readTree(mockMvc.perform(post("/api/tasks")
+                        .header("Idempotency-Key", idempotencyKey)
+                        .contentType("application/json")
+                        .content(mapper.writeValueAsString(taskCreationDto)))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"))
+                .andReturn()
+                .getResponse()
+                .getContentAsString()).get("id").asText();
+
+        mockMvc.perform(post("/api/tasks")
+                        .header("Idempotency-Key", idempotencyKey)
+                        .contentType("application/json")
+                        .content(mapper.writeValueAsString(taskCreationDto)))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(jsonPath("$.id").value(id));
+
+        mockMvc.perform(get("/api/tasks").param("title", "title"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(1));
+    }
+
+    @Test
+    @WithMockUser(username = "admin@gmail.com", roles = "ADMIN")
+    void createTask_ShouldReturn422_WhenIdempotencyKeyIsReusedWithDifferentBody() throws Exception {
+        String idempotencyKey = UUID.randomUUID().toString();
+
+        mockMvc.perform(post("/api/tasks")
+                        .header("Idempotency-Key", idempotencyKey)
+                        .contentType("application/json")
+                        .content(mapper.writeValueAsString(new TaskCreationDto("title", "desc", Task.Priority.LOW, null))))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(post("/api/tasks")
+                        .header("Idempotency-Key", idempotencyKey)
+                        .contentType("application/json")
+                        .content(mapper.writeValueAsString(new TaskCreationDto("other", "desc", Task.Priority.LOW, null))))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.status").value("422"))
+                .andExpect(jsonPath("$.message").value("Idempotency-Key was already used with a different request body"));
+    }
+
     @Test
     @WithMockUser(username = "admin@gmail.com", roles = "ADMIN")
     void updateTask_ShouldReturn404_WhenTaskNotExists() throws Exception {
@@ -286,7 +576,7 @@ public class TaskControllerTest {
         UUID executorId = UUID.fromString("8f7985de-a578-4419-b93f-ff9d29969b11");
         Task.Status status = Task.Status.DONE;
 
-        TaskUpdateDto taskUpdateDto = new TaskUpdateDto(title, description, priority, status, executorId);
+        TaskUpdateDto taskUpdateDto = new TaskUpdateDto(title, description, priority, status, executorId, null);
         mockMvc.perform(put("/api/tasks/{id}", id)
                         .contentType("application/json")
                         .content(mapper.writeValueAsString(taskUpdateDto)))
@@ -306,7 +596,7 @@ public class TaskControllerTest {
         UUID executorId = UUID.fromString("8f7985de-a578-4419-b93f-ff9d29969b11");
         Task.Status status = Task.Status.DONE;
 
-        TaskUpdateDto taskUpdateDto = new TaskUpdateDto(title, description, priority, status, executorId);
+        TaskUpdateDto taskUpdateDto = new TaskUpdateDto(title, description, priority, status, executorId, null);
         mockMvc.perform(put("/api/tasks/{id}", id)
                         .contentType("application/json")
                         .content(mapper.writeValueAsString(taskUpdateDto)))
@@ -326,7 +616,7 @@ public class TaskControllerTest {
         UUID executorId = null;
         Task.Status status = null;
 
-        TaskUpdateDto taskUpdateDto = new TaskUpdateDto(title, description, priority, status, executorId);
+        TaskUpdateDto taskUpdateDto = new TaskUpdateDto(title, description, priority, status, executorId, null);
         mockMvc.perform(put("/api/tasks/{id}", id)
                         .contentType("application/json")
                         .content(mapper.writeValueAsString(taskUpdateDto)))
@@ -346,7 +636,7 @@ public class TaskControllerTest {
         UUID executorId = null;
         Task.Status status = null;
 
-        TaskUpdateDto taskUpdateDto = new TaskUpdateDto(title, description, priority, status, executorId);
+        TaskUpdateDto taskUpdateDto = new TaskUpdateDto(title, description, priority, status, executorId, null);
         mockMvc.perform(put("/api/tasks/{id}", id)
                         .contentType("application/json")
                         .content(mapper.writeValueAsString(taskUpdateDto)))
@@ -366,7 +656,7 @@ public class TaskControllerTest {
         UUID executorId = null;
         Task.Status status = null;
 
-        TaskUpdateDto taskUpdateDto = new TaskUpdateDto(title, description, priority, status, executorId);
+        TaskUpdateDto taskUpdateDto = new TaskUpdateDto(title, description, priority, status, executorId, null);
         mockMvc.perform(put("/api/tasks/{id}", id)
                         .contentType("application/json")
                         .content(mapper.writeValueAsString(taskUpdateDto)))
@@ -386,7 +676,7 @@ public class TaskControllerTest {
         UUID executorId = UUID.randomUUID();
         Task.Status status = null;
 
-        TaskUpdateDto taskUpdateDto = new TaskUpdateDto(title, description, priority, status, executorId);
+        TaskUpdateDto taskUpdateDto = new TaskUpdateDto(title, description, priority, status, executorId, null);
         mockMvc.perform(put("/api/tasks/{id}", id)
                         .contentType("application/json")
                         .content(mapper.writeValueAsString(taskUpdateDto)))
@@ -406,7 +696,7 @@ public class TaskControllerTest {
         UUID executorId = UUID.fromString("2bc86005-4208-45da-a289-99c9e8c5d432");
         Task.Status status = null;
 
-        TaskUpdateDto taskUpdateDto = new TaskUpdateDto(title, description, priority, status, executorId);
+        TaskUpdateDto taskUpdateDto = new TaskUpdateDto(title, description, priority, status, executorId, null);
         mockMvc.perform(put("/api/tasks/{id}", id)
                         .contentType("application/json")
                         .content(mapper.writeValueAsString(taskUpdateDto)))
@@ -426,7 +716,7 @@ public class TaskControllerTest {
         UUID executorId = UUID.fromString("8f7985de-a578-4419-b93f-ff9d29969b11");
         Task.Status status = Task.Status.DONE;
 
-        TaskUpdateDto taskUpdateDto = new TaskUpdateDto(title, description, priority, status, executorId);
+        TaskUpdateDto taskUpdateDto = new TaskUpdateDto(title, description, priority, status, executorId, null);
         mockMvc.perform(put("/api/tasks/{id}", id)
                         .contentType("application/json")
                         .content(mapper.writeValueAsString(taskUpdateDto)))
@@ -450,7 +740,7 @@ public class TaskControllerTest {
         UUID executorId = null;
         Task.Status status = null;
 
-        TaskUpdateDto taskUpdateDto = new TaskUpdateDto(title, description, priority, status, executorId);
+        TaskUpdateDto taskUpdateDto = new TaskUpdateDto(title, description, priority, status, executorId, null);
         mockMvc.perform(put("/api/tasks/{id}", id)
                         .contentType("application/json")
                         .content(mapper.writeValueAsString(taskUpdateDto)))
@@ -470,7 +760,7 @@ public class TaskControllerTest {
         UUID executorId = null;
         Task.Status status = Task.Status.DONE;
 
-        TaskUpdateDto taskUpdateDto = new TaskUpdateDto(title, description, priority, status, executorId);
+        TaskUpdateDto taskUpdateDto = new TaskUpdateDto(title, description, priority, status, executorId, null);
         mockMvc.perform(put("/api/tasks/{id}", id)
                         .contentType("application/json")
                         .content(mapper.writeValueAsString(taskUpdateDto)))
@@ -484,6 +774,37 @@ public class TaskControllerTest {
                 .andExpect(jsonPath("$.executorId").value("8f7985de-a578-4419-b93f-ff9d29969b11"));
     }
 
+    @Test
+    @WithMockUser(username = "admin@gmail.com", roles = "ADMIN")
+    void updateTask_ShouldReturn409_WhenVersionIsOutdated() throws Exception {
+        String id = "b2f1c5b0-31b1-4a15-9ce0-d20300965218";
+
+        TaskUpdateDto taskUpdateDto = new TaskUpdateDto("title", null, null, null, null, 5L);
+        mockMvc.perform(put("/api/tasks/{id}", id)
+                        .contentType("application/json")
+                        .content(mapper.writeValueAsString(taskUpdateDto)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.status").value("409"))
+                .andExpect(jsonPath("$.message").value(String.format("Task with id %s was modified, current version is 0", id)))
+                .andExpect(jsonPath("$.current.id").value(id))
+                .andExpect(jsonPath("$.current.version").value(0))
+                .andExpect(jsonPath("$.dateTime").exists());
+    }
+
+    @Test
+    @WithMockUser(username = "admin@gmail.com", roles = "ADMIN")
+    void updateTask_ShouldIncrementVersion_WhenVersionIsActual() throws Exception {
+        String id = "b2f1c5b0-31b1-4a15-9ce0-d20300965218";
+
+        TaskUpdateDto taskUpdateDto = new TaskUpdateDto("title", null, null, null, null, 0L);
+        mockMvc.perform(put("/api/tasks/{id}", id)
+                        .contentType("application/json")
+                        .content(mapper.writeValueAsString(taskUpdateDto)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(id))
+                .andExpect(jsonPath("$.version").value(1));
+    }
+
     @Test
     @WithMockUser(username = "test@gmail.com", roles = "USER")
     void deleteTask_ShouldReturn403_WhenUserHasNoRight() throws Exception {
@@ -513,4 +834,96 @@ public class TaskControllerTest {
         mockMvc.perform(delete("/api/tasks/{id}", id))
                 .andExpect(status().isNoContent());
     }
+
+    @Test
+    @WithMockUser(username = "test@gmail.com", roles = "USER")
+    void getTaskStats_ShouldReturn403_WhenUserHasNoRight() throws Exception {
+        mockMvc.perform(get("/api/tasks/stats"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(username = "admin@gmail.com", roles = "ADMIN")
+    void getTaskStats_ShouldReturnCounts_WhenWithoutFilters() throws Exception {
+        mockMvc.perform(get("/api/tasks/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(2))
+                .andExpect(jsonPath("$.byStatus.TODO").value(1))
+                .andExpect(jsonPath("$.byStatus.IN_PROGRESS").value(1))
+                .andExpect(jsonPath("$.byStatus.DONE").value(0))
+                .andExpect(jsonPath("$.byPriority.LOW").value(0))
+                .andExpect(jsonPath("$.byPriority.MEDIUM").value(1))
+                .andExpect(jsonPath("$.byPriority.HIGH").value(1));
+    }
+
+    @Test
+    @WithMockUser(username = "admin@gmail.com", roles = "ADMIN")
+    void getTaskStats_ShouldReturnCounts_WhenFilterByExecutorId() throws Exception {
+        String executorId = "8f7985de-a578-4419-b93f-ff9d29969b11";
+
+        mockMvc.perform(get("/api/tasks/stats").param("executorId", executorId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.executorId").value(executorId))
+                .andExpect(jsonPath("$.total").value(1))
+                .andExpect(jsonPath("$.byStatus.IN_PROGRESS").value(1))
+                .andExpect(jsonPath("$.byPriority.HIGH").value(1));
+    }
+
+    @Test
+    @WithMockUser(username = "admin@gmail.com", roles = "ADMIN")
+    void getTaskStats_ShouldFollowChanges_WhenTasksCreatedUpdatedAndDeleted() throws Exception {
+        String executorId = "8f7985de-a578-4419-b93f-ff9d29969b11";
+        TaskCreationDto taskCreationDto = new TaskCreationDto("new", "new", Task.Priority.LOW, null);
+        TaskUpdateDto taskUpdateDto = new TaskUpdateDto(null, null, null, Task.Status.DONE, UUID.fromString(executorId), null);
+
+        mockMvc.perform(post("/api/tasks")
+                        .contentType("application/json")
+                        .content(mapper.writeValueAsString(taskCreationDto)))
+                .andExpect(status().isCreated());
+        mockMvc.perform(put("/api/tasks/{id}", "b2f1c5b0-31b1-4a15-9ce0-d20300965218")
+                        .contentType("application/json")
+                        .content(mapper.writeValueAsString(taskUpdateDto)))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/tasks/{id}", "ea8efca6-8625-4686-8bf8-7c4153d9666e"))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/tasks/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(2))
+                .andExpect(jsonPath("$.byStatus.TODO").value(1))
+                .andExpect(jsonPath("$.byStatus.IN_PROGRESS").value(0))
+                .andExpect(jsonPath("$.byStatus.DONE").value(1))
+                .andExpect(jsonPath("$.byPriority.LOW").value(1))
+                .andExpect(jsonPath("$.byPriority.MEDIUM").value(1))
+                .andExpect(jsonPath("$.byPriority.HIGH").value(0));
+
+        mockMvc.perform(get("/api/tasks/stats").param("executorId", executorId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(1))
+                .andExpect(jsonPath("$.byStatus.DONE").value(1));
+    }
+
+    @Test
+    @WithMockUser(username = "admin@gmail.com", roles = "ADMIN")
+    void getTaskStatsByExecutor_ShouldReturnCountsPerExecutor() throws Exception {
+        mockMvc.perform(get("/api/tasks/stats/executors"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[?(@.executorId == '8f7985de-a578-4419-b93f-ff9d29969b11')].total").value(1))
+                .andExpect(jsonPath("$[?(@.executorId == null)].byStatus.TODO").value(1));
+    }
+
+    @Test
+    @WithMockUser(username = "admin@gmail.com", roles = "ADMIN")
+    void getTaskStatsByAuthor_ShouldReturnCountsPerAuthor() throws Exception {
+        mockMvc.perform(get("/api/tasks/stats/authors"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].authorId").value("2bc86005-4208-45da-a289-99c9e8c5d432"))
+                .andExpect(jsonPath("$[0].total").value(2));
+    }
+
+    private String syncWatermark(MvcResult result) throws Exception {
+        return mapper.readTree(result.getResponse().getContentAsString()).get("watermark").asText();
+    }
 }
@@ -0,0 +1,144 @@
+package ru.vozov.taskmanagamentsystem.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Sql(scripts = "classpath:sql/data.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:sql/clear.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+public class TaskImportControllerTest {
+    static String CSV = """
+            title,description,priority,executorId
+            Write docs,"Describe import, with comma",HIGH,8f7985de-a578-4419-b93f-ff9d29969b11
+            ,missing title,LOW,
+            Bad executor,desc,LOW,2bc86005-4208-45da-a289-99c9e8c5d432
+            Plain,desc,medium,
+            """;
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    @WithMockUser(username = "admin@gmail.com", roles = "ADMIN")
+    void importTasks_ShouldCreateValidRowsAndReportRejected_WhenUserIsAdmin() throws Exception {
+        mockMvc.perform(multipart("/api/tasks/imports").file(file("tasks.csv", CSV)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.status").value("COMPLETED"))
+                .andExpect(jsonPath("$.processedRows").value(4))
+                .andExpect(jsonPath("$.importedRows").value(2))
+                .andExpect(jsonPath("$.rejectedRows").value(2))
+                .andExpect(jsonPath("$.rowErrors[0].row").value(2))
+                .andExpect(jsonPath("$.rowErrors[0].message").value("title is required field"))
+                .andExpect(jsonPath("$.rowErrors[1].row").value(3))
+                .andExpect(jsonPath("$.rowErrors[1].message").value("Executor must has role USER"));
+
+        mockMvc.perform(get("/api/tasks?executorId=8f7985de-a578-4419-b93f-ff9d29969b11&title=Write docs"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].description").value("Describe import, with comma"))
+                .andExpect(jsonPath("$.content[0].status").value("TODO"));
+
+        assertEquals(2, jdbcTemplate.queryForObject("select count(*) from outbox_event where event_type = 'TASK_CREATED'", Long.class));
+    }
+
+    @Test
+    @WithMockUser(username = "admin@gmail.com", roles = "ADMIN")
+    void importTasks_ShouldImportNdjson_WhenFormatIsNdjson() throws Exception {
+        String ndjson = """
+                {"title":"first","description":"desc","priority":"LOW"}
+                {"title":"second","description":"desc","priority":"UNKNOWN"}
+                """;
+
+        mockMvc.perform(multipart("/api/tasks/imports").file(file("tasks.ndjson", ndjson)).param("format", "ndjson"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.importedRows").value(1))
+                .andExpect(jsonPath("$.rejectedRows").value(1));
+    }
+
+    @Test
+    @WithMockUser(username = "admin@gmail.com", roles = "ADMIN")
+    void resumeImport_ShouldReturn409_WhenImportCompleted() throws Exception {
+        String id = mapper.readTree(
+                mockMvc.perform(multipart("/api/tasks/imports").file(file("tasks.csv", CSV)))
+                        .andReturn()
+                        .getResponse()
+                        .getContentAsString()
+        ).get("id").asText();
+
+        mockMvc.perform(multipart("/api/tasks/imports/{id}", id).file(file("tasks.csv", CSV)))
+                .andExpect(status().isConflict());
+
+        mockMvc.perform(get("/api/tasks/imports/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.processedRows").value(4));
+    }
+
+    @Test
+    @WithMockUser(username = "admin@gmail.com", roles = "ADMIN")
+    void resumeImport_ShouldReturn409_WhenFileDiffersFromOriginal() throws Exception {
+        String id = mapper.readTree(
+                mockMvc.perform(multipart("/api/tasks/imports").file(file("tasks.csv", CSV)))
+                        .andReturn()
+                        .getResponse()
+                        .getContentAsString()
+        ).get("id").asText();
+        //Импорт прерван после первых двух строк
+        jdbcTemplate.update("update task_import set status = 'FAILED', processed_rows = 2 where id = ?", UUID.fromString(id));
+        long tasks = jdbcTemplate.queryForObject("select count(*) from task", Long.class);
+
+        String reordered = """
+                title,description,priority,executorId
+                Plain,desc,medium,
+                Extra,desc,LOW,
+                Write docs,"Describe import, with comma",HIGH,8f7985de-a578-4419-b93f-ff9d29969b11
+                """;
+
+        mockMvc.perform(multipart("/api/tasks/imports/{id}", id).file(file("tasks.csv", reordered)))
+                .andExpect(status().isConflict());
+
+        assertEquals(tasks, jdbcTemplate.queryForObject("select count(*) from task", Long.class));
+        mockMvc.perform(get("/api/tasks/imports/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("FAILED"))
+                .andExpect(jsonPath("$.processedRows").value(2));
+
+        mockMvc.perform(multipart("/api/tasks/imports/{id}", id).file(file("tasks.csv", CSV)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"));
+    }
+
+    @Test
+    @WithMockUser(username = "test@gmail.com", roles = "USER")
+    void importTasks_ShouldReturn403_WhenUserHasNoRight() throws Exception {
+        mockMvc.perform(multipart("/api/tasks/imports").file(file("tasks.csv", CSV)))
+                .andExpect(status().isForbidden());
+    }
+
+    private MockMultipartFile file(String name, String content) {
+        return new MockMultipartFile("file", name, "application/octet-stream", content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -40,6 +40,23 @@ public class UserControllerTest {
                 .andExpect(jsonPath("$.email").value("test@gmail.com"));
     }
 
+    @Test
+    @WithMockUser(username = "test@gmail.com", roles = "USER")
+    void getUser_ShouldReturn304_WhenETagMatches() throws Exception {
+        UUID id = UUID.fromString("8f7985de-a578-4419-b93f-ff9d29969b11");
+
+        String eTag = mockMvc.perform(get("/api/users/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn()
+                .getResponse()
+                .getHeader("ETag");
+
+        mockMvc.perform(get("/api/users/{id}", id).header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", eTag));
+    }
+
     @Test
     @WithMockUser(username = "test@gmail.com", roles = "USER")
     void getUser_ShouldReturn404_WhenUserNotExists() throws Exception {
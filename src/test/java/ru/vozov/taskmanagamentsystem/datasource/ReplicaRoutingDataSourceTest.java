@@ -0,0 +1,105 @@
+package ru.vozov.taskmanagamentsystem.datasource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ReplicaRoutingDataSourceTest {
+    DataSource primary = database("primary");
+    DataSource replica = database("replica");
+
+    JdbcTemplate jdbcTemplate;
+    TransactionTemplate readTransaction;
+    TransactionTemplate writeTransaction;
+
+    @BeforeEach
+    void setUp() {
+        setUp(List.of(replica));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransaction_ShouldUseReplica() {
+        assertEquals("replica", readTransaction.execute(status -> currentDatabase()));
+    }
+
+    @Test
+    void writeTransaction_ShouldUsePrimary() {
+        assertEquals("primary", writeTransaction.execute(status -> currentDatabase()));
+    }
+
+    @Test
+    void readOnlyTransaction_ShouldUsePrimary_WhenSameUserWroteRecently() {
+        authenticate("test@gmail.com");
+        writeTransaction.executeWithoutResult(status -> jdbcTemplate.update("update marker set name = name"));
+
+        assertEquals("primary", readTransaction.execute(status -> currentDatabase()));
+
+        authenticate("admin@gmail.com");
+        assertEquals("replica", readTransaction.execute(status -> currentDatabase()));
+    }
+
+    @Test
+    void readOnlyTransaction_ShouldFallBackToPrimary_WhenReplicaUnavailable() {
+        JdbcDataSource unavailable = new JdbcDataSource();
+        unavailable.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";IFEXISTS=TRUE");
+        setUp(List.of(unavailable));
+
+        assertEquals("primary", readTransaction.execute(status -> currentDatabase()));
+    }
+
+    private void setUp(List<DataSource> replicas) {
+        ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(
+                primary,
+                replicas,
+                new ReadYourWritesTracker(Duration.ofMinutes(1), 100),
+                Duration.ofMinutes(1)
+        );
+        routingDataSource.afterPropertiesSet();
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readTransaction = new TransactionTemplate(transactionManager);
+        readTransaction.setReadOnly(true);
+        writeTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    private String currentDatabase() {
+        return jdbcTemplate.queryForObject("select name from marker", String.class);
+    }
+
+    private void authenticate(String email) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(email, null, List.of()));
+    }
+
+    private static DataSource database(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:routing-" + name + ";DB_CLOSE_DELAY=-1");
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table if not exists marker (name varchar(15))");
+        jdbcTemplate.execute("delete from marker");
+        jdbcTemplate.update("insert into marker (name) values (?)", name);
+        return dataSource;
+    }
+}
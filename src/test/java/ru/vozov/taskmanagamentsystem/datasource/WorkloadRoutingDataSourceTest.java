@@ -0,0 +1,45 @@
+package ru.vozov.taskmanagamentsystem.datasource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class WorkloadRoutingDataSourceTest {
+    JdbcTemplate jdbcTemplate = new JdbcTemplate(routingDataSource());
+
+    @Test
+    void getConnection_ShouldUseDefaultPool_WhenWorkloadNotSet() {
+        assertEquals("default", currentPool());
+    }
+
+    @Test
+    void getConnection_ShouldUseAuthPool_WhenAuthWorkload() {
+        assertEquals("auth", DataSourceWorkload.callAs(DataSourceWorkload.AUTH, this::currentPool));
+        assertEquals("default", currentPool());
+    }
+
+    private String currentPool() {
+        return jdbcTemplate.queryForObject("select name from marker", String.class);
+    }
+
+    private static DataSource routingDataSource() {
+        WorkloadRoutingDataSource dataSource = new WorkloadRoutingDataSource(database("default"), database("auth"));
+        dataSource.afterPropertiesSet();
+        return dataSource;
+    }
+
+    private static DataSource database(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:workload-" + name + ";DB_CLOSE_DELAY=-1");
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table if not exists marker (name varchar(15))");
+        jdbcTemplate.execute("delete from marker");
+        jdbcTemplate.update("insert into marker (name) values (?)", name);
+        return dataSource;
+    }
+}
@@ -0,0 +1,34 @@
+package ru.vozov.taskmanagamentsystem.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BCryptCostPasswordEncoderTest {
+    @Test
+    void upgradeEncoding_ShouldReturnTrue_WhenStrengthDiffersInAnyDirection() {
+        String weak = new BCryptCostPasswordEncoder(4).encode("password");
+        String strong = new BCryptCostPasswordEncoder(6).encode("password");
+        BCryptCostPasswordEncoder encoder = new BCryptCostPasswordEncoder(5);
+
+        assertTrue(encoder.upgradeEncoding(weak));
+        assertTrue(encoder.upgradeEncoding(strong));
+        assertFalse(encoder.upgradeEncoding(encoder.encode("password")));
+        assertTrue(encoder.matches("password", strong));
+    }
+
+    @Test
+    void matches_ShouldRecordTimePerAlgorithm_WhenEncoderIsTimed() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        PasswordEncoder encoder = new TimedPasswordEncoder("bcrypt", new BCryptCostPasswordEncoder(4), meterRegistry);
+        String encoded = encoder.encode("password");
+
+        assertTrue(encoder.matches("password", encoded));
+        assertFalse(encoder.matches("other", encoded));
+        assertEquals(2, meterRegistry.get("password.encoder.matches").tag("algorithm", "bcrypt").timer().count());
+    }
+}
@@ -0,0 +1,59 @@
+package ru.vozov.taskmanagamentsystem.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RateLimiterTest {
+    AtomicLong clock;
+    RateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong();
+        rateLimiter = new RateLimiter(
+                3, Duration.ofSeconds(3),
+                2, Duration.ofSeconds(10),
+                1, Duration.ofMinutes(1),
+                100,
+                clock::get
+        );
+    }
+
+    @Test
+    void tryAcquire_ShouldAllowBurst_WhenBucketIsFull() {
+        assertEquals(0, rateLimiter.tryAcquire(RateLimiter.Budget.READ, "user"));
+        assertEquals(0, rateLimiter.tryAcquire(RateLimiter.Budget.READ, "user"));
+        assertEquals(0, rateLimiter.tryAcquire(RateLimiter.Budget.READ, "user"));
+        assertEquals(TimeUnit.SECONDS.toNanos(1), rateLimiter.tryAcquire(RateLimiter.Budget.READ, "user"));
+    }
+
+    @Test
+    void tryAcquire_ShouldAllowRequest_WhenTokenIsRefilled() {
+        rateLimiter.tryAcquire(RateLimiter.Budget.WRITE, "user");
+        rateLimiter.tryAcquire(RateLimiter.Budget.WRITE, "user");
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(2));
+
+        assertEquals(TimeUnit.SECONDS.toNanos(3), rateLimiter.tryAcquire(RateLimiter.Budget.WRITE, "user"));
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(3));
+
+        assertEquals(0, rateLimiter.tryAcquire(RateLimiter.Budget.WRITE, "user"));
+        assertTrue(rateLimiter.tryAcquire(RateLimiter.Budget.WRITE, "user") > 0);
+    }
+
+    @Test
+    void tryAcquire_ShouldKeepBudgetsSeparate_WhenPrincipalOrBudgetDiffers() {
+        assertEquals(0, rateLimiter.tryAcquire(RateLimiter.Budget.SIGN_IN, "ip:1"));
+        assertTrue(rateLimiter.tryAcquire(RateLimiter.Budget.SIGN_IN, "ip:1") > 0);
+
+        assertEquals(0, rateLimiter.tryAcquire(RateLimiter.Budget.SIGN_IN, "ip:2"));
+        assertEquals(0, rateLimiter.tryAcquire(RateLimiter.Budget.READ, "ip:1"));
+    }
+}
@@ -0,0 +1,148 @@
+package ru.vozov.taskmanagamentsystem.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.vozov.taskmanagamentsystem.event.ChangeEvent;
+import ru.vozov.taskmanagamentsystem.model.Task;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChangeFeedServiceTest {
+    ChangeFeedService changeFeedService = new ChangeFeedService(2, 2, Duration.ofSeconds(5), Duration.ofMinutes(1));
+
+    @AfterEach
+    void tearDown() {
+        changeFeedService.shutdown();
+    }
+
+    @Test
+    void publish_ShouldSendEvent_WhenEventMatchesFilter() throws InterruptedException {
+        UUID executorId = UUID.randomUUID();
+        TestEmitter emitter = new TestEmitter(new CountDownLatch(0));
+        changeFeedService.register(emitter, executorId, null, null);
+
+        changeFeedService.publish(event(executorId));
+
+        assertTrue(emitter.sent.await(5, TimeUnit.SECONDS));
+        assertEquals(1, emitter.events.size());
+    }
+
+    @Test
+    void publish_ShouldNotSendEvent_WhenEventNotMatchesFilter() {
+        TestEmitter emitter = new TestEmitter(new CountDownLatch(0));
+        changeFeedService.register(emitter, UUID.randomUUID(), null, Task.Status.DONE);
+
+        changeFeedService.publish(event(UUID.randomUUID()));
+
+        assertTrue(emitter.events.isEmpty());
+        assertEquals(1, changeFeedService.getSubscribersCount());
+    }
+
+    @Test
+    void publish_ShouldDropSubscriber_WhenSubscriberBufferIsFull() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        TestEmitter slowEmitter = new TestEmitter(release);
+        TestEmitter emitter = new TestEmitter(new CountDownLatch(0));
+        changeFeedService.register(slowEmitter, null, null, null);
+        changeFeedService.register(emitter, null, null, null);
+
+        //Одно событие может зависнуть в отправке, еще два помещаются в буфер
+        for (int i = 0; i < 4; i++) {
+            changeFeedService.publish(event(UUID.randomUUID()));
+        }
+
+        assertTrue(slowEmitter.completed);
+        assertEquals(1, changeFeedService.getSubscribersCount());
+        release.countDown();
+        assertTrue(emitter.sent.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void publish_ShouldDropStalledSubscriber_WhenSendTimeoutExpires() throws InterruptedException {
+        ChangeFeedService singleThreaded = new ChangeFeedService(2, 1, Duration.ofMillis(100), Duration.ofMinutes(1));
+        CountDownLatch release = new CountDownLatch(1);
+        TestEmitter stalledEmitter = new TestEmitter(release);
+        TestEmitter emitter = new TestEmitter(new CountDownLatch(0));
+        singleThreaded.register(stalledEmitter, null, null, null);
+        singleThreaded.register(emitter, null, null, null);
+
+        try {
+            //Клиент перестал читать поток: единственный поток рассылки не должен зависнуть на нем
+            singleThreaded.publish(event(UUID.randomUUID()));
+
+            assertTrue(emitter.sent.await(5, TimeUnit.SECONDS));
+            assertTrue(stalledEmitter.closed.await(5, TimeUnit.SECONDS));
+            assertEquals(1, singleThreaded.getSubscribersCount());
+
+            singleThreaded.publish(event(UUID.randomUUID()));
+
+            assertTrue(emitter.delivered(2));
+        }
+        finally {
+            release.countDown();
+            singleThreaded.shutdown();
+        }
+    }
+
+    private ChangeEvent event(UUID executorId) {
+        return new ChangeEvent(
+                ChangeEvent.Type.TASK_UPDATED,
+                UUID.randomUUID(),
+                null,
+                UUID.randomUUID(),
+                executorId,
+                Task.Status.IN_PROGRESS,
+                LocalDateTime.now()
+        );
+    }
+
+    private static class TestEmitter extends SseEmitter {
+        final List<SseEventBuilder> events = new CopyOnWriteArrayList<>();
+        final CountDownLatch sent = new CountDownLatch(1);
+        final CountDownLatch closed = new CountDownLatch(1);
+        final CountDownLatch release;
+        volatile boolean completed;
+
+        TestEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            try {
+                release.await();
+            }
+            catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            events.add(builder);
+            sent.countDown();
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+            closed.countDown();
+        }
+
+        boolean delivered(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+
+            while (events.size() < count && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+
+            return events.size() == count;
+        }
+    }
+}
@@ -5,11 +5,13 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import ru.vozov.taskmanagamentsystem.dto.CommentCreationDto;
 import ru.vozov.taskmanagamentsystem.dto.CommentUpdateDto;
 import ru.vozov.taskmanagamentsystem.exception.AccessDeniedException;
 import ru.vozov.taskmanagamentsystem.exception.ResourceNotFoundException;
 import ru.vozov.taskmanagamentsystem.exception.TaskNotFoundException;
+import ru.vozov.taskmanagamentsystem.exception.VersionConflictException;
 import ru.vozov.taskmanagamentsystem.model.Comment;
 import ru.vozov.taskmanagamentsystem.model.Role;
 import ru.vozov.taskmanagamentsystem.model.Task;
@@ -17,6 +19,10 @@ import ru.vozov.taskmanagamentsystem.model.User;
 import ru.vozov.taskmanagamentsystem.repository.CommentRepository;
 import ru.vozov.taskmanagamentsystem.repository.TaskRepository;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -36,6 +42,9 @@ public class CommentServiceTest {
     @Mock
     AuthService authService;
 
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     CommentService commentService;
 
@@ -63,6 +72,24 @@ public class CommentServiceTest {
         verify(commentRepository, times(1)).findById(id);
     }
 
+    @Test
+    void findById_ShouldRestrictCreatedAt_WhenIdIsTimeOrdered() {
+        Instant createdAt = Instant.parse("2026-03-15T10:00:00Z");
+        UUID id = CommentIds.generate(createdAt);
+        LocalDateTime from = LocalDateTime.ofInstant(createdAt.minus(Duration.ofDays(1)), ZoneId.systemDefault());
+        LocalDateTime to = LocalDateTime.ofInstant(createdAt.plus(Duration.ofDays(1)), ZoneId.systemDefault());
+        Comment comment = Comment.builder()
+                .id(id)
+                .build();
+
+        when(commentRepository.findByIdAndCreatedAtRange(id, from, to)).thenReturn(Optional.of(comment));
+
+        Comment response = commentService.findById(id);
+        assertEquals(7, id.version());
+        assertEquals(id, response.getId());
+        verify(commentRepository, never()).findById(id);
+    }
+
     @Test
     void save_ShouldThrowException_WhenTaskNotExists() {
         CommentCreationDto commentCreationDto = new CommentCreationDto("test", UUID.randomUUID());
@@ -123,13 +150,15 @@ public class CommentServiceTest {
                 .roles(List.of(new Role(UUID.randomUUID(), "ROLE_ADMIN")))
                 .build();
 
-        when(commentRepository.findById(id)).thenReturn(Optional.of(new Comment()));
+        Comment comment = new Comment();
+
+        when(commentRepository.findById(id)).thenReturn(Optional.of(comment));
         when(authService.getAuthenticatedUser()).thenReturn(user);
 
         commentService.delete(id);
         verify(commentRepository, times(1)).findById(id);
         verify(authService, times(1)).getAuthenticatedUser();
-        verify(commentRepository, times(1)).deleteById(id);
+        verify(commentRepository, times(1)).delete(comment);
     }
 
     @Test
@@ -150,7 +179,7 @@ public class CommentServiceTest {
         commentService.delete(id);
         verify(commentRepository, times(1)).findById(id);
         verify(authService, times(1)).getAuthenticatedUser();
-        verify(commentRepository, times(1)).deleteById(id);
+        verify(commentRepository, times(1)).delete(comment);
     }
 
     @Test
@@ -184,7 +213,7 @@ public class CommentServiceTest {
         User user = User.builder()
                 .roles(List.of(new Role(UUID.randomUUID(), "ROLE_ADMIN")))
                 .build();
-        CommentUpdateDto commentUpdateDto = new CommentUpdateDto("test");
+        CommentUpdateDto commentUpdateDto = new CommentUpdateDto("test", null);
         Comment comment = Comment.builder()
                 .id(id)
                 .text(commentUpdateDto.text())
@@ -209,7 +238,7 @@ public class CommentServiceTest {
                 .id(UUID.randomUUID())
                 .roles(List.of(new Role(UUID.randomUUID(), "ROLE_USER")))
                 .build();
-        CommentUpdateDto commentUpdateDto = new CommentUpdateDto("test");
+        CommentUpdateDto commentUpdateDto = new CommentUpdateDto("test", null);
         Comment comment = Comment.builder()
                 .id(id)
                 .commentator(user)
@@ -227,4 +256,24 @@ public class CommentServiceTest {
         verify(authService, times(1)).getAuthenticatedUser();
         verify(commentRepository, times(1)).save(comment);
     }
+
+    @Test
+    void update_ShouldThrowException_WhenVersionIsOutdated() {
+        UUID id = UUID.randomUUID();
+        User user = User.builder()
+                .roles(List.of(new Role(UUID.randomUUID(), "ROLE_ADMIN")))
+                .build();
+        CommentUpdateDto commentUpdateDto = new CommentUpdateDto("test", 0L);
+        Comment comment = Comment.builder()
+                .id(id)
+                .task(Task.builder().id(UUID.randomUUID()).build())
+                .version(3L)
+                .build();
+
+        when(commentRepository.findById(id)).thenReturn(Optional.of(comment));
+        when(authService.getAuthenticatedUser()).thenReturn(user);
+
+        assertThrowsExactly(VersionConflictException.class, () -> commentService.update(id, commentUpdateDto));
+        verify(commentRepository, never()).save(comment);
+    }
 }
@@ -0,0 +1,56 @@
+package ru.vozov.taskmanagamentsystem.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import ru.vozov.taskmanagamentsystem.exception.VersionConflictException;
+import ru.vozov.taskmanagamentsystem.model.Task;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConflictRetryPolicyTest {
+    @Test
+    void execute_ShouldRetry_WhenUpdateIsCommutativeAndRetryEnabled() {
+        ConflictRetryPolicy policy = new ConflictRetryPolicy(true, 3);
+        AtomicInteger calls = new AtomicInteger();
+
+        String response = policy.execute(() -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException(Task.class, UUID.randomUUID());
+            }
+            return "updated";
+        }, () -> "current", true);
+
+        assertEquals("updated", response);
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    void execute_ShouldThrowConflictWithCurrentState_WhenUpdateIsNotCommutative() {
+        ConflictRetryPolicy policy = new ConflictRetryPolicy(true, 3);
+        AtomicInteger calls = new AtomicInteger();
+
+        VersionConflictException exception = assertThrowsExactly(VersionConflictException.class, () -> policy.execute(() -> {
+            calls.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException(Task.class, UUID.randomUUID());
+        }, () -> "current", false));
+
+        assertEquals("current", exception.getCurrent());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void execute_ShouldNotRetry_WhenRetryDisabled() {
+        ConflictRetryPolicy policy = new ConflictRetryPolicy(false, 3);
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrowsExactly(VersionConflictException.class, () -> policy.execute(() -> {
+            calls.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException(Task.class, UUID.randomUUID());
+        }, () -> "current", true));
+
+        assertEquals(1, calls.get());
+    }
+}
@@ -0,0 +1,158 @@
+package ru.vozov.taskmanagamentsystem.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.vozov.taskmanagamentsystem.exception.AccessDeniedException;
+import ru.vozov.taskmanagamentsystem.exception.IdempotencyKeyInProgressException;
+import ru.vozov.taskmanagamentsystem.exception.IdempotencyKeyMismatchException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class IdempotencyServiceTest {
+    IdempotencyService idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = service(Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        idempotencyService.shutdown();
+    }
+
+    @Test
+    void execute_ShouldRunActionOnce_WhenKeyIsRepeated() {
+        AtomicInteger calls = new AtomicInteger();
+
+        ResponseEntity<String> first = idempotencyService.execute("op", "key", "body", String.class, () -> created(calls));
+        ResponseEntity<String> second = idempotencyService.execute("op", "key", "body", String.class, () -> created(calls));
+
+        assertEquals(1, calls.get());
+        assertEquals(HttpStatus.CREATED, second.getStatusCode());
+        assertEquals(first.getBody(), second.getBody());
+        assertEquals("true", second.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+    }
+
+    @Test
+    void execute_ShouldThrowException_WhenKeyIsReusedWithDifferentBody() {
+        AtomicInteger calls = new AtomicInteger();
+
+        idempotencyService.execute("op", "key", "body", String.class, () -> created(calls));
+
+        assertThrowsExactly(
+                IdempotencyKeyMismatchException.class,
+                () -> idempotencyService.execute("op", "key", "other", String.class, () -> created(calls))
+        );
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void execute_ShouldRunActionAgain_WhenPreviousAttemptFailed() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrowsExactly(AccessDeniedException.class, () -> idempotencyService.execute("op", "key", "body", String.class, () -> {
+            calls.incrementAndGet();
+            throw new AccessDeniedException("denied");
+        }));
+        idempotencyService.execute("op", "key", "body", String.class, () -> created(calls));
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void execute_ShouldCoalesceConcurrentDuplicates_WhenFirstRequestIsInProgress() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<ResponseEntity<String>> first = CompletableFuture.supplyAsync(
+                () -> idempotencyService.execute("op", "key", "body", String.class, () -> {
+                    started.countDown();
+                    await(release);
+                    return created(calls);
+                })
+        );
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<ResponseEntity<String>> second = CompletableFuture.supplyAsync(
+                () -> idempotencyService.execute("op", "key", "body", String.class, () -> created(calls))
+        );
+        release.countDown();
+
+        assertEquals(first.get(5, TimeUnit.SECONDS).getBody(), second.get(5, TimeUnit.SECONDS).getBody());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void execute_ShouldThrowException_WhenConcurrentDuplicateWaitsLongerThanWaitTimeout() throws Exception {
+        IdempotencyService impatient = service(Duration.ofMillis(100));
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try {
+            CompletableFuture<ResponseEntity<String>> first = CompletableFuture.supplyAsync(
+                    () -> impatient.execute("op", "key", "body", String.class, () -> {
+                        started.countDown();
+                        await(release);
+                        return created(calls);
+                    })
+            );
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            //Повтор на том же узле ждет не дольше wait-timeout, а первый запрос завершается как обычно
+            assertThrowsExactly(
+                    IdempotencyKeyInProgressException.class,
+                    () -> impatient.execute("op", "key", "body", String.class, () -> created(calls))
+            );
+            release.countDown();
+
+            assertEquals("created-1", first.get(5, TimeUnit.SECONDS).getBody());
+            assertEquals(1, calls.get());
+        }
+        finally {
+            release.countDown();
+            impatient.shutdown();
+        }
+    }
+
+    private IdempotencyService service(Duration waitTimeout) {
+        return new IdempotencyService(
+                new InMemoryIdempotencyStore(new SimpleMeterRegistry(), 100, Duration.ofHours(1)),
+                new ObjectMapper(),
+                mock(PlatformTransactionManager.class),
+                waitTimeout,
+                Duration.ofMillis(10),
+                Duration.ofSeconds(1)
+        );
+    }
+
+    private ResponseEntity<String> created(AtomicInteger calls) {
+        return new ResponseEntity<>("created-" + calls.incrementAndGet(), HttpStatus.CREATED);
+    }
+
+    private void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
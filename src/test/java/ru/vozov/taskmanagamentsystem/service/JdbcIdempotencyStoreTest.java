@@ -0,0 +1,122 @@
+package ru.vozov.taskmanagamentsystem.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+//Два экземпляра IdempotencyService над одним JdbcIdempotencyStore ведут себя как два узла
+@SpringBootTest
+@Sql(scripts = "classpath:sql/clear.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+public class JdbcIdempotencyStoreTest {
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    IdempotencyService firstNode;
+
+    IdempotencyService secondNode;
+
+    @BeforeEach
+    void setUp() {
+        JdbcIdempotencyStore store = new JdbcIdempotencyStore(jdbcTemplate, Duration.ofHours(1), Duration.ofMillis(200));
+        firstNode = node(store);
+        secondNode = node(store);
+    }
+
+    @AfterEach
+    void tearDown() {
+        firstNode.shutdown();
+        secondNode.shutdown();
+    }
+
+    @Test
+    void execute_ShouldNotRunActionAgain_WhenActionOutlivesPendingTimeout() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+
+        CompletableFuture<ResponseEntity<String>> first = CompletableFuture.supplyAsync(
+                () -> firstNode.execute("op", "key", "body", String.class, () -> {
+                    started.countDown();
+                    sleep(600);
+                    return created(calls);
+                })
+        );
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        //Действие идет втрое дольше pending-timeout, но резерв продлевается, и второй узел ждет ответ, а не выполняет запрос
+        ResponseEntity<String> second = secondNode.execute("op", "key", "body", String.class, () -> created(calls));
+
+        assertEquals(first.get(5, TimeUnit.SECONDS).getBody(), second.getBody());
+        assertEquals("true", second.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void execute_ShouldNotStoreResponse_WhenActionTransactionRollsBack() {
+        AtomicInteger calls = new AtomicInteger();
+
+        //Коммит падает уже после сохранения ответа: ответ откатывается вместе с результатом действия
+        assertThrowsExactly(IllegalStateException.class, () -> firstNode.execute("op", "key", "body", String.class, () -> {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    throw new IllegalStateException("commit failed");
+                }
+            });
+            return created(calls);
+        }));
+
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from idempotency_key", Long.class));
+
+        ResponseEntity<String> retry = secondNode.execute("op", "key", "body", String.class, () -> created(calls));
+
+        assertEquals("created-2", retry.getBody());
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from idempotency_key where response_status is not null", Long.class));
+    }
+
+    private IdempotencyService node(IdempotencyStore store) {
+        return new IdempotencyService(
+                store,
+                new ObjectMapper(),
+                transactionManager,
+                Duration.ofSeconds(5),
+                Duration.ofMillis(10),
+                Duration.ofMillis(50)
+        );
+    }
+
+    private ResponseEntity<String> created(AtomicInteger calls) {
+        return new ResponseEntity<>("created-" + calls.incrementAndGet(), HttpStatus.CREATED);
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
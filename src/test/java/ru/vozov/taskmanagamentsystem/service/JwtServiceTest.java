@@ -0,0 +1,146 @@
+package ru.vozov.taskmanagamentsystem.service;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.UnsupportedJwtException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.core.GrantedAuthority;
+
+import javax.crypto.SecretKey;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JwtServiceTest {
+    static final UUID USER_ID = UUID.randomUUID();
+
+    final SecretKey oldKey = Jwts.SIG.HS256.key().build();
+    final SecretKey newKey = Jwts.SIG.HS256.key().build();
+
+    @Test
+    void getEmail_ShouldAcceptToken_WhenItIsIssuedByAnotherNodeWithSameKeys() {
+        JwtService issuer = hs256(Map.of("k1", oldKey), "k1");
+        JwtService verifier = hs256(Map.of("k1", oldKey), "k1");
+
+        String token = issuer.generateToken(USER_ID, "test@gmail.com", List.of("ROLE_USER"));
+
+        assertEquals("test@gmail.com", verifier.getEmail(token));
+    }
+
+    @Test
+    void getEmail_ShouldAcceptTokenSignedWithPreviousKey_WhenKeyIsRotated() {
+        JwtService beforeRotation = hs256(Map.of("k1", oldKey), "k1");
+        JwtService afterRotation = hs256(Map.of("k1", oldKey, "k2", newKey), "k2");
+
+        String oldToken = beforeRotation.generateToken(USER_ID, "test@gmail.com", List.of("ROLE_USER"));
+        String newToken = afterRotation.generateToken(USER_ID, "test@gmail.com", List.of("ROLE_USER"));
+
+        assertEquals("test@gmail.com", afterRotation.getEmail(oldToken));
+        assertEquals("k2", Jwts.parser().verifyWith(newKey).build().parseSignedClaims(newToken).getHeader().getKeyId());
+    }
+
+    @Test
+    void getEmail_ShouldThrowException_WhenKeyIdIsUnknown() {
+        JwtService retired = hs256(Map.of("k1", oldKey), "k1");
+        JwtService current = hs256(Map.of("k2", newKey), "k2");
+
+        String token = retired.generateToken(USER_ID, "test@gmail.com", List.of("ROLE_USER"));
+
+        assertThrowsExactly(UnsupportedJwtException.class, () -> current.getEmail(token));
+    }
+
+    @Test
+    void getEmail_ShouldVerifyWithPublicKeyOnly_WhenAlgorithmIsAsymmetric() throws Exception {
+        for (String algorithm : List.of(JwtKeyRing.ES256, JwtKeyRing.EDDSA)) {
+            KeyPair keyPair = JwtKeyRing.ES256.equals(algorithm) ? ecKeyPair() : KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+            JwtService issuer = new JwtService(Duration.ofMinutes(15), new JwtKeyRing(algorithm, "k1", keyPair.getPrivate(), Map.of("k1", keyPair.getPublic())), false);
+
+            String token = issuer.generateToken(USER_ID, "test@gmail.com", List.of("ROLE_USER"));
+
+            assertEquals("test@gmail.com", Jwts.parser().verifyWith(keyPair.getPublic()).build().parseSignedClaims(token).getPayload().getSubject());
+            assertEquals(algorithm, issuer.getPublicJwks().get(0).get("alg"));
+        }
+    }
+
+    @Test
+    void getPublicJwks_ShouldBeEmpty_WhenAlgorithmIsSymmetric() {
+        assertTrue(hs256(Map.of("k1", oldKey), "k1").getPublicJwks().isEmpty());
+    }
+
+    @Test
+    void generateToken_ShouldWriteUserIdAndRoleMask_WhenClaimsAreCompact() {
+        JwtService jwtService = new JwtService(Duration.ofMinutes(15), JwtKeyRing.generate(JwtKeyRing.HS256), true);
+
+        Claims claims = jwtService.getClaimsFromToken(jwtService.generateToken(USER_ID, "test@gmail.com", List.of("ROLE_USER", "ROLE_ADMIN")));
+
+        assertTrue(jwtService.isCompact(claims));
+        assertEquals(USER_ID.toString(), claims.getSubject());
+        assertNull(claims.get("roles"));
+        assertEquals(List.of("ROLE_USER", "ROLE_ADMIN"), jwtService.getAuthorities(claims).stream().map(GrantedAuthority::getAuthority).toList());
+        assertSame(jwtService.getAuthorities(claims), jwtService.getAuthorities(claims));
+    }
+
+    @Test
+    void generateToken_ShouldWriteRoleNames_WhenRoleHasNoBit() {
+        JwtService jwtService = new JwtService(Duration.ofMinutes(15), JwtKeyRing.generate(JwtKeyRing.HS256), true);
+
+        Claims claims = jwtService.getClaimsFromToken(jwtService.generateToken(USER_ID, "test@gmail.com", List.of("ROLE_USER", "ROLE_AUDITOR")));
+
+        assertFalse(jwtService.isCompact(claims));
+        assertEquals("test@gmail.com", claims.getSubject());
+        assertEquals(List.of("ROLE_USER", "ROLE_AUDITOR"), claims.get("roles", List.class));
+    }
+
+    @Test
+    void load_ShouldReadKeysById_WhenFileExists(@TempDir Path directory) throws Exception {
+        Path file = directory.resolve("jwt-keys.properties");
+        Files.writeString(file, "k1=" + Base64.getEncoder().encodeToString(oldKey.getEncoded()) + "\n"
+                + "k2=" + Base64.getEncoder().encodeToString(newKey.getEncoded()) + "\n");
+
+        JwtKeyRing keyRing = JwtKeyRing.load(JwtKeyRing.HS256, file.toString(), "k2");
+
+        assertEquals(Base64.getEncoder().encodeToString(newKey.getEncoded()), Base64.getEncoder().encodeToString(keyRing.signingKey().getEncoded()));
+        assertEquals(Base64.getEncoder().encodeToString(oldKey.getEncoded()), Base64.getEncoder().encodeToString(keyRing.verificationKey("k1").getEncoded()));
+    }
+
+    @Test
+    void load_ShouldReadKeyPair_WhenAlgorithmIsAsymmetric(@TempDir Path directory) throws Exception {
+        KeyPair keyPair = ecKeyPair();
+        Path file = directory.resolve("jwt-keys.properties");
+        Files.writeString(file, "k1.private=" + Base64.getEncoder().encodeToString(keyPair.getPrivate().getEncoded()) + "\n"
+                + "k1.public=" + Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded()) + "\n");
+
+        JwtService jwtService = new JwtService(Duration.ofMinutes(15), JwtKeyRing.load(JwtKeyRing.ES256, file.toString(), "k1"), false);
+
+        assertEquals("test@gmail.com", jwtService.getEmail(jwtService.generateToken(USER_ID, "test@gmail.com", List.of("ROLE_USER"))));
+    }
+
+    @Test
+    void constructor_ShouldThrowException_WhenActiveKeyIsMissing() {
+        assertThrowsExactly(IllegalStateException.class, () -> hs256(Map.of("k1", oldKey), "k2"));
+    }
+
+    private JwtService hs256(Map<String, SecretKey> keys, String activeKid) {
+        return new JwtService(Duration.ofMinutes(15), new JwtKeyRing(JwtKeyRing.HS256, activeKid, keys.get(activeKid), keys), false);
+    }
+
+    private KeyPair ecKeyPair() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(256);
+        return generator.generateKeyPair();
+    }
+}
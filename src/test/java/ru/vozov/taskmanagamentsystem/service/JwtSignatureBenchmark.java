@@ -0,0 +1,64 @@
+package ru.vozov.taskmanagamentsystem.service;
+
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+//Стоимость подписи и проверки токена доступа для каждого jwt.algorithm и формата claims. Запуск после mvn test-compile:
+//java -cp target/test-classes:target/classes:<classpath зависимостей> ru.vozov.taskmanagamentsystem.service.JwtSignatureBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtSignatureBenchmark {
+    static final UUID USER_ID = UUID.randomUUID();
+    static final List<String> ROLES = List.of("ROLE_USER", "ROLE_ADMIN");
+
+    @Param({JwtKeyRing.HS256, JwtKeyRing.ES256, JwtKeyRing.EDDSA})
+    String algorithm;
+
+    @Param({"true", "false"})
+    boolean compactClaims;
+
+    JwtService jwtService;
+    String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService(Duration.ofMinutes(15), JwtKeyRing.generate(algorithm), compactClaims);
+        token = jwtService.generateToken(USER_ID, "test@gmail.com", ROLES);
+    }
+
+    @Benchmark
+    public String sign() {
+        return jwtService.generateToken(USER_ID, "test@gmail.com", ROLES);
+    }
+
+    @Benchmark
+    public Claims verify() {
+        return jwtService.getClaimsFromToken(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JwtSignatureBenchmark.class.getSimpleName()).build()).run();
+    }
+}
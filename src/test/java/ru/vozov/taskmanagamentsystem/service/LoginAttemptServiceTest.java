@@ -0,0 +1,84 @@
+package ru.vozov.taskmanagamentsystem.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.vozov.taskmanagamentsystem.exception.SignInLockedException;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
+
+public class LoginAttemptServiceTest {
+    static final String EMAIL = "test@gmail.com";
+    static final String IP = "10.0.0.1";
+
+    AtomicLong clock;
+    LoginAttemptService loginAttemptService;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+        loginAttemptService = new LoginAttemptService(
+                true, 3, 10, Duration.ofMinutes(15), Duration.ofSeconds(1), Duration.ofSeconds(60), 1000, clock::get
+        );
+    }
+
+    @Test
+    void checkAllowed_ShouldThrowException_WhenEmailReachedMaxFailures() {
+        fail(EMAIL, 2);
+        assertDoesNotThrow(() -> loginAttemptService.checkAllowed(EMAIL, IP));
+
+        fail(EMAIL, 1);
+        SignInLockedException e = assertThrowsExactly(SignInLockedException.class, () -> loginAttemptService.checkAllowed("TEST@gmail.com", "10.0.0.2"));
+        assertEquals(1, e.getRetryAfterSeconds());
+    }
+
+    @Test
+    void checkAllowed_ShouldDoubleLockout_WhenFailuresContinue() {
+        fail(EMAIL, 5);
+
+        SignInLockedException e = assertThrowsExactly(SignInLockedException.class, () -> loginAttemptService.checkAllowed(EMAIL, IP));
+        assertEquals(4, e.getRetryAfterSeconds());
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(4));
+        assertDoesNotThrow(() -> loginAttemptService.checkAllowed(EMAIL, IP));
+    }
+
+    @Test
+    void checkAllowed_ShouldLockIp_WhenManyEmailsFailFromSameIp() {
+        for (int i = 0; i < 10; i++) {
+            fail("user" + i + "@gmail.com", 1);
+        }
+
+        assertThrowsExactly(SignInLockedException.class, () -> loginAttemptService.checkAllowed("other@gmail.com", IP));
+        assertDoesNotThrow(() -> loginAttemptService.checkAllowed("other@gmail.com", "10.0.0.2"));
+    }
+
+    @Test
+    void onSuccess_ShouldResetEmailFailures_WhenSignInSucceeded() {
+        fail(EMAIL, 2);
+        loginAttemptService.onSuccess(EMAIL);
+        fail(EMAIL, 2);
+
+        assertDoesNotThrow(() -> loginAttemptService.checkAllowed(EMAIL, IP));
+    }
+
+    @Test
+    void onFailure_ShouldStartNewWindow_WhenWindowExpired() {
+        fail(EMAIL, 2);
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(16));
+        fail(EMAIL, 2);
+
+        assertDoesNotThrow(() -> loginAttemptService.checkAllowed(EMAIL, IP));
+    }
+
+    private void fail(String email, int times) {
+        for (int i = 0; i < times; i++) {
+            loginAttemptService.onFailure(email, IP);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package ru.vozov.taskmanagamentsystem.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.vozov.taskmanagamentsystem.event.ChangeEvent;
+import ru.vozov.taskmanagamentsystem.model.Task;
+import ru.vozov.taskmanagamentsystem.repository.OutboxEventRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+//Захват пачки outbox на настоящей базе: в тестовой конфигурации планировщик relay выключен, поэтому relay создается вручную
+@SpringBootTest
+@Sql(scripts = "classpath:sql/clear.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+public class OutboxClaimTest {
+    @Autowired
+    OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        for (int i = 0; i < 3; i++) {
+            ChangeEvent event = new ChangeEvent(
+                    ChangeEvent.Type.TASK_CREATED,
+                    UUID.randomUUID(),
+                    null,
+                    UUID.randomUUID(),
+                    null,
+                    Task.Status.TODO,
+                    LocalDateTime.now().minusMinutes(3 - i)
+            );
+            jdbcTemplate.update(
+                    "insert into outbox_event (id, event_type, aggregate_id, payload, created_at) values (?, ?, ?, ?, ?)",
+                    UUID.randomUUID(),
+                    event.type().name(),
+                    event.taskId(),
+                    objectMapper.writeValueAsString(event),
+                    event.dateTime()
+            );
+        }
+    }
+
+    @Test
+    void claimBatch_ShouldSkipLeasedEvents_WhenLeaseIsActive() {
+        LocalDateTime now = LocalDateTime.now();
+
+        assertEquals(2, claim(UUID.randomUUID(), now, now.plusMinutes(1), 2));
+        assertEquals(1, claim(UUID.randomUUID(), now, now.plusMinutes(1), 10));
+        assertEquals(0, claim(UUID.randomUUID(), now, now.plusMinutes(1), 10));
+    }
+
+    @Test
+    void claimBatch_ShouldReclaimEvents_WhenLeaseExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        UUID expiredToken = UUID.randomUUID();
+        claim(expiredToken, now, now.plusMinutes(1), 10);
+
+        //Узел, захвативший пачку, не успел ее доставить: после lease события забирает другой узел
+        UUID token = UUID.randomUUID();
+
+        assertEquals(3, claim(token, now.plusMinutes(2), now.plusMinutes(3), 10));
+        assertEquals(3, outboxEventRepository.findByClaimTokenOrderByCreatedAt(token).size());
+        assertEquals(3, jdbcTemplate.queryForObject("select count(*) from outbox_event where attempts = 2", Long.class));
+
+        UUID eventId = outboxEventRepository.findByClaimTokenOrderByCreatedAt(token).get(0).getId();
+        assertEquals(0, transactionTemplate.execute(status -> outboxEventRepository.markProcessed(eventId, expiredToken, now)));
+        assertEquals(1, transactionTemplate.execute(status -> outboxEventRepository.markProcessed(eventId, token, now)));
+    }
+
+    @Test
+    void claimBatch_ShouldNotWaitForRowsLockedByAnotherTransaction() throws Exception {
+        CountDownLatch claimed = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        LocalDateTime now = LocalDateTime.now();
+
+        CompletableFuture<Integer> first = CompletableFuture.supplyAsync(() -> transactionTemplate.execute(status -> {
+            int count = outboxEventRepository.claimBatch(UUID.randomUUID(), now, now.plusMinutes(1), 2);
+            claimed.countDown();
+
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            return count;
+        }));
+
+        try {
+            assertTrue(claimed.await(10, TimeUnit.SECONDS));
+            //Захват первой транзакции еще не зафиксирован, ее строки пропускаются без ожидания блокировки
+            assertEquals(1, claim(UUID.randomUUID(), now, now.plusMinutes(1), 10));
+        }
+        finally {
+            release.countDown();
+        }
+
+        assertEquals(2, first.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void relay_ShouldDeliverEachEventOnceAndMarkItProcessed() {
+        List<ChangeEvent> delivered = new CopyOnWriteArrayList<>();
+        OutboxRelay outboxRelay = new OutboxRelay(
+                outboxEventRepository,
+                objectMapper,
+                List.of(delivered::add),
+                transactionManager,
+                2,
+                Duration.ofMinutes(1),
+                Duration.ofSeconds(30),
+                Duration.ofDays(7)
+        );
+
+        outboxRelay.relay();
+        outboxRelay.relay();
+
+        assertEquals(3, delivered.size());
+        assertEquals(3, jdbcTemplate.queryForObject("select count(*) from outbox_event where processed_at is not null and claim_token is null", Long.class));
+    }
+
+    private int claim(UUID token, LocalDateTime now, LocalDateTime claimedUntil, int batchSize) {
+        Integer claimed = transactionTemplate.execute(status -> outboxEventRepository.claimBatch(token, now, claimedUntil, batchSize));
+        return claimed == null ? 0 : claimed;
+    }
+}
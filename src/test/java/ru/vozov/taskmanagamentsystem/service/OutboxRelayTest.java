@@ -0,0 +1,131 @@
+package ru.vozov.taskmanagamentsystem.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.vozov.taskmanagamentsystem.event.ChangeEvent;
+import ru.vozov.taskmanagamentsystem.event.OutboxConsumer;
+import ru.vozov.taskmanagamentsystem.model.OutboxEvent;
+import ru.vozov.taskmanagamentsystem.model.Task;
+import ru.vozov.taskmanagamentsystem.repository.OutboxEventRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class OutboxRelayTest {
+    @Mock
+    OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    OutboxConsumer outboxConsumer;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    OutboxRelay outboxRelay;
+
+    @BeforeEach
+    void setUp() {
+        outboxRelay = new OutboxRelay(
+                outboxEventRepository,
+                objectMapper,
+                List.of(outboxConsumer),
+                transactionManager,
+                10,
+                Duration.ofMinutes(1),
+                Duration.ofSeconds(30),
+                Duration.ofDays(7)
+        );
+    }
+
+    @Test
+    void relayBatch_ShouldReturnZero_WhenNothingClaimed() {
+        when(outboxEventRepository.claimBatch(any(UUID.class), any(LocalDateTime.class), any(LocalDateTime.class), eq(10))).thenReturn(0);
+
+        assertEquals(0, outboxRelay.relayBatch());
+        verify(outboxEventRepository, never()).findByClaimTokenOrderByCreatedAt(any(UUID.class));
+        verifyNoInteractions(outboxConsumer);
+    }
+
+    @Test
+    void relayBatch_ShouldDeliverAndMarkProcessed_WhenEventClaimed() throws Exception {
+        ChangeEvent event = event();
+        OutboxEvent outboxEvent = outboxEvent(event);
+
+        when(outboxEventRepository.claimBatch(any(UUID.class), any(LocalDateTime.class), any(LocalDateTime.class), eq(10))).thenReturn(1);
+        when(outboxEventRepository.findByClaimTokenOrderByCreatedAt(any(UUID.class))).thenReturn(List.of(outboxEvent));
+
+        assertEquals(1, outboxRelay.relayBatch());
+        verify(outboxConsumer, times(1)).accept(event);
+        verify(outboxEventRepository, times(1)).markProcessed(eq(outboxEvent.getId()), any(UUID.class), any(LocalDateTime.class));
+        verify(outboxEventRepository, never()).markFailed(any(UUID.class), any(UUID.class), any(LocalDateTime.class), anyString());
+    }
+
+    @Test
+    void relayBatch_ShouldReleaseForRetry_WhenConsumerFails() throws Exception {
+        ChangeEvent event = event();
+        OutboxEvent outboxEvent = outboxEvent(event);
+
+        when(outboxEventRepository.claimBatch(any(UUID.class), any(LocalDateTime.class), any(LocalDateTime.class), eq(10))).thenReturn(1);
+        when(outboxEventRepository.findByClaimTokenOrderByCreatedAt(any(UUID.class))).thenReturn(List.of(outboxEvent));
+        doThrow(new IllegalStateException("consumer is unavailable")).when(outboxConsumer).accept(event);
+
+        outboxRelay.relayBatch();
+        verify(outboxEventRepository, never()).markProcessed(any(UUID.class), any(UUID.class), any(LocalDateTime.class));
+        verify(outboxEventRepository, times(1)).markFailed(eq(outboxEvent.getId()), any(UUID.class), any(LocalDateTime.class), eq("consumer is unavailable"));
+    }
+
+    @Test
+    void relay_ShouldNotClaimEvents_WhenNoConsumersConfigured() {
+        OutboxRelay withoutConsumers = new OutboxRelay(
+                outboxEventRepository,
+                objectMapper,
+                List.of(),
+                transactionManager,
+                10,
+                Duration.ofMinutes(1),
+                Duration.ofSeconds(30),
+                Duration.ofDays(7)
+        );
+
+        withoutConsumers.relay();
+
+        verifyNoInteractions(outboxEventRepository);
+    }
+
+    private ChangeEvent event() {
+        return new ChangeEvent(
+                ChangeEvent.Type.TASK_UPDATED,
+                UUID.randomUUID(),
+                null,
+                UUID.randomUUID(),
+                null,
+                Task.Status.DONE,
+                LocalDateTime.now()
+        );
+    }
+
+    private OutboxEvent outboxEvent(ChangeEvent event) throws Exception {
+        return OutboxEvent.builder()
+                .id(UUID.randomUUID())
+                .eventType(event.type())
+                .aggregateId(event.taskId())
+                .payload(objectMapper.writeValueAsString(event))
+                .createdAt(event.dateTime())
+                .attempts(1)
+                .build();
+    }
+}
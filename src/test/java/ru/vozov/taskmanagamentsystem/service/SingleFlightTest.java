@@ -0,0 +1,102 @@
+package ru.vozov.taskmanagamentsystem.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.vozov.taskmanagamentsystem.exception.ResourceNotFoundException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SingleFlightTest {
+    SimpleMeterRegistry meterRegistry;
+    SingleFlight singleFlight;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        singleFlight = new SingleFlight(meterRegistry);
+    }
+
+    @Test
+    void execute_ShouldShareOneCall_WhenIdenticalCallsAreConcurrent() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> singleFlight.execute("find", 1, () -> {
+            started.countDown();
+            await(release);
+            return "value-" + loads.incrementAndGet();
+        }), executor);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        List<CompletableFuture<String>> followers = new ArrayList<>();
+
+        for (int i = 0; i < 3; i++) {
+            followers.add(CompletableFuture.supplyAsync(() -> singleFlight.execute("find", 1, () -> "value-" + loads.incrementAndGet()), executor));
+        }
+
+        //Ждем, пока все повторы присоединятся к выполняющемуся вызову
+        while (collapsed() < 3) {
+            Thread.sleep(5);
+        }
+
+        release.countDown();
+
+        assertEquals("value-1", first.get(5, TimeUnit.SECONDS));
+
+        for (CompletableFuture<String> follower : followers) {
+            assertEquals("value-1", follower.get(5, TimeUnit.SECONDS));
+        }
+
+        executor.shutdown();
+        assertEquals(1, loads.get());
+        assertEquals(1, meterRegistry.get("single.flight.calls").tag("result", "executed").counter().count());
+    }
+
+    @Test
+    void execute_ShouldCallLoaderAgain_WhenPreviousCallCompleted() {
+        AtomicInteger loads = new AtomicInteger();
+
+        singleFlight.execute("find", 1, loads::incrementAndGet);
+        singleFlight.execute("find", 1, loads::incrementAndGet);
+        singleFlight.execute("find", 2, loads::incrementAndGet);
+
+        assertEquals(3, loads.get());
+        assertEquals(0, collapsed());
+    }
+
+    @Test
+    void execute_ShouldPropagateException_WhenLoaderFails() {
+        assertThrowsExactly(ResourceNotFoundException.class, () -> singleFlight.execute("find", 1, () -> {
+            throw new ResourceNotFoundException("not found");
+        }));
+    }
+
+    private double collapsed() {
+        return meterRegistry.find("single.flight.calls").tag("result", "collapsed").counters().stream()
+                .mapToDouble(counter -> counter.count())
+                .sum();
+    }
+
+    private void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
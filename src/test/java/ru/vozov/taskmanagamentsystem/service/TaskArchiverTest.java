@@ -0,0 +1,116 @@
+package ru.vozov.taskmanagamentsystem.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.vozov.taskmanagamentsystem.model.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@Sql(scripts = "classpath:sql/data.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:sql/clear.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+public class TaskArchiverTest {
+    static final UUID DONE_TASK_ID = UUID.fromString("ea8efca6-8625-4686-8bf8-7c4153d9666e");
+    static final UUID ACTIVE_TASK_ID = UUID.fromString("b2f1c5b0-31b1-4a15-9ce0-d20300965218");
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    TaskService taskService;
+
+    @Autowired
+    TaskArchiveService taskArchiveService;
+
+    @Autowired
+    TaskSyncService taskSyncService;
+
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    TaskArchiver taskArchiver;
+
+    @BeforeEach
+    void setUp() {
+        taskArchiver = new TaskArchiver(jdbcTemplate, transactionManager, eventPublisher, Duration.ofDays(90), 1, 10);
+        jdbcTemplate.update(
+                "update task set status = 'DONE', updated_at = ? where id = ?",
+                LocalDateTime.now().minusYears(1),
+                DONE_TASK_ID
+        );
+    }
+
+    @Test
+    void archiveBatch_ShouldMoveOldDoneTaskWithComments_WhenTaskIsOlderThanThreshold() {
+        assertEquals(1, taskArchiver.archiveBatch());
+
+        assertEquals(0, count("select count(*) from task where id = ?", DONE_TASK_ID));
+        assertEquals(0, count("select count(*) from comment where task_id = ?", DONE_TASK_ID));
+        assertEquals(1, count("select count(*) from task_archive where id = ?", DONE_TASK_ID));
+        assertEquals(2, count("select count(*) from comment_archive where task_id = ?", DONE_TASK_ID));
+        assertEquals(0, taskArchiver.archiveBatch());
+    }
+
+    @Test
+    void archiveBatch_ShouldSkipTask_WhenTaskIsNotDone() {
+        jdbcTemplate.update(
+                "update task set status = 'IN_PROGRESS' where id = ?",
+                DONE_TASK_ID
+        );
+
+        assertEquals(0, taskArchiver.archiveBatch());
+        assertEquals(0, count("select count(*) from task_archive where id = ?", DONE_TASK_ID));
+    }
+
+    @Test
+    void findTasksByFilter_ShouldAppendArchivedTasks_WhenArchiveIsIncluded() {
+        taskArchiver.archive();
+
+        Page<Task> active = taskService.findTasksByFilter(null, null, null, null, null, null, PageRequest.of(0, 20));
+        Page<Task> all = taskArchiveService.findTasksByFilter(null, null, null, null, null, null, PageRequest.of(0, 20));
+        Page<Task> secondPage = taskArchiveService.findTasksByFilter(null, null, null, null, null, null, PageRequest.of(1, 1));
+
+        assertEquals(1, active.getTotalElements());
+        assertEquals(ACTIVE_TASK_ID, active.getContent().get(0).getId());
+        assertEquals(2, all.getTotalElements());
+        assertEquals(ACTIVE_TASK_ID, all.getContent().get(0).getId());
+        assertEquals(DONE_TASK_ID, all.getContent().get(1).getId());
+        assertEquals(2, all.getContent().get(1).getComments().size());
+        assertEquals(1, secondPage.getContent().size());
+        assertEquals(DONE_TASK_ID, secondPage.getContent().get(0).getId());
+    }
+
+    @Test
+    void archiveBatch_ShouldReportArchivedTaskAsDeleted_WhenClientSyncsIncrementally() {
+        TaskSyncService.Changes initial = taskSyncService.findChanges(null, 100);
+
+        taskArchiver.archiveBatch();
+        TaskSyncService.Changes changes = taskSyncService.findChanges(initial.watermark(), 100);
+
+        assertEquals(2, initial.tasks().size());
+        assertTrue(changes.tasks().isEmpty());
+        assertEquals(List.of(DONE_TASK_ID), changes.deletedTaskIds());
+        assertEquals(1, count("select count(*) from outbox_event where event_type = 'TASK_ARCHIVED' and aggregate_id = ?", DONE_TASK_ID));
+    }
+
+    private long count(String sql, UUID id) {
+        return jdbcTemplate.queryForObject(sql, Long.class, id);
+    }
+}
@@ -0,0 +1,78 @@
+package ru.vozov.taskmanagamentsystem.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.vozov.taskmanagamentsystem.dto.TaskStatsDto;
+import ru.vozov.taskmanagamentsystem.model.Task;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@Sql(scripts = "classpath:sql/data.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:sql/clear.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+public class TaskCounterCompactorTest {
+    static final UUID ADMIN_ID = UUID.fromString("2bc86005-4208-45da-a289-99c9e8c5d432");
+    static final UUID USER_ID = UUID.fromString("8f7985de-a578-4419-b93f-ff9d29969b11");
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    TaskCounterService taskCounterService;
+
+    TaskCounterCompactor taskCounterCompactor;
+
+    @BeforeEach
+    void setUp() {
+        taskCounterCompactor = new TaskCounterCompactor(jdbcTemplate, transactionManager);
+    }
+
+    @Test
+    void compactDeltas_ShouldMoveDeltasToCounters_WhenDeltasExist() {
+        assertEquals(2, taskCounterCompactor.compactDeltas());
+
+        assertEquals(0, count("task_counter_delta"));
+        assertEquals(2, count("task_counter"));
+        assertEquals(2, taskCounterService.findStats(null, null).total());
+    }
+
+    @Test
+    void compactDeltas_ShouldMergeIntoExistingCountersAndDropEmpty_WhenCompactedTwice() {
+        TaskCounterService.Key inProgress = new TaskCounterService.Key(ADMIN_ID, USER_ID, Task.Status.IN_PROGRESS, Task.Priority.HIGH);
+        TaskCounterService.Key done = new TaskCounterService.Key(ADMIN_ID, USER_ID, Task.Status.DONE, Task.Priority.HIGH);
+
+        taskCounterCompactor.compactDeltas();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> taskCounterService.move(inProgress, done));
+
+        assertEquals(2, taskCounterCompactor.compactDeltas());
+
+        TaskStatsDto stats = taskCounterService.findStats(null, USER_ID);
+        assertEquals(1, stats.total());
+        assertEquals(0, stats.byStatus().get(Task.Status.IN_PROGRESS));
+        assertEquals(1, stats.byStatus().get(Task.Status.DONE));
+        assertEquals(0, count("task_counter_delta"));
+        assertEquals(2, count("task_counter"));
+    }
+
+    @Test
+    void compactDeltas_ShouldReturnZero_WhenNoDeltas() {
+        taskCounterCompactor.compactDeltas();
+
+        assertEquals(0, taskCounterCompactor.compactDeltas());
+    }
+
+    private long count(String table) {
+        return jdbcTemplate.queryForObject("select count(*) from " + table, Long.class);
+    }
+}
@@ -0,0 +1,69 @@
+package ru.vozov.taskmanagamentsystem.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import ru.vozov.taskmanagamentsystem.dto.TaskDto;
+import ru.vozov.taskmanagamentsystem.event.ChangeEvent;
+import ru.vozov.taskmanagamentsystem.model.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TaskDtoCacheTest {
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    TaskDtoCache taskDtoCache = new TaskDtoCache(
+            new ObjectMapper().registerModule(new JavaTimeModule()),
+            meterRegistry,
+            1024 * 1024,
+            Duration.ofMinutes(5)
+    );
+
+    @Test
+    void get_ShouldReturnCachedTask_WhenETagNotChanged() {
+        UUID id = UUID.randomUUID();
+        AtomicInteger loads = new AtomicInteger();
+
+        TaskDto first = taskDtoCache.get(id, "\"1\"", () -> load(id, loads));
+        TaskDto second = taskDtoCache.get(id, "\"1\"", () -> load(id, loads));
+
+        assertEquals(1, loads.get());
+        assertEquals(first, second);
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "task-dto").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void get_ShouldReloadTask_WhenETagChanged() {
+        UUID id = UUID.randomUUID();
+        AtomicInteger loads = new AtomicInteger();
+
+        taskDtoCache.get(id, "\"1\"", () -> load(id, loads));
+        taskDtoCache.get(id, "\"2\"", () -> load(id, loads));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void evict_ShouldRemoveTask_WhenTaskChanged() {
+        UUID id = UUID.randomUUID();
+        AtomicInteger loads = new AtomicInteger();
+
+        taskDtoCache.get(id, "\"1\"", () -> load(id, loads));
+        taskDtoCache.evict(new ChangeEvent(ChangeEvent.Type.COMMENT_CREATED, id, UUID.randomUUID(), null, null, Task.Status.TODO, LocalDateTime.now()));
+
+        assertEquals(0, taskDtoCache.size());
+        taskDtoCache.get(id, "\"1\"", () -> load(id, loads));
+        assertEquals(2, loads.get());
+    }
+
+    private TaskDto load(UUID id, AtomicInteger loads) {
+        loads.incrementAndGet();
+        return new TaskDto(id, "test", "test", Task.Priority.LOW, Task.Status.TODO, null, null, null, null, 0L, List.of());
+    }
+}
@@ -0,0 +1,56 @@
+package ru.vozov.taskmanagamentsystem.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import ru.vozov.taskmanagamentsystem.exception.UnsupportedFileFormatException;
+import ru.vozov.taskmanagamentsystem.model.Task;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TaskImportParserTest {
+    ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void next_ShouldParseQuotedFields_WhenFieldContainsQuotesAndLineBreaks() throws Exception {
+        String csv = "priority,title,description\r\nLOW,\"say \"\"hi\"\"\",\"first line\nsecond line\"\r\n";
+
+        try (TaskImportParser parser = new TaskImportParser(TaskFileFormat.CSV, stream(csv), objectMapper)) {
+            TaskImportParser.Row row = parser.next();
+
+            assertEquals(1, row.number());
+            assertEquals("say \"hi\"", row.task().title());
+            assertEquals("first line\nsecond line", row.task().description());
+            assertEquals(Task.Priority.LOW, row.task().priority());
+            assertNull(row.task().executorId());
+            assertFalse(parser.hasNext());
+        }
+    }
+
+    @Test
+    void next_ShouldRejectRow_WhenExecutorIdIsNotUuid() throws Exception {
+        String csv = "title,description,priority,executorId\ntitle,desc,HIGH,42\n";
+
+        try (TaskImportParser parser = new TaskImportParser(TaskFileFormat.CSV, stream(csv), objectMapper)) {
+            TaskImportParser.Row row = parser.next();
+
+            assertNull(row.task());
+            assertEquals("executorId must be a valid UUID", row.error());
+        }
+    }
+
+    @Test
+    void constructor_ShouldThrowException_WhenRequiredColumnMissing() {
+        assertThrowsExactly(
+                UnsupportedFileFormatException.class,
+                () -> new TaskImportParser(TaskFileFormat.CSV, stream("title,priority\n"), objectMapper)
+        );
+    }
+
+    private InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
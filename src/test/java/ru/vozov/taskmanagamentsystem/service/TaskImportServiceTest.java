@@ -0,0 +1,57 @@
+package ru.vozov.taskmanagamentsystem.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.jdbc.Sql;
+import ru.vozov.taskmanagamentsystem.exception.TaskImportStateException;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
+
+@SpringBootTest
+@Sql(scripts = "classpath:sql/data.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:sql/clear.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+public class TaskImportServiceTest {
+    static String CSV = """
+            title,description,priority,executorId
+            Reclaimed,desc,LOW,
+            """;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    TaskImportService taskImportService;
+
+    @Test
+    @WithMockUser(username = "admin@gmail.com", roles = "ADMIN")
+    void start_ShouldAbortWithoutProgress_WhenImportIsReclaimedByAnotherRun() {
+        //Пока файл дочитывается, импорт после stale-after захватывает другой запуск
+        InputStreamSource reclaimedAtEnd = () -> new SequenceInputStream(
+                new ByteArrayInputStream(CSV.getBytes(StandardCharsets.UTF_8)),
+                new InputStream() {
+                    @Override
+                    public int read() {
+                        jdbcTemplate.update("update task_import set claim_token = ? where status = 'RUNNING'", UUID.randomUUID());
+                        return -1;
+                    }
+                }
+        );
+
+        assertThrowsExactly(TaskImportStateException.class, () -> taskImportService.start(TaskFileFormat.CSV, "tasks.csv", reclaimedAtEnd));
+
+        assertEquals("RUNNING", jdbcTemplate.queryForObject("select status from task_import", String.class));
+        assertEquals(0, jdbcTemplate.queryForObject("select processed_rows from task_import", Long.class));
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from task where title = 'Reclaimed'", Long.class));
+    }
+}
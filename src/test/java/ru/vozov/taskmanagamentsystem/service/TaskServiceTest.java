@@ -5,8 +5,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import ru.vozov.taskmanagamentsystem.dto.TaskCreationDto;
+import ru.vozov.taskmanagamentsystem.dto.TaskDto;
 import ru.vozov.taskmanagamentsystem.dto.TaskUpdateDto;
+import ru.vozov.taskmanagamentsystem.event.ChangeEvent;
 import ru.vozov.taskmanagamentsystem.exception.*;
 import ru.vozov.taskmanagamentsystem.model.Role;
 import ru.vozov.taskmanagamentsystem.model.Task;
@@ -33,13 +36,19 @@ public class TaskServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private TaskCounterService taskCounterService;
+
     @InjectMocks
     private TaskService taskService;
 
     @Test
     void findById_ShouldReturnTask_WhenTaskExists() {
         UUID id = UUID.randomUUID();
-        Task task = new Task(id, "test", "test", Task.Priority.LOW, Task.Status.TODO, null, null, List.of());
+        Task task = new Task(id, "test", "test", Task.Priority.LOW, Task.Status.TODO, null, null, List.of(), 0L, null, null, null, null);
 
         when(taskRepository.findById(id)).thenReturn(Optional.of(task));
 
@@ -100,6 +109,7 @@ public class TaskServiceTest {
         assertEquals(task.getStatus(), response.getStatus());
         assertEquals(task.getAuthor().getId(), response.getAuthor().getId());
         assertTrue(Objects.isNull(response.getComments()));
+        verify(taskCounterService, times(1)).increment(new TaskCounterService.Key(user.getId(), null, Task.Status.TODO, Task.Priority.LOW));
     }
 
     @Test
@@ -138,7 +148,7 @@ public class TaskServiceTest {
     @Test
     void update_ShouldThrowException_WhenTaskNotExists() {
         UUID id = UUID.randomUUID();
-        TaskUpdateDto taskUpdateDto = new TaskUpdateDto("test", "test", Task.Priority.LOW, Task.Status.TODO, null);
+        TaskUpdateDto taskUpdateDto = new TaskUpdateDto("test", "test", Task.Priority.LOW, Task.Status.TODO, null, null);
 
         when(taskRepository.findById(id)).thenReturn(Optional.empty());
 
@@ -149,7 +159,7 @@ public class TaskServiceTest {
     @Test
     void update_ShouldThrowException_WhenUserHasNoRightsToUpdate() {
         UUID id = UUID.randomUUID();
-        TaskUpdateDto taskUpdateDto = new TaskUpdateDto("test", "test", Task.Priority.LOW, Task.Status.TODO, null);
+        TaskUpdateDto taskUpdateDto = new TaskUpdateDto("test", "test", Task.Priority.LOW, Task.Status.TODO, null, null);
         Task task = Task.builder()
                 .executor(User.builder().id(UUID.randomUUID()).build())
                 .build();
@@ -169,7 +179,7 @@ public class TaskServiceTest {
     @Test
     void update_ShouldThrowException_WhenUserIsAdminAndNoDataToUpdate() {
         UUID id = UUID.randomUUID();
-        TaskUpdateDto taskUpdateDto = new TaskUpdateDto(null, null, null, null, null);
+        TaskUpdateDto taskUpdateDto = new TaskUpdateDto(null, null, null, null, null, null);
         Task task = new Task();
         User user = User.builder()
                 .id(UUID.randomUUID())
@@ -187,7 +197,7 @@ public class TaskServiceTest {
     @Test
     void update_ShouldThrowException_WhenUserIsAdminAndTitleIsBlank() {
         UUID id = UUID.randomUUID();
-        TaskUpdateDto taskUpdateDto = new TaskUpdateDto(" ", null, null, null, null);
+        TaskUpdateDto taskUpdateDto = new TaskUpdateDto(" ", null, null, null, null, null);
         Task task = new Task();
         User user = User.builder()
                 .id(UUID.randomUUID())
@@ -205,7 +215,7 @@ public class TaskServiceTest {
     @Test
     void update_ShouldThrowException_WhenUserIsAdminAndExecutorNotExists() {
         UUID id = UUID.randomUUID();
-        TaskUpdateDto taskUpdateDto = new TaskUpdateDto(null, null, null, null, UUID.randomUUID());
+        TaskUpdateDto taskUpdateDto = new TaskUpdateDto(null, null, null, null, UUID.randomUUID(), null);
         Task task = new Task();
         User user = User.builder()
                 .id(UUID.randomUUID())
@@ -225,7 +235,7 @@ public class TaskServiceTest {
     @Test
     void update_ShouldThrowException_WhenUserIsAdminAndExecutorIsAdmin() {
         UUID id = UUID.randomUUID();
-        TaskUpdateDto taskUpdateDto = new TaskUpdateDto(null, null, null, null, UUID.randomUUID());
+        TaskUpdateDto taskUpdateDto = new TaskUpdateDto(null, null, null, null, UUID.randomUUID(), null);
         Task task = new Task();
         User user = User.builder()
                 .id(UUID.randomUUID())
@@ -248,7 +258,7 @@ public class TaskServiceTest {
     @Test
     void update_ShouldReturnTask_WhenUserIsAdminAndFieldsAreCorrect() {
         UUID id = UUID.randomUUID();
-        TaskUpdateDto taskUpdateDto = new TaskUpdateDto("test", "test", Task.Priority.LOW, Task.Status.DONE, UUID.randomUUID());
+        TaskUpdateDto taskUpdateDto = new TaskUpdateDto("test", "test", Task.Priority.LOW, Task.Status.DONE, UUID.randomUUID(), null);
         User executor = User.builder()
                 .id(taskUpdateDto.executorId())
                 .roles(List.of(new Role(UUID.randomUUID(), "ROLE_USER")))
@@ -289,7 +299,7 @@ public class TaskServiceTest {
     void update_ShouldThrowException_WhenUserIsExecutorAndStatusIsNull() {
         UUID id = UUID.randomUUID();
         UUID executorId = UUID.randomUUID();
-        TaskUpdateDto taskUpdateDto = new TaskUpdateDto(null, null, null, null, null);
+        TaskUpdateDto taskUpdateDto = new TaskUpdateDto(null, null, null, null, null, null);
         User user = User.builder()
                 .id(executorId)
                 .roles(List.of(new Role(UUID.randomUUID(), "ROLE_USER")))
@@ -314,7 +324,7 @@ public class TaskServiceTest {
     void update_ShouldReturnTask_WhenUserIsExecutorAndStatusIsNotNull() {
         UUID id = UUID.randomUUID();
         UUID executorId = UUID.randomUUID();
-        TaskUpdateDto taskUpdateDto = new TaskUpdateDto(null, null, null, Task.Status.DONE, null);
+        TaskUpdateDto taskUpdateDto = new TaskUpdateDto(null, null, null, Task.Status.DONE, null, null);
         User user = User.builder()
                 .id(executorId)
                 .roles(List.of(new Role(UUID.randomUUID(), "ROLE_USER")))
@@ -340,24 +350,55 @@ public class TaskServiceTest {
         verify(taskRepository, times(1)).findById(id);
     }
 
+    @Test
+    void update_ShouldThrowException_WhenVersionIsOutdated() {
+        UUID id = UUID.randomUUID();
+        TaskUpdateDto taskUpdateDto = new TaskUpdateDto("test", null, null, null, null, 1L);
+        Task task = Task.builder()
+                .id(id)
+                .version(2L)
+                .build();
+        User user = User.builder()
+                .id(UUID.randomUUID())
+                .roles(List.of(new Role(UUID.randomUUID(), "ROLE_ADMIN")))
+                .build();
+
+        when(taskRepository.findById(id)).thenReturn(Optional.of(task));
+        when(authService.getAuthenticatedUser()).thenReturn(user);
+
+        VersionConflictException exception = assertThrowsExactly(VersionConflictException.class, () -> taskService.update(id, taskUpdateDto));
+        assertEquals(2L, ((TaskDto) exception.getCurrent()).version());
+        verify(taskRepository, never()).save(any(Task.class));
+    }
+
     @Test
     void delete_ShouldThrowException_WhenTaskNotExists() {
         UUID id = UUID.randomUUID();
 
-        when(taskRepository.existsById(id)).thenReturn(false);
+        when(taskRepository.findById(id)).thenReturn(Optional.empty());
 
         assertThrowsExactly(ResourceNotFoundException.class, () -> taskService.delete(id));
-        verify(taskRepository, times(1)).existsById(id);
+        verify(taskRepository, times(1)).findById(id);
+        verify(taskRepository, never()).deleteById(id);
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+        verifyNoInteractions(taskCounterService);
     }
 
     @Test
     void delete_ShouldDelete_WhenTaskExists() {
         UUID id = UUID.randomUUID();
+        Task task = new Task(id, "test", "test", Task.Priority.LOW, Task.Status.TODO, null, null, List.of(), 0L, null, null, null, null);
 
-        when(taskRepository.existsById(id)).thenReturn(true);
+        when(taskRepository.findById(id)).thenReturn(Optional.of(task));
 
         taskService.delete(id);
-        verify(taskRepository, times(1)).existsById(id);
+        verify(taskRepository, times(1)).findById(id);
         verify(taskRepository, times(1)).deleteById(id);
+        verify(taskCounterService, times(1)).decrement(new TaskCounterService.Key(null, null, Task.Status.TODO, Task.Priority.LOW));
+        verify(eventPublisher, times(1)).publishEvent(argThat((Object event) ->
+                event instanceof ChangeEvent changeEvent
+                        && changeEvent.type() == ChangeEvent.Type.TASK_DELETED
+                        && id.equals(changeEvent.taskId())
+        ));
     }
 }
@@ -0,0 +1,154 @@
+package ru.vozov.taskmanagamentsystem.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import ru.vozov.taskmanagamentsystem.model.RevokedToken;
+import ru.vozov.taskmanagamentsystem.model.RevokedUser;
+import ru.vozov.taskmanagamentsystem.repository.RevokedTokenRepository;
+import ru.vozov.taskmanagamentsystem.repository.RevokedUserRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class TokenRevocationServiceTest {
+    @Mock
+    RevokedTokenRepository revokedTokenRepository;
+
+    @Mock
+    RevokedUserRepository revokedUserRepository;
+
+    TokenRevocationService tokenRevocationService;
+
+    @BeforeEach
+    void setUp() {
+        tokenRevocationService = new TokenRevocationService(revokedTokenRepository, revokedUserRepository, Duration.ofMinutes(15), 16, 0.01);
+    }
+
+    @Test
+    void isRevoked_ShouldReturnFalse_WhenTokenWasNotRevoked() {
+        assertFalse(tokenRevocationService.isRevoked(UUID.randomUUID().toString()));
+        assertFalse(tokenRevocationService.isRevoked(null));
+    }
+
+    @Test
+    void isRevoked_ShouldReturnTrue_WhenTokenIsRevokedOnThisNode() {
+        String jti = UUID.randomUUID().toString();
+
+        tokenRevocationService.revoke(jti, LocalDateTime.now().plusMinutes(15));
+
+        assertTrue(tokenRevocationService.isRevoked(jti));
+        verify(revokedTokenRepository, times(1)).save(any(RevokedToken.class));
+    }
+
+    @Test
+    void isRevoked_ShouldReturnTrue_WhenRevocationIsLoadedFromDatabase() {
+        String jti = UUID.randomUUID().toString();
+        when(revokedTokenRepository.findActiveJtis(any(LocalDateTime.class))).thenReturn(List.of(jti));
+
+        tokenRevocationService.reload();
+
+        assertTrue(tokenRevocationService.isRevoked(jti));
+    }
+
+    @Test
+    void reload_ShouldKeepLocalRevocation_WhenDatabaseSnapshotDoesNotContainIt() {
+        String jti = UUID.randomUUID().toString();
+        when(revokedTokenRepository.findActiveJtis(any(LocalDateTime.class))).thenReturn(List.of());
+
+        tokenRevocationService.revoke(jti, LocalDateTime.now().plusMinutes(15));
+        tokenRevocationService.reload();
+
+        assertTrue(tokenRevocationService.isRevoked(jti));
+    }
+
+    @Test
+    void isRevoked_ShouldNotLoseRevocations_WhenBloomFilterIsOverfilled() {
+        List<String> jtis = IntStream.range(0, 1000)
+                .mapToObj(i -> UUID.randomUUID().toString())
+                .toList();
+
+        jtis.forEach(jti -> tokenRevocationService.revoke(jti, LocalDateTime.now().plusMinutes(15)));
+
+        assertTrue(jtis.stream().allMatch(tokenRevocationService::isRevoked));
+        assertFalse(tokenRevocationService.isRevoked(UUID.randomUUID().toString()));
+    }
+
+    @Test
+    void isRevoked_ShouldRejectTokensIssuedBeforeUserRevocation_WhenUserIsRevoked() {
+        UUID userId = UUID.randomUUID();
+        Instant issuedBefore = Instant.now().minusSeconds(60);
+        when(revokedUserRepository.save(any(RevokedUser.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(revokedTokenRepository.findActiveJtis(any(LocalDateTime.class))).thenReturn(List.of());
+        when(revokedUserRepository.findActive(any(LocalDateTime.class))).thenReturn(List.of());
+
+        tokenRevocationService.revokeUser(userId);
+        tokenRevocationService.reload();
+
+        assertTrue(tokenRevocationService.isRevoked(userId, issuedBefore));
+        assertFalse(tokenRevocationService.isRevoked(userId, Instant.now().plusSeconds(60)));
+        assertFalse(tokenRevocationService.isRevoked(UUID.randomUUID(), issuedBefore));
+    }
+
+    @Test
+    void revokeUser_ShouldNotRevokeUser_WhenTransactionIsRolledBack() {
+        UUID userId = UUID.randomUUID();
+        when(revokedUserRepository.save(any(RevokedUser.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(revokedTokenRepository.findActiveJtis(any(LocalDateTime.class))).thenReturn(List.of());
+        when(revokedUserRepository.findActive(any(LocalDateTime.class))).thenReturn(List.of());
+
+        //Удаление пользователя откатилось после записи отзыва
+        completeTransaction(() -> tokenRevocationService.revokeUser(userId), TransactionSynchronization.STATUS_ROLLED_BACK);
+        tokenRevocationService.reload();
+
+        assertFalse(tokenRevocationService.isRevoked(userId, Instant.now().minusSeconds(60)));
+    }
+
+    @Test
+    void revokeUser_ShouldRevokeUserAfterCommit_WhenCalledInTransaction() {
+        UUID userId = UUID.randomUUID();
+        Instant issuedBefore = Instant.now().minusSeconds(60);
+        when(revokedUserRepository.save(any(RevokedUser.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        completeTransaction(() -> {
+            tokenRevocationService.revokeUser(userId);
+            assertFalse(tokenRevocationService.isRevoked(userId, issuedBefore));
+        }, TransactionSynchronization.STATUS_COMMITTED);
+
+        assertTrue(tokenRevocationService.isRevoked(userId, issuedBefore));
+    }
+
+    private void completeTransaction(Runnable action, int status) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            action.run();
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+
+            if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                TransactionSynchronizationUtils.invokeAfterCommit(synchronizations);
+            }
+
+            TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, status);
+        }
+        finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package ru.vozov.taskmanagamentsystem.service;
+
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.JpaProperties;
+import org.springframework.boot.orm.jpa.EntityManagerFactoryBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import ru.vozov.taskmanagamentsystem.dto.UserUpdateDto;
+import ru.vozov.taskmanagamentsystem.model.User;
+import ru.vozov.taskmanagamentsystem.repository.UserRepository;
+
+import javax.cache.Caching;
+import javax.sql.DataSource;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+//Кэш второго уровня включается так же, как в основной конфигурации: регионы берутся из application.conf
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=true",
+        "spring.jpa.properties.hibernate.cache.region.factory_class=jcache",
+        "spring.jpa.properties.hibernate.javax.cache.provider=com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider",
+        "spring.jpa.properties.hibernate.javax.cache.missing_cache_strategy=fail",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Sql(scripts = "classpath:sql/data.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:sql/clear.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+public class UserCacheTest {
+    static UUID USER_ID = UUID.fromString("8f7985de-a578-4419-b93f-ff9d29969b11");
+    static String USER_EMAIL = "test@gmail.com";
+
+    @Autowired
+    UserService userService;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    EntityManagerFactoryBuilder entityManagerFactoryBuilder;
+
+    @Autowired
+    JpaProperties jpaProperties;
+
+    @Autowired
+    HibernateProperties hibernateProperties;
+
+    @Autowired
+    DataSource dataSource;
+
+    Statistics statistics;
+
+    LocalContainerEntityManagerFactoryBean otherNode;
+
+    @BeforeEach
+    void setUp() {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        //Фикстуры пишутся SQL в обход Hibernate, поэтому кэш прошлого теста сбрасывается вручную
+        sessionFactory.getCache().evictAllRegions();
+        statistics = sessionFactory.getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (otherNode != null) {
+            otherNode.destroy();
+        }
+    }
+
+    @Test
+    void findById_ShouldReadUserFromSecondLevelCache_WhenUserIsLoadedAgain() {
+        userService.findById(USER_ID);
+
+        assertEquals(1, statistics.getSecondLevelCacheMissCount());
+        assertEquals(1, statistics.getSecondLevelCachePutCount());
+
+        statistics.clear();
+        userService.findById(USER_ID);
+
+        assertEquals(1, statistics.getDomainDataRegionStatistics("user").getHitCount());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @WithMockUser(username = "admin@gmail.com", roles = "ADMIN")
+    void findById_ShouldReturnUpdatedUser_WhenUserIsUpdated() {
+        userService.findById(USER_ID);
+
+        userService.update(USER_ID, new UserUpdateDto("renamed", null, null, null));
+
+        assertEquals("renamed", userService.findById(USER_ID).getUsername());
+    }
+
+    @Test
+    void loadUserByUsername_ShouldReadCredentialsFromDatabase_WhenUserIsCached() {
+        userService.findById(USER_ID);
+
+        statistics.clear();
+        userService.loadUserByUsername(USER_EMAIL);
+
+        assertEquals(0, statistics.getSecondLevelCacheHitCount());
+        assertTrue(statistics.getPrepareStatementCount() > 0);
+    }
+
+    @Test
+    void loadUserByUsername_ShouldSeeNewPassword_WhenPasswordIsChangedOnAnotherNode() {
+        EntityManagerFactory otherNodeFactory = startOtherNode();
+        String oldPassword;
+
+        //Второй узел прогревает свой кэш
+        try (EntityManager entityManager = otherNodeFactory.createEntityManager()) {
+            oldPassword = entityManager.find(User.class, USER_ID).getPassword();
+            repository(entityManager).findByEmail(USER_EMAIL).orElseThrow();
+        }
+
+        userService.updatePassword(
+                org.springframework.security.core.userdetails.User.withUsername(USER_EMAIL).password(oldPassword).roles("USER").build(),
+                "{noop}changed"
+        );
+
+        try (EntityManager entityManager = otherNodeFactory.createEntityManager()) {
+            //Кэш второго узла по-прежнему хранит старый хеш, но проверка пароля читает базу
+            assertEquals(oldPassword, entityManager.find(User.class, USER_ID).getPassword());
+            assertEquals("{noop}changed", repository(entityManager).findByEmail(USER_EMAIL).orElseThrow().getPassword());
+        }
+    }
+
+    //Второй узел: отдельная фабрика над той же базой со своим менеджером кэша
+    private EntityManagerFactory startOtherNode() {
+        Map<String, Object> properties = new HashMap<>(
+                hibernateProperties.determineHibernateProperties(jpaProperties.getProperties(), new HibernateSettings())
+        );
+        properties.put(
+                "hibernate.javax.cache.cache_manager",
+                Caching.getCachingProvider(CaffeineCachingProvider.class.getName()).getCacheManager(URI.create("other-node"), getClass().getClassLoader())
+        );
+
+        otherNode = entityManagerFactoryBuilder
+                .dataSource(dataSource)
+                .packages(User.class)
+                .persistenceUnit("other-node")
+                .properties(properties)
+                .build();
+        otherNode.afterPropertiesSet();
+
+        return otherNode.getObject();
+    }
+
+    private UserRepository repository(EntityManager entityManager) {
+        return new JpaRepositoryFactory(entityManager).getRepository(UserRepository.class);
+    }
+}
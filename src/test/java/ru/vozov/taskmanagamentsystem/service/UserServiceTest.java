@@ -11,8 +11,10 @@ import ru.vozov.taskmanagamentsystem.dto.UserUpdateDto;
 import ru.vozov.taskmanagamentsystem.exception.*;
 import ru.vozov.taskmanagamentsystem.model.Role;
 import ru.vozov.taskmanagamentsystem.model.User;
+import ru.vozov.taskmanagamentsystem.repository.TaskRepository;
 import ru.vozov.taskmanagamentsystem.repository.UserRepository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -31,6 +33,18 @@ public class UserServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private TaskCounterService taskCounterService;
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+
     @InjectMocks
     private UserService userService;
 
@@ -90,7 +104,7 @@ public class UserServiceTest {
     @Test
     void loadUserByUsername_ShouldReturnUser_WhenUserExists() {
         String email = "test@gmail.com";
-        User user = new User(UUID.randomUUID(), "test", "test", email,List.of(new Role(UUID.randomUUID(), "ROLE_USER")), List.of(), List.of());
+        User user = new User(UUID.randomUUID(), "test", "test", email,List.of(new Role(UUID.randomUUID(), "ROLE_USER")), List.of(), List.of(), 0L);
 
         when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
 
@@ -234,6 +248,7 @@ public class UserServiceTest {
         assertEquals(id, response.getId());
         verify(userRepository, times(1)).findById(id);
         verify(authService, times(1)).getAuthenticatedUser();
+        verify(tokenRevocationService, times(1)).revokeUser(id);
     }
 
     @Test
@@ -345,9 +360,9 @@ public class UserServiceTest {
     @Test
     void findAll_ShouldReturnUsers_WhenUsersExist() {
         Role userRole = new Role(UUID.randomUUID(), "ROLE_USER");
-        User test1 = new User(UUID.randomUUID(), "test1", null, "test1@gmail.com", List.of(userRole), List.of(), List.of());
-        User test2 = new User(UUID.randomUUID(), "test2", null, "test2@gmail.com", List.of(userRole), List.of(), List.of());
-        User test3 = new User(UUID.randomUUID(), "test3", null, "test3@gmail.com", List.of(userRole), List.of(), List.of());
+        User test1 = new User(UUID.randomUUID(), "test1", null, "test1@gmail.com", List.of(userRole), List.of(), List.of(), 0L);
+        User test2 = new User(UUID.randomUUID(), "test2", null, "test2@gmail.com", List.of(userRole), List.of(), List.of(), 0L);
+        User test3 = new User(UUID.randomUUID(), "test3", null, "test3@gmail.com", List.of(userRole), List.of(), List.of(), 0L);
         List<User> expectedUsers = List.of(test1, test2, test3);
 
         when(userRepository.findAll()).thenReturn(expectedUsers);
@@ -382,7 +397,10 @@ public class UserServiceTest {
         userService.delete(id);
 
         verify(userRepository, times(1)).existsById(id);
+        verify(taskRepository, times(1)).touchByUserId(eq(id), any(LocalDateTime.class));
+        verify(taskCounterService, times(1)).releaseUserTasks(id);
         verify(userRepository, times(1)).deleteById(id);
+        verify(tokenRevocationService, times(1)).revokeUser(id);
     }
 
     @Test
@@ -1,3 +1,25 @@
+delete from comment_archive;
+
+delete from task_archive;
+
+delete from task_import;
+
+delete from refresh_token;
+
 delete from "user";
 
-delete from task;
\ No newline at end of file
+delete from task;
+
+delete from outbox_event;
+
+delete from task_counter;
+
+delete from task_counter_delta;
+
+delete from task_tombstone;
+
+delete from idempotency_key;
+
+delete from revoked_token;
+
+delete from revoked_user;
\ No newline at end of file
@@ -68,4 +68,9 @@ select  '8ee7714a-f747-4a39-b589-9bcffc6db573',
         'ea8efca6-8625-4686-8bf8-7c4153d9666e',
         '2bc86005-4208-45da-a289-99c9e8c5d432';
 
+insert into task_counter_delta (author_id, executor_id, status, priority, delta)
+select author_id, executor_id, status, priority, count(*)
+    from task
+    group by author_id, executor_id, status, priority;
+
 
@@ -2,7 +2,8 @@ create table if not exists "user" (
     id UUID default random_uuid() primary key,
     email varchar(255) unique not null,
     password varchar(255) not null,
-    username varchar(30) not null
+    username varchar(30) not null,
+    version bigint not null default 0
 );
 
 create table if not exists role (
@@ -23,7 +24,12 @@ create table if not exists task (
     priority varchar(10) not null check (priority in ('LOW','MEDIUM','HIGH')),
     status varchar(15) not null check (status in ('TODO','IN_PROGRESS','DONE')),
     author_id UUID references "user"(id) on delete set null,
-    executor_id UUID references "user"(id) on delete set null
+    executor_id UUID references "user"(id) on delete set null,
+    version bigint not null default 0,
+    created_at timestamp not null default current_timestamp,
+    updated_at timestamp not null default current_timestamp,
+    priority_rank int generated always as (case priority when 'LOW' then 0 when 'MEDIUM' then 1 else 2 end),
+    status_rank int generated always as (case status when 'TODO' then 0 when 'IN_PROGRESS' then 1 else 2 end)
 );
 
 create table if not exists comment (
@@ -31,5 +37,172 @@ create table if not exists comment (
     text text not null,
     created_at timestamp not null,
     task_id UUID references task(id) on delete cascade,
-    commentator_id UUID references "user"(id) on delete set null
-);
\ No newline at end of file
+    commentator_id UUID references "user"(id) on delete set null,
+    version bigint not null default 0
+);
+
+create table if not exists outbox_event (
+    id UUID default random_uuid() primary key,
+    event_type varchar(31) not null,
+    aggregate_id UUID,
+    payload text not null,
+    created_at timestamp not null,
+    claim_token UUID,
+    claimed_until timestamp,
+    attempts int not null default 0,
+    last_error varchar(1000),
+    processed_at timestamp
+);
+
+create index if not exists outbox_event_created_at_idx on outbox_event (created_at);
+
+create table if not exists task_import (
+    id UUID default random_uuid() primary key,
+    file_name varchar(255),
+    format varchar(10) not null,
+    content_hash varchar(64),
+    content_size bigint,
+    status varchar(15) not null check (status in ('PENDING','RUNNING','COMPLETED','FAILED')),
+    author_id UUID references "user"(id) on delete set null,
+    processed_rows bigint not null default 0,
+    imported_rows bigint not null default 0,
+    rejected_rows bigint not null default 0,
+    error varchar(1000),
+    claim_token UUID,
+    created_at timestamp not null,
+    updated_at timestamp not null
+);
+
+create table if not exists task_import_error (
+    id UUID default random_uuid() primary key,
+    import_id UUID references task_import(id) on delete cascade,
+    record_number bigint not null,
+    message varchar(1000) not null
+);
+
+create index if not exists task_import_error_import_id_idx on task_import_error (import_id, record_number);
+
+create table if not exists task_counter (
+    id bigint generated by default as identity primary key,
+    author_id UUID,
+    executor_id UUID,
+    status varchar(15) not null,
+    priority varchar(10) not null,
+    task_count bigint not null
+);
+
+create table if not exists task_counter_delta (
+    id bigint generated by default as identity primary key,
+    author_id UUID,
+    executor_id UUID,
+    status varchar(15) not null,
+    priority varchar(10) not null,
+    delta int not null
+);
+
+create index if not exists task_priority_rank_idx on task (priority_rank, id);
+
+create index if not exists task_author_priority_rank_idx on task (author_id, priority_rank, id);
+
+create index if not exists task_executor_priority_rank_idx on task (executor_id, priority_rank, id);
+
+create index if not exists task_status_rank_idx on task (status_rank, id);
+
+create index if not exists task_author_status_rank_idx on task (author_id, status_rank, id);
+
+create index if not exists task_executor_status_rank_idx on task (executor_id, status_rank, id);
+
+create index if not exists task_created_at_idx on task (created_at, id);
+
+create index if not exists task_author_created_at_idx on task (author_id, created_at, id);
+
+create index if not exists task_executor_created_at_idx on task (executor_id, created_at, id);
+
+create index if not exists task_updated_at_idx on task (updated_at, id);
+
+create index if not exists task_author_updated_at_idx on task (author_id, updated_at, id);
+
+create index if not exists task_executor_updated_at_idx on task (executor_id, updated_at, id);
+
+create table if not exists task_tombstone (
+    task_id UUID primary key,
+    deleted_at timestamp not null
+);
+
+create index if not exists task_tombstone_deleted_at_idx on task_tombstone (deleted_at, task_id);
+
+create table if not exists task_archive (
+    id UUID primary key,
+    title varchar(127) not null,
+    description text not null,
+    priority varchar(10) not null,
+    status varchar(15) not null,
+    author_id UUID references "user"(id) on delete set null,
+    executor_id UUID references "user"(id) on delete set null,
+    version bigint not null default 0,
+    created_at timestamp not null,
+    updated_at timestamp not null,
+    priority_rank int generated always as (case priority when 'LOW' then 0 when 'MEDIUM' then 1 else 2 end),
+    status_rank int generated always as (case status when 'TODO' then 0 when 'IN_PROGRESS' then 1 else 2 end),
+    archived_at timestamp not null
+);
+
+create index if not exists task_archive_author_id_idx on task_archive (author_id, id);
+
+create index if not exists task_archive_executor_id_idx on task_archive (executor_id, id);
+
+create table if not exists comment_archive (
+    id UUID primary key,
+    text text not null,
+    created_at timestamp not null,
+    task_id UUID references task_archive(id) on delete cascade,
+    commentator_id UUID references "user"(id) on delete set null,
+    version bigint not null default 0
+);
+
+create index if not exists comment_archive_task_id_idx on comment_archive (task_id);
+
+create index if not exists task_status_updated_at_idx on task (status, updated_at, id);
+
+create index if not exists comment_task_id_idx on comment (task_id);
+
+create table if not exists idempotency_key (
+    id varchar(64) primary key,
+    fingerprint varchar(64) not null,
+    response_status int,
+    response_body text,
+    expires_at timestamp not null
+);
+
+create index if not exists idempotency_key_expires_at_idx on idempotency_key (expires_at);
+
+create table if not exists refresh_token (
+    id UUID primary key,
+    token_hash varchar(64) not null unique,
+    family_id UUID not null,
+    user_id UUID not null references "user"(id) on delete cascade,
+    created_at timestamp not null,
+    expires_at timestamp not null,
+    used_at timestamp,
+    revoked_at timestamp
+);
+
+create index if not exists refresh_token_family_id_idx on refresh_token (family_id);
+
+create index if not exists refresh_token_user_id_idx on refresh_token (user_id);
+
+create table if not exists revoked_token (
+    jti varchar(36) primary key,
+    expires_at timestamp not null,
+    revoked_at timestamp not null
+);
+
+create index if not exists revoked_token_expires_at_idx on revoked_token (expires_at);
+
+create table if not exists revoked_user (
+    user_id UUID primary key,
+    not_before timestamp not null,
+    expires_at timestamp not null
+);
+
+create index if not exists revoked_user_expires_at_idx on revoked_user (expires_at);
\ No newline at end of file